@@ -7,6 +7,7 @@ import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 import com.soybean.framework.commons.entity.Result;
 import com.soybean.framework.commons.entity.enums.CommonError;
 import com.soybean.framework.commons.exception.CheckedException;
+import com.soybean.framework.commons.exception.TooManyRequestsException;
 import feign.RetryableException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.ibatis.exceptions.PersistenceException;
@@ -182,6 +183,17 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     }
 
 
+    /**
+     * 服务繁忙，返回 429 便于调用方退避重试
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    @ResponseBody
+    public ResponseEntity<Result<ResponseEntity<Void>>> tooManyRequestsException(TooManyRequestsException e, HttpServletRequest request) {
+        log.warn("服务繁忙 - {} - {}", request.getRequestURI(), e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Result.fail(e.getCode(), e.getMessage()));
+    }
+
     @ExceptionHandler(ValidationException.class)
     @ResponseBody
     public final Result<ResponseEntity<Void>> handlerValidationException(final Exception e) {
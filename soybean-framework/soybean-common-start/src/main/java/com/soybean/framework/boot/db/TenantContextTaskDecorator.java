@@ -0,0 +1,37 @@
+package com.soybean.framework.boot.db;
+
+import com.baomidou.dynamic.datasource.toolkit.DynamicDataSourceContextHolder;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * 把提交任务线程的登录信息（租户、用户）与当前数据源传递到执行线程
+ *
+ * @author wenxina
+ */
+public class TenantContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    @NonNull
+    public Runnable decorate(@NonNull Runnable runnable) {
+        final SecurityContext securityContext = SecurityContextHolder.getContext();
+        final String dsKey = DynamicDataSourceContextHolder.peek();
+        return () -> {
+            final SecurityContext previous = SecurityContextHolder.getContext();
+            SecurityContextHolder.setContext(securityContext);
+            if (dsKey != null) {
+                DynamicDataSourceContextHolder.push(dsKey);
+            }
+            try {
+                runnable.run();
+            } finally {
+                if (dsKey != null) {
+                    DynamicDataSourceContextHolder.poll();
+                }
+                SecurityContextHolder.setContext(previous);
+            }
+        };
+    }
+}
@@ -2,6 +2,7 @@ package com.soybean.framework.boot.db;
 
 import com.soybean.framework.db.TenantEnvironment;
 import com.soybean.framework.security.client.utils.SecurityUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -39,4 +40,13 @@ public class TenantEnvironmentConfiguration {
         };
     }
 
+    /**
+     * 异步任务（如缓存提前刷新）继承租户与数据源上下文
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public TenantContextTaskDecorator tenantContextTaskDecorator() {
+        return new TenantContextTaskDecorator();
+    }
+
 }
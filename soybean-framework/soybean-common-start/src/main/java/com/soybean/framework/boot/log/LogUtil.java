@@ -1,5 +1,6 @@
 package com.soybean.framework.boot.log;
 
+import cn.hutool.core.util.StrUtil;
 import com.soybean.framework.commons.annotation.log.SysLog;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
@@ -55,4 +56,25 @@ public class LogUtil {
         }
     }
 
+    /**
+     * 解析原始 User-Agent 填充浏览器、系统等字段，在异步写入时调用
+     */
+    public static void parseUserAgent(OptLogDTO sysLog) {
+        final String ua = sysLog.getUserAgent();
+        if (StrUtil.isBlank(ua) || sysLog.getBrowser() != null) {
+            return;
+        }
+        final UserAgentInfo userAgent = UserAgentCache.getInstance().parse(ua);
+        if (userAgent == null) {
+            return;
+        }
+        sysLog.setEngine(userAgent.getEngine());
+        sysLog.setEngineVersion(userAgent.getEngineVersion());
+        sysLog.setOs(userAgent.getOs());
+        sysLog.setPlatform(userAgent.getPlatform());
+        sysLog.setVersion(userAgent.getVersion());
+        sysLog.setBrowser(userAgent.getBrowser());
+        sysLog.setBrowserVersion(userAgent.getBrowserVersion());
+    }
+
 }
@@ -106,6 +106,11 @@ public class OptLogDTO {
     private Long createdBy;
     private String createdName;
 
+    /**
+     * 原始 User-Agent，写入前解析为 browser、os 等字段
+     */
+    private String userAgent;
+
     private String browser;
     private String browserVersion;
     private String engine;
@@ -0,0 +1,80 @@
+package com.soybean.framework.boot.log;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.http.useragent.UserAgent;
+import cn.hutool.http.useragent.UserAgentUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.lang.NonNull;
+
+import java.util.Optional;
+
+/**
+ * User-Agent 解析缓存
+ * <p>
+ * 实际流量中不同的 User-Agent 很少，hutool 解析需要逐个匹配浏览器、系统规则，结果按原始字符串缓存；
+ * 缓存有容量上限，超长的 User-Agent 直接解析不缓存，登录日志与操作日志共用同一实例
+ *
+ * @author wenxina
+ */
+public final class UserAgentCache implements MeterBinder {
+
+    private static final int MAXIMUM_SIZE = 2048;
+    private static final int MAX_KEY_LENGTH = 512;
+
+    private static final UserAgentCache INSTANCE = new UserAgentCache(MAXIMUM_SIZE);
+
+    private final Cache<String, Optional<UserAgentInfo>> cache;
+
+    private UserAgentCache(int maximumSize) {
+        this.cache = Caffeine.newBuilder().maximumSize(maximumSize).recordStats().build();
+    }
+
+    public static UserAgentCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 解析 User-Agent
+     *
+     * @param ua 原始 User-Agent
+     * @return 解析结果，为空或无法解析时返回 null
+     */
+    public UserAgentInfo parse(String ua) {
+        if (StrUtil.isBlank(ua)) {
+            return null;
+        }
+        if (ua.length() > MAX_KEY_LENGTH) {
+            return doParse(ua).orElse(null);
+        }
+        return cache.get(ua, UserAgentCache::doParse).orElse(null);
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("user.agent.cache.size", this, UserAgentCache::size).description("User-Agent 缓存条数").register(registry);
+        FunctionCounter.builder("user.agent.cache.hits", cache, c -> c.stats().hitCount()).description("User-Agent 缓存命中数").register(registry);
+        FunctionCounter.builder("user.agent.cache.misses", cache, c -> c.stats().missCount()).description("User-Agent 缓存未命中数").register(registry);
+        FunctionCounter.builder("user.agent.cache.evictions", cache, c -> c.stats().evictionCount()).description("User-Agent 缓存淘汰数").register(registry);
+        Gauge.builder("user.agent.cache.parse.time", cache, c -> averageLoadMillis(c.stats()))
+                .description("User-Agent 平均解析耗时").baseUnit("milliseconds").register(registry);
+    }
+
+    private static double averageLoadMillis(CacheStats stats) {
+        return stats.averageLoadPenalty() / 1_000_000D;
+    }
+
+    private static Optional<UserAgentInfo> doParse(String ua) {
+        final UserAgent userAgent = UserAgentUtil.parse(ua);
+        return userAgent == null ? Optional.empty() : Optional.of(new UserAgentInfo(userAgent, ua));
+    }
+}
@@ -0,0 +1,52 @@
+package com.soybean.framework.boot.log;
+
+import cn.hutool.http.useragent.UserAgent;
+import lombok.Getter;
+
+/**
+ * User-Agent 解析结果，不可变，可在多个日志之间共享
+ *
+ * @author wenxina
+ */
+@Getter
+public final class UserAgentInfo {
+
+    /**
+     * 浏览器内核
+     */
+    private final String engine;
+    /**
+     * 浏览器内核版本
+     */
+    private final String engineVersion;
+    /**
+     * 操作系统
+     */
+    private final String os;
+    /**
+     * 平台
+     */
+    private final String platform;
+    /**
+     * 版本（{@link UserAgent#getVersion()}）
+     */
+    private final String version;
+    /**
+     * 浏览器
+     */
+    private final String browser;
+    /**
+     * 浏览器版本（{@link cn.hutool.http.useragent.Browser#getVersion(String)}）
+     */
+    private final String browserVersion;
+
+    UserAgentInfo(UserAgent userAgent, String ua) {
+        this.engine = userAgent.getEngine().getName();
+        this.engineVersion = userAgent.getEngineVersion();
+        this.os = userAgent.getOs().getName();
+        this.platform = userAgent.getPlatform().getName();
+        this.version = userAgent.getVersion();
+        this.browser = userAgent.getBrowser().getName();
+        this.browserVersion = userAgent.getBrowser().getVersion(ua);
+    }
+}
@@ -1,9 +1,12 @@
 package com.soybean.framework.boot.log.configuration;
 
+import com.soybean.framework.boot.log.UserAgentCache;
+import com.soybean.framework.boot.log.properties.SysLogProperties;
 import lombok.AllArgsConstructor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -20,6 +23,7 @@ import org.springframework.scheduling.annotation.EnableAsync;
 @Configuration
 @AllArgsConstructor
 @ConditionalOnWebApplication
+@EnableConfigurationProperties(SysLogProperties.class)
 @ConditionalOnProperty(name = "extend.log.enabled", havingValue = "true", matchIfMissing = true)
 public class LogAutoConfiguration {
 
@@ -28,4 +32,9 @@ public class LogAutoConfiguration {
     public SysLogAspect sysLogAspect() {
         return new SysLogAspect();
     }
+
+    @Bean
+    public UserAgentCache userAgentCache() {
+        return UserAgentCache.getInstance();
+    }
 }
@@ -1,15 +1,11 @@
 package com.soybean.framework.boot.log.configuration;
 
 
-import cn.hutool.core.convert.Convert;
 import cn.hutool.core.exceptions.ExceptionUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.core.util.URLUtil;
 import cn.hutool.extra.servlet.ServletUtil;
-import cn.hutool.http.useragent.Browser;
-import cn.hutool.http.useragent.UserAgent;
-import cn.hutool.http.useragent.UserAgentUtil;
 import com.alibaba.fastjson.JSONObject;
 import com.soybean.framework.boot.log.LogUtil;
 import com.soybean.framework.boot.log.OptLogDTO;
@@ -17,33 +13,36 @@ import com.soybean.framework.boot.log.event.SysLogEvent;
 import com.soybean.framework.commons.annotation.log.SysLog;
 import com.soybean.framework.commons.entity.Result;
 import com.soybean.framework.commons.exception.CheckedException;
+import com.soybean.framework.commons.util.SpelExpressionHelper;
 import com.soybean.framework.db.TenantEnvironment;
 import com.soybean.framework.db.properties.DatabaseProperties;
 import com.soybean.framework.db.properties.MultiTenantType;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.*;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
-import org.springframework.core.DefaultParameterNameDiscoverer;
-import org.springframework.expression.EvaluationContext;
-import org.springframework.expression.Expression;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.http.MediaType;
+import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Method;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.Objects;
-import java.util.function.Consumer;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * 操作日志使用spring event异步入库
+ * <p>
+ * 单个环绕通知完成记录：调用前只采集原始字段（IP、User-Agent 等），User-Agent 解析与 IP 归属地在异步写入时处理；
+ * 日志对象只在当前调用栈中传递，耗时使用 System.nanoTime() 计算
  *
  * @author wenxina
  * @since 2019-07-01 15:15
@@ -53,18 +52,9 @@ import java.util.function.Consumer;
 public class SysLogAspect {
 
     private static final int MAX_LENGTH = 65535;
-    private static final ThreadLocal<OptLogDTO> THREAD_LOCAL = new ThreadLocal<>();
     private static final String USER_AGENT = "User-Agent";
 
     private static final String JING_HAO = "#";
-    /**
-     * 用于SpEL表达式解析.
-     */
-    private final SpelExpressionParser spelExpressionParser = new SpelExpressionParser();
-    /**
-     * 用于获取方法参数定义名字.
-     */
-    private final DefaultParameterNameDiscoverer nameDiscoverer = new DefaultParameterNameDiscoverer();
     /**
      * 事件发布是由ApplicationContext对象管控的，我们发布事件前需要注入ApplicationContext对象调用publishEvent方法完成事件发布
      **/
@@ -91,101 +81,89 @@ public class SysLogAspect {
         // this method is empty
     }
 
-    private OptLogDTO get() {
-        OptLogDTO sysLog = THREAD_LOCAL.get();
-        if (sysLog == null) {
-            return new OptLogDTO();
+    @Around("sysLogAspect()")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        final SysLog sysLogAnnotation = LogUtil.getTargetAnnotation(joinPoint);
+        if (sysLogAnnotation == null) {
+            return joinPoint.proceed();
         }
-        return sysLog;
+        final OptLogDTO sysLog = tryCatch(() -> recordLog(joinPoint, sysLogAnnotation));
+        final long start = System.nanoTime();
+        final Object ret;
+        try {
+            ret = joinPoint.proceed();
+        } catch (Throwable e) {
+            if (sysLog != null) {
+                tryCatch(() -> doAfterThrowable(joinPoint, sysLogAnnotation, sysLog, start, e));
+            }
+            throw e;
+        }
+        if (sysLog != null) {
+            tryCatch(() -> doAfterReturning(sysLogAnnotation, sysLog, start, ret));
+        }
+        return ret;
     }
 
-    private void tryCatch(Consumer<String> consumer) {
+    private <T> T tryCatch(Supplier<T> supplier) {
         try {
-            consumer.accept("");
+            return supplier.get();
         } catch (Exception e) {
             log.warn("记录操作日志异常", e);
-            THREAD_LOCAL.remove();
+            return null;
         }
     }
 
     /**
      * 返回通知
-     *
-     * @param ret ret
      */
-    @AfterReturning(returning = "ret", pointcut = "sysLogAspect()")
-    public void doAfterReturning(JoinPoint joinPoint, Object ret) {
-        tryCatch(ex -> {
-            SysLog sysLogAnnotation = LogUtil.getTargetAnnotation(joinPoint);
-            if (sysLogAnnotation == null) {
-                return;
-            }
-            OptLogDTO sysLog = get();
-            sysLog.setStartTime(LocalDateTime.now());
-            if (ret instanceof Result) {
-                Result<?> result = Convert.convert(Result.class, ret);
-                if (result == null) {
-                    sysLog.setType("OPT");
-                    if (sysLogAnnotation.response()) {
-                        sysLog.setResult(getText(String.valueOf(ret)));
-                    }
-                } else {
-                    if (result.isSuccessful()) {
-                        sysLog.setType("OPT");
-                    } else {
-                        sysLog.setType("EX");
-                        sysLog.setExDesc(result.getMessage());
-                    }
-                    if (sysLogAnnotation.response()) {
-                        sysLog.setResult(result.toString());
-                    }
-                }
-            } else {
+    private OptLogDTO doAfterReturning(SysLog sysLogAnnotation, OptLogDTO sysLog, long start, Object ret) {
+        if (ret instanceof Result) {
+            Result<?> result = (Result<?>) ret;
+            if (result.isSuccessful()) {
                 sysLog.setType("OPT");
-                if (sysLogAnnotation.response()) {
-                    sysLog.setResult(getText(String.valueOf(ret == null ? "" : ret)));
-                }
+            } else {
+                sysLog.setType("EX");
+                sysLog.setExDesc(result.getMessage());
             }
-            publishEvent(sysLog);
-        });
-
+            if (sysLogAnnotation.response()) {
+                sysLog.setResult(getText(result.toString()));
+            }
+        } else {
+            sysLog.setType("OPT");
+            if (sysLogAnnotation.response()) {
+                sysLog.setResult(getText(String.valueOf(ret == null ? "" : ret)));
+            }
+        }
+        return publishEvent(sysLog, start);
     }
 
-    private void publishEvent(OptLogDTO sysLog) {
-        sysLog.setFinishTime(LocalDateTime.now());
-        sysLog.setConsumingTime(sysLog.getStartTime().until(sysLog.getFinishTime(), ChronoUnit.MILLIS));
+    private OptLogDTO publishEvent(OptLogDTO sysLog, long start) {
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        sysLog.setConsumingTime(elapsed);
+        sysLog.setFinishTime(sysLog.getStartTime().plus(elapsed, ChronoUnit.MILLIS));
         applicationContext.publishEvent(new SysLogEvent(sysLog));
-        THREAD_LOCAL.remove();
+        return sysLog;
     }
 
     /**
      * 异常通知
      */
-    @AfterThrowing(pointcut = "sysLogAspect()", throwing = "e")
-    public void doAfterThrowable(JoinPoint joinPoint, Throwable e) {
-        tryCatch(ex -> {
-            SysLog sysLogAnnotation = LogUtil.getTargetAnnotation(joinPoint);
-            if (sysLogAnnotation == null) {
-                return;
-            }
-            OptLogDTO sysLog = get();
-            sysLog.setType("EX");
-
-            // 遇到错误时，请求参数若为空，则记录
-            if (!sysLogAnnotation.request() && sysLogAnnotation.requestByError() && StrUtil.isEmpty(sysLog.getParams())) {
-                Object[] args = joinPoint.getArgs();
-                HttpServletRequest request = ((ServletRequestAttributes) Objects.requireNonNull(RequestContextHolder.getRequestAttributes())).getRequest();
-                String strArgs = getArgs(sysLogAnnotation, args, request);
-                sysLog.setParams(getText(strArgs));
+    private OptLogDTO doAfterThrowable(JoinPoint joinPoint, SysLog sysLogAnnotation, OptLogDTO sysLog, long start, Throwable e) {
+        sysLog.setType("EX");
+        // 遇到错误时，请求参数若为空，则记录
+        if (!sysLogAnnotation.request() && sysLogAnnotation.requestByError() && StrUtil.isEmpty(sysLog.getParams())) {
+            final HttpServletRequest request = currentRequest();
+            if (request != null) {
+                sysLog.setParams(getText(getArgs(joinPoint.getArgs(), request)));
             }
-            if (e.getCause() instanceof CheckedException) {
-                sysLog.setExDetail(e.getLocalizedMessage());
-            } else {
-                sysLog.setExDetail(ExceptionUtil.stacktraceToString(e, MAX_LENGTH));
-            }
-            sysLog.setExDesc(e.getMessage());
-            publishEvent(sysLog);
-        });
+        }
+        if (e.getCause() instanceof CheckedException) {
+            sysLog.setExDetail(e.getLocalizedMessage());
+        } else {
+            sysLog.setExDetail(ExceptionUtil.stacktraceToString(e, MAX_LENGTH));
+        }
+        sysLog.setExDesc(e.getMessage());
+        return publishEvent(sysLog, start);
     }
 
     /**
@@ -195,84 +173,74 @@ public class SysLogAspect {
      * @return String
      */
     private String getText(String val) {
-        return StrUtil.sub(val, 0, 65535);
+        return StrUtil.sub(val, 0, MAX_LENGTH);
     }
 
-    @Before(value = "sysLogAspect()")
-    public void recordLog(JoinPoint joinPoint) {
-        tryCatch((val) -> {
-            SysLog sysLogAnnotation = LogUtil.getTargetAnnotation(joinPoint);
-            if (sysLogAnnotation == null) {
-                return;
-            }
-            OptLogDTO sysLog = get();
+    /**
+     * 调用前只采集原始字段
+     */
+    private OptLogDTO recordLog(ProceedingJoinPoint joinPoint, SysLog sysLogAnnotation) {
+        OptLogDTO sysLog = new OptLogDTO();
+        sysLog.setStartTime(LocalDateTime.now());
+        if (tenantEnvironment != null) {
             sysLog.setCreatedBy(tenantEnvironment.userId());
             sysLog.setCreatedName(tenantEnvironment.realName());
-            String controllerMethodDescription = LogUtil.getDescription(sysLogAnnotation);
-            if (StrUtil.isNotEmpty(controllerMethodDescription) && StrUtil.contains(controllerMethodDescription, JING_HAO)) {
-                //获取方法参数值
-                Object[] args = joinPoint.getArgs();
-
-                MethodSignature methodSignature = (MethodSignature) joinPoint.getSignature();
-                controllerMethodDescription = getExpression(controllerMethodDescription, methodSignature, args);
-            }
-            sysLog.setDescription(controllerMethodDescription);
-            // 类名
-            sysLog.setClassPath(joinPoint.getTarget().getClass().getName());
-            //获取执行的方法名
-            sysLog.setActionMethod(joinPoint.getSignature().getName());
-
-            // 参数
-            Object[] args = joinPoint.getArgs();
-
-            HttpServletRequest request = ((ServletRequestAttributes) Objects.requireNonNull(RequestContextHolder.getRequestAttributes())).getRequest();
-            String strArgs = getArgs(sysLogAnnotation, args, request);
-            sysLog.setParams(getText(strArgs));
-            if (ObjectUtil.isEmpty(properties)) {
-                sysLog.setDsKey("no have dsKey");
-            } else {
-                final DatabaseProperties.MultiTenant multiTenant = properties.getMultiTenant();
-                if (multiTenant.getType() == MultiTenantType.DATASOURCE) {
-                    String tenantCode = request.getHeader(multiTenant.getTenantCodeColumn());
-                    if (StrUtil.equals(multiTenant.getSuperTenantCode(), tenantCode)) {
-                        sysLog.setDsKey(multiTenant.getDefaultDsName());
-                    } else {
-                        sysLog.setDsKey(multiTenant.getDsPrefix() + tenantCode);
-                    }
+        }
+        String controllerMethodDescription = LogUtil.getDescription(sysLogAnnotation);
+        if (StrUtil.isNotEmpty(controllerMethodDescription) && StrUtil.contains(controllerMethodDescription, JING_HAO)) {
+            MethodSignature methodSignature = (MethodSignature) joinPoint.getSignature();
+            controllerMethodDescription = getExpression(controllerMethodDescription, methodSignature, joinPoint.getArgs());
+        }
+        sysLog.setDescription(controllerMethodDescription);
+        // 类名
+        sysLog.setClassPath(joinPoint.getTarget().getClass().getName());
+        //获取执行的方法名
+        sysLog.setActionMethod(joinPoint.getSignature().getName());
+        final HttpServletRequest request = currentRequest();
+        if (request == null) {
+            return sysLog;
+        }
+        if (sysLogAnnotation.request()) {
+            sysLog.setParams(getText(getArgs(joinPoint.getArgs(), request)));
+        }
+        if (ObjectUtil.isEmpty(properties)) {
+            sysLog.setDsKey("no have dsKey");
+        } else {
+            final DatabaseProperties.MultiTenant multiTenant = properties.getMultiTenant();
+            if (multiTenant.getType() == MultiTenantType.DATASOURCE) {
+                String tenantCode = request.getHeader(multiTenant.getTenantCodeColumn());
+                if (StrUtil.equals(multiTenant.getSuperTenantCode(), tenantCode)) {
+                    sysLog.setDsKey(multiTenant.getDefaultDsName());
+                } else {
+                    sysLog.setDsKey(multiTenant.getDsPrefix() + tenantCode);
                 }
             }
-            sysLog.setIp(ServletUtil.getClientIP(request));
-            sysLog.setRequestUri(URLUtil.getPath(request.getRequestURI()));
-            sysLog.setHttpMethod(request.getMethod());
-            final UserAgent userAgent = UserAgentUtil.parse(request.getHeader("user-agent"));
-            sysLog.setEngine(userAgent.getEngine().getName());
-            sysLog.setEngineVersion(userAgent.getEngineVersion());
-            sysLog.setOs(userAgent.getOs().getName());
-            sysLog.setPlatform(userAgent.getPlatform().getName());
-            sysLog.setVersion(userAgent.getVersion());
-            final Browser browser = userAgent.getBrowser();
-            sysLog.setBrowser(browser.getName());
-            String ua = request.getHeader(USER_AGENT);
-            sysLog.setBrowserVersion(browser.getVersion(ua));
-            sysLog.setStartTime(LocalDateTime.now());
+        }
+        sysLog.setIp(ServletUtil.getClientIP(request));
+        sysLog.setRequestUri(URLUtil.getPath(request.getRequestURI()));
+        sysLog.setHttpMethod(request.getMethod());
+        // 异步写入时解析
+        sysLog.setUserAgent(request.getHeader(USER_AGENT));
+        return sysLog;
+    }
 
-            THREAD_LOCAL.set(sysLog);
-        });
+    private HttpServletRequest currentRequest() {
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes ? ((ServletRequestAttributes) attributes).getRequest() : null;
     }
 
-    private String getArgs(SysLog sysLogAnnotation, Object[] args, HttpServletRequest request) {
+    private String getArgs(Object[] args, HttpServletRequest request) {
         String strArgs = "";
-        if (sysLogAnnotation.request()) {
+        try {
+            final String contentType = request.getContentType();
+            if (contentType == null || !contentType.contains(MediaType.MULTIPART_FORM_DATA_VALUE)) {
+                strArgs = JSONObject.toJSONString(args);
+            }
+        } catch (Exception e) {
             try {
-                if (!request.getContentType().contains(MediaType.MULTIPART_FORM_DATA_VALUE)) {
-                    strArgs = JSONObject.toJSONString(args);
-                }
-            } catch (Exception e) {
-                try {
-                    strArgs = Arrays.toString(args);
-                } catch (Exception ex) {
-                    log.warn("解析参数异常", ex);
-                }
+                strArgs = Arrays.toString(args);
+            } catch (Exception ex) {
+                log.warn("解析参数异常", ex);
             }
         }
         return strArgs;
@@ -284,17 +252,10 @@ public class SysLogAspect {
     private String getExpression(String spel, MethodSignature methodSignature, Object[] args) {
         try {
             //获取方法形参名数组
-            String[] paramNames = nameDiscoverer.getParameterNames(methodSignature.getMethod());
-            if (paramNames != null && paramNames.length > 0) {
-                Expression expression = spelExpressionParser.parseExpression(spel);
-                // spring的表达式上下文对象
-                EvaluationContext context = new StandardEvaluationContext();
-                // 给上下文赋值
-                for (int i = 0; i < args.length; i++) {
-                    context.setVariable(paramNames[i], args[i]);
-                    context.setVariable("p" + i, args[i]);
-                }
-                return Objects.requireNonNull(expression.getValue(context)).toString();
+            final Method method = methodSignature.getMethod();
+            if (SpelExpressionHelper.getParameterNames(method).length > 0) {
+                // 变量为参数名及 p0、p1 形式的下标
+                return Objects.requireNonNull(SpelExpressionHelper.getValue(method, spel, args, Object.class)).toString();
             }
         } catch (Exception e) {
             log.warn("解析操作日志的el表达式出错", e);
@@ -304,4 +265,3 @@ public class SysLogAspect {
 
 
 }
-
@@ -0,0 +1,220 @@
+package com.soybean.framework.boot.log.event;
+
+import com.soybean.framework.boot.log.properties.SysLogProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.lang.NonNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 日志批量写入
+ * <p>
+ * 日志先进入有界队列，由单独的线程每 flushInterval 毫秒或满 batchSize 条取出，按 {@link #group(Object)} 分组后批量写入；
+ * 队列满时按 {@link SysLogProperties.Overflow} 处理，队列深度、丢弃、写入、失败数通过 Micrometer 暴露
+ *
+ * @param <T> 日志类型
+ * @author wenxina
+ */
+@Slf4j
+public abstract class LogPipeline<T> implements MeterBinder, DisposableBean {
+
+    private final String name;
+    private final String description;
+    private final SysLogProperties.Pipeline properties;
+    private final Consumer<List<T>> writer;
+    private final BlockingQueue<T> queue;
+    private final int sampleFrom;
+    private final Thread drainer;
+    private volatile boolean running = true;
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicLong sampleCounter = new AtomicLong();
+
+    /**
+     * @param name        指标前缀，同时用作写入线程名
+     * @param description 指标描述
+     * @param properties  配置
+     * @param writer      批量写入，同一批日志的分组相同
+     */
+    protected LogPipeline(String name, String description, SysLogProperties.Pipeline properties, Consumer<List<T>> writer) {
+        this.name = name;
+        this.description = description;
+        this.properties = properties;
+        this.writer = writer;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getCapacity()));
+        this.sampleFrom = (int) (Math.max(1, properties.getCapacity()) * properties.getSampleThreshold());
+        this.drainer = new Thread(this::drain, name.replace('.', '-') + "-pipeline");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+    /**
+     * 写入前在写入线程执行，用于解析等耗时处理
+     *
+     * @param item 日志
+     */
+    protected void prepare(T item) {
+    }
+
+    /**
+     * 分组，同一组的日志一起写入（如按数据源）
+     *
+     * @param item 日志
+     * @return 分组
+     */
+    protected abstract String group(T item);
+
+    /**
+     * SAMPLE 模式下是否必须保留
+     *
+     * @param item 日志
+     * @return 是否保留
+     */
+    protected boolean retain(T item) {
+        return false;
+    }
+
+    /**
+     * 放入队列，不会长时间阻塞调用方；开始关闭后不再接收
+     *
+     * @param item 日志
+     * @return 是否放入
+     */
+    public boolean offer(T item) {
+        if (!running) {
+            dropped.increment();
+            return false;
+        }
+        boolean accepted;
+        switch (properties.getOverflow()) {
+            case BLOCK:
+                try {
+                    accepted = queue.offer(item, properties.getBlockTimeout(), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    accepted = false;
+                }
+                break;
+            case SAMPLE:
+                if (queue.size() >= sampleFrom && !retain(item)
+                        && sampleCounter.incrementAndGet() % Math.max(1, properties.getSampleRate()) != 0) {
+                    accepted = false;
+                } else {
+                    accepted = queue.offer(item);
+                }
+                break;
+            default:
+                accepted = queue.offer(item);
+        }
+        // 入队期间开始关闭且写入线程已退出时，队列中的日志不会再被写入
+        if (accepted && !running && !drainer.isAlive() && queue.remove(item)) {
+            accepted = false;
+        }
+        if (!accepted) {
+            dropped.increment();
+        }
+        return accepted;
+    }
+
+    private void drain() {
+        final int batchSize = Math.max(1, properties.getBatchSize());
+        final long interval = TimeUnit.MILLISECONDS.toNanos(Math.max(1, properties.getFlushInterval()));
+        final List<T> buffer = new ArrayList<>(batchSize);
+        long deadline = System.nanoTime() + interval;
+        while (running || !queue.isEmpty()) {
+            try {
+                final long wait = deadline - System.nanoTime();
+                final T first = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                if (first != null) {
+                    buffer.add(first);
+                    queue.drainTo(buffer, batchSize - buffer.size());
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            if (buffer.size() >= batchSize || System.nanoTime() - deadline >= 0 || !running) {
+                flush(buffer);
+                deadline = System.nanoTime() + interval;
+            }
+        }
+        flush(buffer);
+    }
+
+    private void flush(List<T> buffer) {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        Map<String, List<T>> groups = new LinkedHashMap<>();
+        for (T item : buffer) {
+            try {
+                prepare(item);
+            } catch (Exception e) {
+                log.debug("{} 预处理失败", name, e);
+            }
+            groups.computeIfAbsent(group(item), key -> new ArrayList<>()).add(item);
+        }
+        buffer.clear();
+        groups.forEach((group, items) -> {
+            try {
+                writer.accept(items);
+                written.add(items.size());
+            } catch (Exception e) {
+                failed.add(items.size());
+                log.error("{} 批量写入失败，分组:{}，条数:{}", description, group, items.size(), e);
+            }
+        });
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder(name + ".queue.size", queue, BlockingQueue::size).description(description + "队列深度").register(registry);
+        FunctionCounter.builder(name + ".dropped", dropped, LongAdder::sum).description(description + "丢弃数").register(registry);
+        FunctionCounter.builder(name + ".written", written, LongAdder::sum).description(description + "写入数").register(registry);
+        FunctionCounter.builder(name + ".failed", failed, LongAdder::sum).description(description + "写入失败数").register(registry);
+    }
+
+    /**
+     * 停止接收并写完队列中的日志
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        // 不中断写入线程，避免打断正在执行的数据库写入；最多等待 10 秒加一个写入间隔，超时后不再等待剩余日志写完
+        drainer.join(TimeUnit.SECONDS.toMillis(10) + properties.getFlushInterval());
+    }
+}
@@ -1,27 +1,38 @@
 package com.soybean.framework.boot.log.event;
 
 import com.soybean.framework.boot.log.OptLogDTO;
-import lombok.AllArgsConstructor;
+import com.soybean.framework.boot.log.properties.SysLogProperties;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.annotation.Order;
-import org.springframework.scheduling.annotation.Async;
 
 import java.util.function.Consumer;
 
 
 /**
- * 异步监听日志事件
+ * 监听日志事件，放入 {@link SysLogPipeline} 后异步批量写入
  *
  * @author wenxina
  */
 @Slf4j
-@AllArgsConstructor
-public class SysLogListener {
+public class SysLogListener implements DisposableBean {
 
-    private final Consumer<OptLogDTO> consumer;
+    private final SysLogPipeline pipeline;
+
+    public SysLogListener(SysLogPipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * 逐条写入，使用默认的队列配置
+     *
+     * @param consumer 单条写入
+     */
+    public SysLogListener(Consumer<OptLogDTO> consumer) {
+        this(new SysLogPipeline(new SysLogProperties.Pipeline(), logs -> logs.forEach(consumer)));
+    }
 
-    @Async
     @Order
     @EventListener(SysLogEvent.class)
     public void saveSysLog(SysLogEvent event) {
@@ -30,7 +41,14 @@ public class SysLogListener {
             log.warn("日志为空，忽略操作日志...");
             return;
         }
-        consumer.accept(sysLog);
+        if (!pipeline.offer(sysLog)) {
+            log.debug("操作日志队列已满，丢弃日志 {}", sysLog.getActionMethod());
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        pipeline.destroy();
     }
 
 }
@@ -0,0 +1,41 @@
+package com.soybean.framework.boot.log.event;
+
+import com.soybean.framework.boot.log.LogUtil;
+import com.soybean.framework.boot.log.OptLogDTO;
+import com.soybean.framework.boot.log.properties.SysLogProperties;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 操作日志批量写入，按数据源（dsKey）分组，写入前解析 User-Agent，SAMPLE 模式下异常日志全部保留
+ *
+ * @author wenxina
+ */
+public class SysLogPipeline extends LogPipeline<OptLogDTO> {
+
+    private static final String EX = "EX";
+
+    /**
+     * @param properties 配置
+     * @param writer     批量写入，同一批日志的 dsKey 相同
+     */
+    public SysLogPipeline(SysLogProperties.Pipeline properties, Consumer<List<OptLogDTO>> writer) {
+        super("sys.log", "操作日志", properties, writer);
+    }
+
+    @Override
+    protected void prepare(OptLogDTO sysLog) {
+        LogUtil.parseUserAgent(sysLog);
+    }
+
+    @Override
+    protected String group(OptLogDTO sysLog) {
+        return sysLog.getDsKey();
+    }
+
+    @Override
+    protected boolean retain(OptLogDTO sysLog) {
+        return EX.equals(sysLog.getType());
+    }
+}
@@ -0,0 +1,74 @@
+package com.soybean.framework.boot.log.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 操作日志配置
+ *
+ * @author wenxina
+ */
+@Data
+@ConfigurationProperties(prefix = "extend.log")
+public class SysLogProperties {
+
+    /**
+     * 是否开启操作日志
+     */
+    private boolean enabled = true;
+
+    private Pipeline pipeline = new Pipeline();
+
+    /**
+     * 日志批量写入
+     */
+    @Data
+    public static class Pipeline {
+        /**
+         * 队列容量
+         */
+        private int capacity = 8192;
+        /**
+         * 达到该条数立即写入
+         */
+        private int batchSize = 200;
+        /**
+         * 最长写入间隔（毫秒）
+         */
+        private long flushInterval = 1000;
+        /**
+         * 队列满时的处理方式
+         */
+        private Overflow overflow = Overflow.DROP;
+        /**
+         * SAMPLE 模式下队列超过 sampleThreshold 后每 sampleRate 条保留 1 条（异常日志全部保留）
+         */
+        private int sampleRate = 10;
+        /**
+         * SAMPLE 模式开始采样的队列使用比例
+         */
+        private double sampleThreshold = 0.8;
+        /**
+         * BLOCK 模式最长等待时间（毫秒），超时后丢弃
+         */
+        private long blockTimeout = 100;
+    }
+
+    /**
+     * 队列满时的处理方式
+     */
+    public enum Overflow {
+        /**
+         * 直接丢弃
+         */
+        DROP,
+        /**
+         * 接近满时采样
+         */
+        SAMPLE,
+        /**
+         * 阻塞等待
+         */
+        BLOCK
+    }
+}
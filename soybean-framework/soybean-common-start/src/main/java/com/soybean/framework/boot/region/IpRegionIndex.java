@@ -0,0 +1,238 @@
+package com.soybean.framework.boot.region;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * IP 归属地内存索引
+ * <p>
+ * 启动时将 ip2region.db（1.x 格式）完整读入内存，索引段转换为有序的 int[] 区间，查询时二分查找，不依赖临时文件与反射；
+ * 相同的地区字符串只保存一份，最近的查询结果保存在一个固定大小的直接映射缓存中
+ *
+ * @author wenxina
+ */
+@Slf4j
+public final class IpRegionIndex {
+
+    /**
+     * 无效 IP
+     */
+    public static final String EMPTY = "";
+    /**
+     * 未收录的 IP
+     */
+    public static final String UNKNOWN = "未知";
+
+    private static final String DB_PATH = "/ip2region/ip2region.db";
+    private static final int INDEX_BLOCK_LENGTH = 12;
+    private static final int CACHE_SIZE = 1024;
+
+    /**
+     * 区间起止 IP（已与 0x80000000 异或，可直接按有符号比较）
+     */
+    private final int[] startIps;
+    private final int[] endIps;
+    private final int[] regionIds;
+    private final String[] regions;
+    private final CachedRegion[] cache = new CachedRegion[CACHE_SIZE];
+
+    private IpRegionIndex(int[] startIps, int[] endIps, int[] regionIds, String[] regions) {
+        this.startIps = startIps;
+        this.endIps = endIps;
+        this.regionIds = regionIds;
+        this.regions = regions;
+    }
+
+    /**
+     * 默认索引，从 classpath:ip2region/ip2region.db 加载，文件不存在时为空索引
+     *
+     * @return 索引
+     */
+    public static IpRegionIndex getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * 从 ip2region.db 加载
+     *
+     * @param in 数据流，由调用方关闭
+     * @return 索引
+     * @throws IOException 读取失败
+     */
+    public static IpRegionIndex load(InputStream in) throws IOException {
+        final byte[] db = in.readAllBytes();
+        final int firstIndexPtr = readInt(db, 0);
+        final int lastIndexPtr = readInt(db, 4);
+        final int count = (lastIndexPtr - firstIndexPtr) / INDEX_BLOCK_LENGTH + 1;
+        final int[] startIps = new int[count];
+        final int[] endIps = new int[count];
+        final int[] regionIds = new int[count];
+        final Map<Integer, Integer> dataPtrToRegion = new HashMap<>();
+        final List<String> regions = new ArrayList<>();
+        for (int i = 0, p = firstIndexPtr; i < count; i++, p += INDEX_BLOCK_LENGTH) {
+            startIps[i] = readInt(db, p) ^ Integer.MIN_VALUE;
+            endIps[i] = readInt(db, p + 4) ^ Integer.MIN_VALUE;
+            final int dataPtr = readInt(db, p + 8);
+            regionIds[i] = dataPtrToRegion.computeIfAbsent(dataPtr, key -> {
+                final int length = (key >>> 24) & 0xFF;
+                final int offset = key & 0x00FFFFFF;
+                // 数据块前 4 字节为城市 ID
+                regions.add(new String(db, offset + 4, length - 4, StandardCharsets.UTF_8));
+                return regions.size() - 1;
+            });
+        }
+        return new IpRegionIndex(startIps, endIps, regionIds, regions.toArray(new String[0]));
+    }
+
+    /**
+     * 查询 IP 归属地
+     *
+     * @param ip IPv4 地址
+     * @return 归属地，无效 IP 返回空字符串，未收录返回 {@link #UNKNOWN}
+     */
+    public String search(String ip) {
+        final long value = parseIpv4(ip);
+        if (value < 0) {
+            return EMPTY;
+        }
+        return search((int) value);
+    }
+
+    /**
+     * 批量查询，结果与入参一一对应
+     *
+     * @param ips IPv4 地址
+     * @return 归属地
+     */
+    public List<String> search(List<String> ips) {
+        final List<String> result = new ArrayList<>(ips.size());
+        for (String ip : ips) {
+            result.add(search(ip));
+        }
+        return result;
+    }
+
+    /**
+     * 查询 IP 归属地
+     *
+     * @param ip IPv4 地址的整数形式
+     * @return 归属地，未收录返回 {@link #UNKNOWN}，索引未加载时返回空字符串
+     */
+    public String search(int ip) {
+        if (startIps.length == 0) {
+            return EMPTY;
+        }
+        final int slot = (ip ^ (ip >>> 16)) & (CACHE_SIZE - 1);
+        final CachedRegion cached = cache[slot];
+        if (cached != null && cached.ip == ip) {
+            return cached.region;
+        }
+        final int id = find(ip ^ Integer.MIN_VALUE);
+        final String region = id < 0 ? UNKNOWN : regions[id];
+        cache[slot] = new CachedRegion(ip, region);
+        return region;
+    }
+
+    public int size() {
+        return startIps.length;
+    }
+
+    private int find(int key) {
+        int low = 0;
+        int high = startIps.length - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            if (key < startIps[mid]) {
+                high = mid - 1;
+            } else if (key > endIps[mid]) {
+                low = mid + 1;
+            } else {
+                return regionIds[mid];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 解析点分十进制 IPv4，不创建中间对象
+     *
+     * @return 无符号整数形式，无效时返回 -1
+     */
+    static long parseIpv4(String ip) {
+        if (ip == null) {
+            return -1;
+        }
+        final int length = ip.length();
+        if (length < 7 || length > 15) {
+            return -1;
+        }
+        long result = 0;
+        int part = 0;
+        int digits = 0;
+        int dots = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                part = part * 10 + (c - '0');
+                if (++digits > 3 || part > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && digits > 0 && dots < 3) {
+                result = (result << 8) | part;
+                part = 0;
+                digits = 0;
+                dots++;
+            } else {
+                return -1;
+            }
+        }
+        if (dots != 3 || digits == 0) {
+            return -1;
+        }
+        return (result << 8) | part;
+    }
+
+    private static int readInt(byte[] b, int offset) {
+        return (b[offset] & 0xFF) | ((b[offset + 1] & 0xFF) << 8) | ((b[offset + 2] & 0xFF) << 16) | ((b[offset + 3] & 0xFF) << 24);
+    }
+
+    private static final class CachedRegion {
+
+        private final int ip;
+        private final String region;
+
+        private CachedRegion(int ip, String region) {
+            this.ip = ip;
+            this.region = region;
+        }
+    }
+
+    private static final class Holder {
+
+        private static final IpRegionIndex INSTANCE = loadDefault();
+
+        private static IpRegionIndex loadDefault() {
+            final long start = System.nanoTime();
+            try (InputStream in = IpRegionIndex.class.getResourceAsStream(DB_PATH)) {
+                if (in == null) {
+                    log.warn("未找到 classpath:{}，IP 归属地查询将返回空", DB_PATH);
+                    return new IpRegionIndex(new int[0], new int[0], new int[0], new String[0]);
+                }
+                final IpRegionIndex index = load(in);
+                log.info("IP 归属地索引加载完成，区间 {} 个，地区 {} 个，耗时 {} ms", index.size(), index.regions.length,
+                        (System.nanoTime() - start) / 1_000_000);
+                return index;
+            } catch (IOException | RuntimeException e) {
+                log.error("init ip region error", e);
+                return new IpRegionIndex(new int[0], new int[0], new int[0], new String[0]);
+            }
+        }
+    }
+}
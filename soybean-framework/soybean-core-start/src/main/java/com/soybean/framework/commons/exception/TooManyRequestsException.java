@@ -0,0 +1,21 @@
+package com.soybean.framework.commons.exception;
+
+import com.soybean.framework.commons.entity.enums.CommonError;
+
+/**
+ * 服务繁忙，拒绝处理（HTTP 429），调用方应稍后重试
+ *
+ * @author wenxina
+ */
+public class TooManyRequestsException extends CheckedException {
+
+    private static final long serialVersionUID = 2913658135702183054L;
+
+    public TooManyRequestsException(String message) {
+        super(CommonError.TOO_MANY_REQUESTS.type(), message);
+    }
+
+    public TooManyRequestsException(String message, Throwable t) {
+        super(CommonError.TOO_MANY_REQUESTS.type(), message, t);
+    }
+}
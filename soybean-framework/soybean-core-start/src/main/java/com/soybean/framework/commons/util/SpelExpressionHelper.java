@@ -0,0 +1,246 @@
+package com.soybean.framework.commons.util;
+
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.ConstructorResolver;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.MethodResolver;
+import org.springframework.expression.OperatorOverloader;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.TypeComparator;
+import org.springframework.expression.TypeConverter;
+import org.springframework.expression.TypeLocator;
+import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 方法参数 SpEL 表达式解析
+ * <p>
+ * 按 (方法, 表达式) 缓存解析结果并优先编译（{@link SpelCompilerMode#IMMEDIATE}），编译失败时退回解释执行；
+ * 参数名按方法缓存；求值使用按线程复用的轻量上下文，变量为方法参数名以及 p0/a0 形式的下标别名
+ *
+ * @author wenxina
+ */
+public final class SpelExpressionHelper {
+
+    private static final SpelExpressionParser COMPILED_PARSER = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, SpelExpressionHelper.class.getClassLoader()));
+    private static final SpelExpressionParser INTERPRETED_PARSER = new SpelExpressionParser();
+    private static final ParameterNameDiscoverer NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+    private static final String[] NO_NAMES = new String[0];
+
+    private static final Map<Method, String[]> PARAMETER_NAMES = new ConcurrentHashMap<>();
+    private static final Map<Method, Map<String, CachedExpression>> EXPRESSIONS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<MethodEvaluationContext> CONTEXT = ThreadLocal.withInitial(MethodEvaluationContext::new);
+
+    private SpelExpressionHelper() {
+    }
+
+    /**
+     * 获取方法参数名，无法获取时返回空数组
+     *
+     * @param method 方法
+     * @return 参数名
+     */
+    public static String[] getParameterNames(Method method) {
+        return PARAMETER_NAMES.computeIfAbsent(method, key -> {
+            final String[] names = NAME_DISCOVERER.getParameterNames(key);
+            return names == null ? NO_NAMES : names;
+        });
+    }
+
+    /**
+     * 以方法参数为变量计算表达式
+     *
+     * @param method     方法
+     * @param expression 表达式
+     * @param args       参数
+     * @param type       结果类型
+     * @param <T>        T
+     * @return 结果
+     */
+    @Nullable
+    public static <T> T getValue(Method method, String expression, Object[] args, Class<T> type) {
+        final CachedExpression cached = EXPRESSIONS.computeIfAbsent(method, key -> new ConcurrentHashMap<>(4))
+                .computeIfAbsent(expression, CachedExpression::new);
+        final MethodEvaluationContext context = CONTEXT.get();
+        final String[] previousNames = context.names;
+        final Object[] previousArgs = context.args;
+        context.bind(getParameterNames(method), args);
+        try {
+            return cached.getValue(context, type);
+        } finally {
+            context.bind(previousNames, previousArgs);
+        }
+    }
+
+    /**
+     * 编译失败或编译后的代码不适用当前参数类型时，切换为解释执行
+     */
+    private static final class CachedExpression {
+
+        private final String source;
+        private volatile Expression expression;
+        private volatile boolean compiled = true;
+
+        private CachedExpression(String source) {
+            this.source = source;
+            this.expression = COMPILED_PARSER.parseExpression(source);
+        }
+
+        private <T> T getValue(EvaluationContext context, Class<T> type) {
+            if (!compiled) {
+                return expression.getValue(context, type);
+            }
+            try {
+                return expression.getValue(context, type);
+            } catch (SpelEvaluationException e) {
+                compiled = false;
+                expression = INTERPRETED_PARSER.parseExpression(source);
+                return expression.getValue(context, type);
+            }
+        }
+    }
+
+    /**
+     * 只读的轻量上下文，变量直接按参数名查找，其余能力委托给共享的 {@link StandardEvaluationContext}
+     */
+    private static final class MethodEvaluationContext implements EvaluationContext {
+
+        private static final StandardEvaluationContext DELEGATE = new StandardEvaluationContext();
+
+        static {
+            // 提前初始化，避免多线程下懒加载
+            DELEGATE.getPropertyAccessors();
+            DELEGATE.getConstructorResolvers();
+            DELEGATE.getMethodResolvers();
+            DELEGATE.getTypeLocator();
+            DELEGATE.getTypeConverter();
+        }
+
+        private String[] names = NO_NAMES;
+        private Object[] args;
+        private Map<String, Object> assigned;
+
+        private void bind(String[] names, Object[] args) {
+            this.names = names;
+            this.args = args;
+            if (assigned != null) {
+                assigned.clear();
+            }
+        }
+
+        @Override
+        @Nullable
+        public Object lookupVariable(@NonNull String name) {
+            if (assigned != null && assigned.containsKey(name)) {
+                return assigned.get(name);
+            }
+            if (args == null) {
+                return null;
+            }
+            for (int i = 0; i < names.length && i < args.length; i++) {
+                if (names[i].equals(name)) {
+                    return args[i];
+                }
+            }
+            final int index = aliasIndex(name);
+            return index >= 0 && index < args.length ? args[index] : null;
+        }
+
+        /**
+         * p0、a0 形式的下标别名
+         */
+        private static int aliasIndex(String name) {
+            final int length = name.length();
+            if (length < 2 || length > 4 || (name.charAt(0) != 'p' && name.charAt(0) != 'a')) {
+                return -1;
+            }
+            int index = 0;
+            for (int i = 1; i < length; i++) {
+                final char ch = name.charAt(i);
+                if (ch < '0' || ch > '9') {
+                    return -1;
+                }
+                index = index * 10 + (ch - '0');
+            }
+            return index;
+        }
+
+        @Override
+        public void setVariable(@NonNull String name, @Nullable Object value) {
+            if (assigned == null) {
+                assigned = new HashMap<>(4);
+            }
+            assigned.put(name, value);
+        }
+
+        @Override
+        @NonNull
+        public TypedValue getRootObject() {
+            return TypedValue.NULL;
+        }
+
+        @Override
+        @NonNull
+        public List<PropertyAccessor> getPropertyAccessors() {
+            return DELEGATE.getPropertyAccessors();
+        }
+
+        @Override
+        @NonNull
+        public List<ConstructorResolver> getConstructorResolvers() {
+            return DELEGATE.getConstructorResolvers();
+        }
+
+        @Override
+        @NonNull
+        public List<MethodResolver> getMethodResolvers() {
+            return DELEGATE.getMethodResolvers();
+        }
+
+        @Override
+        @Nullable
+        public BeanResolver getBeanResolver() {
+            return null;
+        }
+
+        @Override
+        @NonNull
+        public TypeLocator getTypeLocator() {
+            return DELEGATE.getTypeLocator();
+        }
+
+        @Override
+        @NonNull
+        public TypeConverter getTypeConverter() {
+            return DELEGATE.getTypeConverter();
+        }
+
+        @Override
+        @NonNull
+        public TypeComparator getTypeComparator() {
+            return DELEGATE.getTypeComparator();
+        }
+
+        @Override
+        @NonNull
+        public OperatorOverloader getOperatorOverloader() {
+            return DELEGATE.getOperatorOverloader();
+        }
+    }
+}
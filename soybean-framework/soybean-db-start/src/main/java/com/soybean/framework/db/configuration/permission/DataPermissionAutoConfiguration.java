@@ -6,7 +6,9 @@ import com.soybean.framework.db.mybatis.auth.permission.db.DataPermissionDatabas
 import com.soybean.framework.db.mybatis.auth.permission.rule.DataPermissionRule;
 import com.soybean.framework.db.mybatis.auth.permission.rule.DataPermissionRuleFactory;
 import com.soybean.framework.db.mybatis.auth.permission.rule.DataPermissionRuleFactoryImpl;
+import com.soybean.framework.db.properties.DatabaseProperties;
 import com.soybean.framework.db.util.MyBatisUtils;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -27,10 +29,12 @@ public class DataPermissionAutoConfiguration {
 
     @Bean
     public DataPermissionDatabaseInterceptor dataPermissionDatabaseInterceptor(MybatisPlusInterceptor interceptor,
-                                                                               List<DataPermissionRule> rules) {
+                                                                               List<DataPermissionRule> rules,
+                                                                               ObjectProvider<DatabaseProperties> properties) {
         // 创建 DataPermissionDatabaseInterceptor 拦截器
         DataPermissionRuleFactory ruleFactory = dataPermissionRuleFactory(rules);
-        DataPermissionDatabaseInterceptor inner = new DataPermissionDatabaseInterceptor(ruleFactory);
+        int sqlTemplateCacheSize = properties.getIfAvailable(DatabaseProperties::new).getDataPermissionSqlCacheSize();
+        DataPermissionDatabaseInterceptor inner = new DataPermissionDatabaseInterceptor(ruleFactory, sqlTemplateCacheSize);
         // 添加到 interceptor 中
         // 需要加在首个，主要是为了在分页插件前面。这个是 MyBatis Plus 的规定
         MyBatisUtils.addInterceptor(interceptor, inner, 0);
@@ -1,8 +1,15 @@
 package com.soybean.framework.db.configuration.permission;
 
+import com.soybean.framework.db.configuration.permission.event.DataScopeChangedEvent;
+import com.soybean.framework.db.configuration.permission.event.DataScopeChangedEventListener;
 import com.soybean.framework.db.mybatis.auth.permission.rule.dept.DeptDataPermissionRule;
 import com.soybean.framework.db.mybatis.auth.permission.rule.dept.DeptDataPermissionRuleCustomizer;
+import com.soybean.framework.db.mybatis.auth.permission.service.DataScopeCache;
 import com.soybean.framework.db.mybatis.auth.permission.service.DataScopeService;
+import com.soybean.framework.db.properties.DatabaseProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.bus.jackson.RemoteApplicationEventScan;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -14,15 +21,29 @@ import java.util.List;
  * @author 芋道源码
  */
 @Configuration
+@RemoteApplicationEventScan(basePackageClasses = DataScopeChangedEvent.class)
 //@ConditionalOnClass(UserInfoDetails.class)
 //@ConditionalOnBean(value = {DataScopeService.class, DeptDataPermissionRuleCustomizer.class})
 public class DeptDataPermissionAutoConfiguration {
 
     @Bean
-    public DeptDataPermissionRule deptDataPermissionRule(DataScopeService dataScopeService,
+    public DataScopeCache dataScopeCache(DataScopeService dataScopeService,
+                                                           ObjectProvider<DatabaseProperties> properties) {
+        DatabaseProperties databaseProperties = properties.getIfAvailable(DatabaseProperties::new);
+        return new DataScopeCache(dataScopeService, databaseProperties.getDataScopeCacheTtl(),
+                databaseProperties.getDataScopeCacheSize());
+    }
+
+    @Bean
+    public ApplicationListener<DataScopeChangedEvent> dataScopeChangedEventListener(DataScopeCache dataScopeCache) {
+        return new DataScopeChangedEventListener(dataScopeCache);
+    }
+
+    @Bean
+    public DeptDataPermissionRule deptDataPermissionRule(DataScopeCache dataScopeCache,
                                                          List<DeptDataPermissionRuleCustomizer> customizers) {
-        // 创建 DeptDataPermissionRule 对象
-        DeptDataPermissionRule rule = new DeptDataPermissionRule(dataScopeService);
+        // 创建 DeptDataPermissionRule 对象，数据权限走请求级 / 跨请求缓存
+        DeptDataPermissionRule rule = new DeptDataPermissionRule(dataScopeCache::getDataScopeById);
         // 补全表配置
         customizers.forEach(customizer -> customizer.customize(rule));
         return rule;
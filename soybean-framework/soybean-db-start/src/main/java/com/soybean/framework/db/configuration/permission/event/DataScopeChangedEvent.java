@@ -0,0 +1,20 @@
+package com.soybean.framework.db.configuration.permission.event;
+
+import org.springframework.cloud.bus.event.RemoteApplicationEvent;
+
+
+/**
+ * 数据范围变更事件，通过 Bus 广播到所有服务，用于清空数据权限缓存
+ *
+ * @author wenxina
+ */
+public class DataScopeChangedEvent extends RemoteApplicationEvent {
+
+    public DataScopeChangedEvent() {
+    }
+
+    public DataScopeChangedEvent(Object body, String originService) {
+        super(body, originService, DEFAULT_DESTINATION_FACTORY.getDestination(null));
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.soybean.framework.db.configuration.permission.event;
+
+import com.soybean.framework.db.mybatis.auth.permission.service.DataScopeCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationListener;
+
+/**
+ * @author wenxina
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DataScopeChangedEventListener implements ApplicationListener<DataScopeChangedEvent> {
+
+    private final DataScopeCache dataScopeCache;
+
+    @Override
+    public void onApplicationEvent(DataScopeChangedEvent event) {
+        log.info("接收数据范围变更事件: - {}", event.getOriginService());
+        dataScopeCache.invalidateAll();
+    }
+}
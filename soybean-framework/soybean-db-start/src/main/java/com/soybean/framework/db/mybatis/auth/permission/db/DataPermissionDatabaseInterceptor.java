@@ -2,6 +2,8 @@ package com.soybean.framework.db.mybatis.auth.permission.db;
 
 import cn.hutool.core.collection.CollUtil;
 import com.alibaba.ttl.TransmittableThreadLocal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.baomidou.mybatisplus.core.toolkit.CollectionUtils;
 import com.baomidou.mybatisplus.core.toolkit.PluginUtils;
 import com.baomidou.mybatisplus.extension.parser.JsqlParserSupport;
@@ -9,8 +11,8 @@ import com.baomidou.mybatisplus.extension.plugins.inner.InnerInterceptor;
 import com.soybean.framework.db.mybatis.auth.permission.rule.DataPermissionRule;
 import com.soybean.framework.db.mybatis.auth.permission.rule.DataPermissionRuleFactory;
 import com.soybean.framework.db.util.MyBatisUtils;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import net.sf.jsqlparser.expression.*;
 import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
 import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
@@ -18,6 +20,7 @@ import net.sf.jsqlparser.expression.operators.relational.ExistsExpression;
 import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
 import net.sf.jsqlparser.expression.operators.relational.InExpression;
 import net.sf.jsqlparser.expression.operators.relational.ItemsList;
+import net.sf.jsqlparser.schema.Column;
 import net.sf.jsqlparser.schema.Table;
 import net.sf.jsqlparser.statement.delete.Delete;
 import net.sf.jsqlparser.statement.select.*;
@@ -33,6 +36,8 @@ import org.apache.ibatis.session.RowBounds;
 import java.sql.Connection;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * 数据权限拦截器，通过 {@link DataPermissionRule} 数据权限规则，重写 SQL 的方式来实现
@@ -43,14 +48,30 @@ import java.util.concurrent.ConcurrentHashMap;
  *
  * @author 芋道源码
  */
-@RequiredArgsConstructor
 public class DataPermissionDatabaseInterceptor extends JsqlParserSupport implements InnerInterceptor {
 
+    /**
+     * 数据权限 SQL 模板缓存的默认容量
+     */
+    public static final int DEFAULT_SQL_TEMPLATE_CACHE_SIZE = 1024;
+
     private final DataPermissionRuleFactory ruleFactory;
 
     @Getter
     private final MappedStatementCache mappedStatementCache = new MappedStatementCache();
 
+    @Getter
+    private final SqlTemplateCache sqlTemplateCache;
+
+    public DataPermissionDatabaseInterceptor(DataPermissionRuleFactory ruleFactory) {
+        this(ruleFactory, DEFAULT_SQL_TEMPLATE_CACHE_SIZE);
+    }
+
+    public DataPermissionDatabaseInterceptor(DataPermissionRuleFactory ruleFactory, int sqlTemplateCacheSize) {
+        this.ruleFactory = ruleFactory;
+        this.sqlTemplateCache = new SqlTemplateCache(sqlTemplateCacheSize);
+    }
+
     @Override // SELECT 场景
     public void beforeQuery(Executor executor, MappedStatement ms, Object parameter,
                             RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
@@ -61,15 +82,7 @@ public class DataPermissionDatabaseInterceptor extends JsqlParserSupport impleme
         }
 
         PluginUtils.MPBoundSql mpBs = PluginUtils.mpBoundSql(boundSql);
-        try {
-            // 初始化上下文
-            ContextHolder.init(rules);
-            // 处理 SQL
-            mpBs.sql(parserSingle(mpBs.sql(), null));
-        } finally {
-            addMappedStatementCache(ms);
-            ContextHolder.clear();
-        }
+        mpBs.sql(rewriteSql(ms, rules, mpBs.sql(), false));
     }
 
     @Override // 只处理 UPDATE / DELETE 场景，不处理 INSERT 场景
@@ -85,16 +98,39 @@ public class DataPermissionDatabaseInterceptor extends JsqlParserSupport impleme
             }
 
             PluginUtils.MPBoundSql mpBs = mpSh.mPBoundSql();
+            mpBs.sql(rewriteSql(ms, rules, mpBs.sql(), true));
+        }
+    }
+
+    /**
+     * 重写 SQL
+     * <p>
+     * 同一个 MappedStatement + SQL + 规则，只解析一次，得到带占位符的 {@link SqlTemplate} 并缓存。
+     * 后续执行只需要基于当前登录用户计算每个占位符对应的条件，再拼接输出，避免重复的 SQL 解析
+     *
+     * @param ms    MappedStatement
+     * @param rules 数据权限规则数组
+     * @param sql   原始 SQL
+     * @param multi 是否多语句（UPDATE / DELETE 场景）
+     * @return 重写后的 SQL
+     */
+    private String rewriteSql(MappedStatement ms, List<DataPermissionRule> rules, String sql, boolean multi) {
+        SqlTemplateKey key = new SqlTemplateKey(ms.getId(), sql, rules);
+        SqlTemplate template = sqlTemplateCache.get(key);
+        if (template == null) {
             try {
                 // 初始化上下文
                 ContextHolder.init(rules);
-                // 处理 SQL
-                mpBs.sql(parserMulti(mpBs.sql(), null));
+                // 解析 SQL，生成带占位符的模板
+                String templateSql = multi ? parserMulti(sql, null) : parserSingle(sql, null);
+                template = SqlTemplate.of(templateSql, ContextHolder.getSlots());
+                sqlTemplateCache.put(key, template);
             } finally {
                 addMappedStatementCache(ms);
                 ContextHolder.clear();
             }
         }
+        return template.render(sql);
     }
 
     @Override
@@ -356,13 +392,15 @@ public class DataPermissionDatabaseInterceptor extends JsqlParserSupport impleme
 
     /**
      * 构建指定表的数据权限的 Expression 过滤条件
+     * <p>
+     * 这里不直接调用 {@link DataPermissionRule#getExpression(String, Alias)}，而是生成一个 {@link SqlTemplate.Slot} 占位符，
+     * 因为条件依赖当前登录用户，需要在 {@link SqlTemplate#render(String)} 时再计算
      *
      * @param table 表
      * @return Expression 过滤条件
      */
     private Expression buildDataPermissionExpression(Table table) {
-        // 生成条件
-        Expression allExpression = null;
+        List<DataPermissionRule> matchRules = null;
         for (DataPermissionRule rule : ContextHolder.getRules()) {
             // 判断表名是否匹配
             if (!rule.getTableNames().contains(table.getName())) {
@@ -372,16 +410,19 @@ public class DataPermissionDatabaseInterceptor extends JsqlParserSupport impleme
             // 为什么不是有 allExpression 非空才重写呢？在生成 column = value 过滤条件时，会因为 value 不存在，导致未重写。
             // 这样导致第一次无 value，被标记成无需重写；但是第二次有 value，此时会需要重写。
             ContextHolder.setRewrite(true);
-
-            // 单条规则的条件
-            String tableName = MyBatisUtils.getTableName(table);
-            Expression oneExpress = rule.getExpression(tableName, table.getAlias());
-            // 拼接到 allExpression 中
-            allExpression = allExpression == null ? oneExpress
-                    : new AndExpression(allExpression, oneExpress);
+            if (matchRules == null) {
+                matchRules = new ArrayList<>(ContextHolder.getRules().size());
+            }
+            matchRules.add(rule);
         }
-
-        return allExpression;
+        if (matchRules == null) {
+            return null;
+        }
+        // 生成占位符
+        List<SqlTemplate.Slot> slots = ContextHolder.getSlots();
+        SqlTemplate.Slot slot = new SqlTemplate.Slot(slots.size(), MyBatisUtils.getTableName(table), table.getAlias(), matchRules);
+        slots.add(slot);
+        return new Column(slot.getPlaceholder());
     }
 
     /**
@@ -412,15 +453,21 @@ public class DataPermissionDatabaseInterceptor extends JsqlParserSupport impleme
          * SQL 是否进行重写
          */
         private static final ThreadLocal<Boolean> REWRITE = new TransmittableThreadLocal<>();
+        /**
+         * 解析过程中生成的占位符
+         */
+        private static final ThreadLocal<List<SqlTemplate.Slot>> SLOTS = new TransmittableThreadLocal<>();
 
         public static void init(List<DataPermissionRule> rules) {
             RULES.set(rules);
             REWRITE.set(false);
+            SLOTS.set(new ArrayList<>());
         }
 
         public static void clear() {
             RULES.remove();
             REWRITE.remove();
+            SLOTS.remove();
         }
 
         public static boolean getRewrite() {
@@ -435,6 +482,10 @@ public class DataPermissionDatabaseInterceptor extends JsqlParserSupport impleme
             return RULES.get();
         }
 
+        public static List<SqlTemplate.Slot> getSlots() {
+            return SLOTS.get();
+        }
+
     }
 
     /**
@@ -504,4 +555,186 @@ public class DataPermissionDatabaseInterceptor extends JsqlParserSupport impleme
 
     }
 
+    /**
+     * {@link SqlTemplate} 的缓存 Key
+     * <p>
+     * 规则数组需要参与 Key 的计算，因为 {@link com.soybean.framework.db.mybatis.auth.permission.annotation.DataPermission}
+     * 可以针对同一个 MappedStatement 选择不同的规则
+     */
+    @Getter
+    @EqualsAndHashCode
+    static final class SqlTemplateKey {
+
+        private final String mappedStatementId;
+        private final String sql;
+        private final List<DataPermissionRule> rules;
+
+        SqlTemplateKey(String mappedStatementId, String sql, List<DataPermissionRule> rules) {
+            this.mappedStatementId = mappedStatementId;
+            this.sql = sql;
+            this.rules = rules;
+        }
+
+    }
+
+    /**
+     * 解析后的 SQL 模板
+     * <p>
+     * 由解析后的 SQL 片段和 {@link Slot} 占位符交替组成，渲染时只需计算每个占位符的条件并拼接
+     */
+    static final class SqlTemplate {
+
+        private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile(Slot.PLACEHOLDER_PREFIX + "(\\d+)__");
+        /**
+         * 条件全部为空时，AND 右侧的恒真条件
+         */
+        private static final String ALWAYS_TRUE = "1 = 1";
+
+        /**
+         * SQL 片段，比 {@link #slots} 多一个
+         */
+        private final String[] fragments;
+        /**
+         * 按照在 SQL 中出现顺序排列的占位符
+         */
+        private final Slot[] slots;
+
+        private SqlTemplate(String[] fragments, Slot[] slots) {
+            this.fragments = fragments;
+            this.slots = slots;
+        }
+
+        static SqlTemplate of(String templateSql, List<Slot> slots) {
+            List<String> fragments = new ArrayList<>(slots.size() + 1);
+            List<Slot> orderedSlots = new ArrayList<>(slots.size());
+            Matcher matcher = PLACEHOLDER_PATTERN.matcher(templateSql);
+            int start = 0;
+            while (matcher.find()) {
+                fragments.add(templateSql.substring(start, matcher.start()));
+                orderedSlots.add(slots.get(Integer.parseInt(matcher.group(1))));
+                start = matcher.end();
+            }
+            fragments.add(templateSql.substring(start));
+            return new SqlTemplate(fragments.toArray(new String[0]), orderedSlots.toArray(new Slot[0]));
+        }
+
+        /**
+         * 基于当前上下文渲染 SQL
+         *
+         * @param originalSql 原始 SQL，所有占位符都没有条件时原样返回
+         * @return 重写后的 SQL
+         */
+        String render(String originalSql) {
+            if (slots.length == 0) {
+                return fragments[0];
+            }
+            String[] conditions = new String[slots.length];
+            boolean rewrite = false;
+            for (int i = 0; i < slots.length; i++) {
+                Expression expression = slots[i].buildExpression();
+                if (expression != null) {
+                    conditions[i] = expression.toString();
+                    rewrite = true;
+                }
+            }
+            // 都没有条件，说明无需重写
+            if (!rewrite) {
+                return originalSql;
+            }
+            StringBuilder sql = new StringBuilder(originalSql.length() + 64 * slots.length);
+            for (int i = 0; i < slots.length; i++) {
+                sql.append(fragments[i]).append(conditions[i] != null ? conditions[i] : ALWAYS_TRUE);
+            }
+            return sql.append(fragments[slots.length]).toString();
+        }
+
+        /**
+         * 占位符，对应某一张表需要拼接的数据权限条件
+         */
+        @Getter
+        static final class Slot {
+
+            static final String PLACEHOLDER_PREFIX = "__DATA_PERMISSION_SLOT_";
+
+            private final String placeholder;
+            private final String tableName;
+            private final Alias tableAlias;
+            private final List<DataPermissionRule> rules;
+
+            Slot(int index, String tableName, Alias tableAlias, List<DataPermissionRule> rules) {
+                this.placeholder = PLACEHOLDER_PREFIX + index + "__";
+                this.tableName = tableName;
+                this.tableAlias = tableAlias;
+                this.rules = rules;
+            }
+
+            Expression buildExpression() {
+                Expression allExpression = null;
+                for (DataPermissionRule rule : rules) {
+                    // 单条规则的条件
+                    Expression oneExpress = rule.getExpression(tableName, tableAlias);
+                    if (oneExpress == null) {
+                        continue;
+                    }
+                    // 拼接到 allExpression 中
+                    allExpression = allExpression == null ? oneExpress
+                            : new AndExpression(allExpression, oneExpress);
+                }
+                return allExpression;
+            }
+
+        }
+
+    }
+
+    /**
+     * {@link SqlTemplate} 缓存，按容量淘汰（Caffeine，读取无全局锁）
+     * 同时记录命中、未命中、淘汰的次数，方便观察缓存容量是否合理
+     */
+    public static final class SqlTemplateCache {
+
+        private final int maximumSize;
+        private final Cache<SqlTemplateKey, SqlTemplate> templates;
+
+        SqlTemplateCache(int maximumSize) {
+            this.maximumSize = maximumSize;
+            this.templates = Caffeine.newBuilder().maximumSize(Math.max(0, maximumSize)).recordStats().build();
+        }
+
+        SqlTemplate get(SqlTemplateKey key) {
+            return templates.getIfPresent(key);
+        }
+
+        void put(SqlTemplateKey key, SqlTemplate template) {
+            if (maximumSize <= 0) {
+                return;
+            }
+            templates.put(key, template);
+        }
+
+        public int size() {
+            return (int) templates.estimatedSize();
+        }
+
+        public long getHitCount() {
+            return templates.stats().hitCount();
+        }
+
+        public long getMissCount() {
+            return templates.stats().missCount();
+        }
+
+        public long getEvictionCount() {
+            return templates.stats().evictionCount();
+        }
+
+        /**
+         * 清空缓存
+         */
+        public void clear() {
+            templates.invalidateAll();
+        }
+
+    }
+
 }
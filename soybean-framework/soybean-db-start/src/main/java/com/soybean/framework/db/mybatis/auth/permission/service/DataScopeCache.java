@@ -0,0 +1,123 @@
+package com.soybean.framework.db.mybatis.auth.permission.service;
+
+import com.soybean.framework.db.mybatis.auth.permission.prop.DataScope;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link DataScopeService} 的缓存
+ * <p>
+ * 1. 请求级缓存：同一个请求内的所有 SQL 只查询一次数据权限，不依赖 Principal 的类型（资源服务每次都会重新构建 UserInfoDetails）
+ * 2. 跨请求缓存（可选）：按用户缓存一段时间，角色 / 数据范围变更时通过 {@link #invalidateAll()} 清空
+ *
+ * @author wenxina
+ */
+@Slf4j
+public class DataScopeCache {
+
+    /**
+     * 请求上下文中缓存的 Key 前缀
+     */
+    private static final String REQUEST_ATTRIBUTE_PREFIX = DataScopeCache.class.getName() + ".";
+
+    private final DataScopeService delegate;
+    private final long ttlMillis;
+    private final int maximumSize;
+    private final Map<Long, CachedDataScope> dataScopes = new ConcurrentHashMap<>();
+    /**
+     * 清空次数，查询期间发生过清空时不写回缓存，避免旧的数据权限在清空后又被放回
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @param delegate    实际获取数据权限的服务（本地查询或者 Feign）
+     * @param ttl         跨请求缓存时间，为空或者 0 表示只做请求级缓存
+     * @param maximumSize 跨请求缓存的最大用户数
+     */
+    public DataScopeCache(DataScopeService delegate, Duration ttl, int maximumSize) {
+        this.delegate = delegate;
+        this.ttlMillis = ttl == null ? 0 : ttl.toMillis();
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * 根据用户编号获取数据权限，优先从缓存获取
+     *
+     * @param userId 用户ID
+     * @return 查询结果
+     */
+    public DataScope getDataScopeById(Long userId) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        String attributeName = REQUEST_ATTRIBUTE_PREFIX + userId;
+        if (attributes != null) {
+            Object dataScope = attributes.getAttribute(attributeName, RequestAttributes.SCOPE_REQUEST);
+            if (dataScope != null) {
+                return (DataScope) dataScope;
+            }
+        }
+        DataScope dataScope = getShared(userId);
+        if (dataScope != null && attributes != null) {
+            attributes.setAttribute(attributeName, dataScope, RequestAttributes.SCOPE_REQUEST);
+        }
+        return dataScope;
+    }
+
+    private DataScope getShared(Long userId) {
+        if (ttlMillis <= 0) {
+            return delegate.getDataScopeById(userId);
+        }
+        long now = System.currentTimeMillis();
+        CachedDataScope cached = dataScopes.get(userId);
+        if (cached != null && cached.expireAt > now) {
+            return cached.dataScope;
+        }
+        final long current = generation.get();
+        DataScope dataScope = delegate.getDataScopeById(userId);
+        if (dataScope != null && generation.get() == current) {
+            if (dataScopes.size() >= maximumSize) {
+                evictExpired(now);
+            }
+            final CachedDataScope entry = new CachedDataScope(dataScope, now + ttlMillis);
+            dataScopes.put(userId, entry);
+            // 写入的同时发生了清空
+            if (generation.get() != current) {
+                dataScopes.remove(userId, entry);
+            }
+        }
+        return dataScope;
+    }
+
+    private void evictExpired(long now) {
+        dataScopes.values().removeIf(cached -> cached.expireAt <= now);
+        // 过期的清理完仍然超出容量，说明 TTL 内活跃用户过多，直接全部清空
+        if (dataScopes.size() >= maximumSize) {
+            dataScopes.clear();
+        }
+    }
+
+    /**
+     * 清空跨请求缓存，角色的数据范围、用户角色变更时调用
+     */
+    public void invalidateAll() {
+        log.debug("清空数据权限缓存 - {}", dataScopes.size());
+        generation.incrementAndGet();
+        dataScopes.clear();
+    }
+
+    private static final class CachedDataScope {
+
+        private final DataScope dataScope;
+        private final long expireAt;
+
+        private CachedDataScope(DataScope dataScope, long expireAt) {
+            this.dataScope = dataScope;
+            this.expireAt = expireAt;
+        }
+    }
+}
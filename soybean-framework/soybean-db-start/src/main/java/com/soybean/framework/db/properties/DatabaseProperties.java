@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
 import java.util.List;
 
 
@@ -30,6 +31,18 @@ public class DatabaseProperties {
      * 是否启用数据权限
      */
     private boolean dataScope = true;
+    /**
+     * 数据权限解析后的 SQL 模板缓存条数，0 表示不缓存
+     */
+    private int dataPermissionSqlCacheSize = 1024;
+    /**
+     * 数据权限跨请求缓存时间，0 表示只在请求内缓存
+     */
+    private Duration dataScopeCacheTtl = Duration.ZERO;
+    /**
+     * 数据权限跨请求缓存的最大用户数
+     */
+    private int dataScopeCacheSize = 10000;
 
 
     private boolean illegalSql = false;
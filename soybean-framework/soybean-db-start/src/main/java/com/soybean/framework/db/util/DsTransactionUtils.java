@@ -0,0 +1,88 @@
+package com.soybean.framework.db.util;
+
+import com.baomidou.dynamic.datasource.tx.LocalTxUtil;
+import com.baomidou.dynamic.datasource.tx.TransactionContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 多数据源本地事务工具
+ * <p>
+ * dynamic-datasource 的本地事务（{@link com.baomidou.dynamic.datasource.annotation.DSTransactional}）没有提交回调，
+ * 需要在提交后执行的操作（如通过 Bus 广播缓存失效）用 {@link #execute(Runnable)} 开启事务，在事务内用 {@link #afterCommit(Runnable)} 登记
+ *
+ * @author wenxina
+ */
+@Slf4j
+public final class DsTransactionUtils {
+
+    private static final ThreadLocal<List<Runnable>> AFTER_COMMIT = new ThreadLocal<>();
+
+    private DsTransactionUtils() {
+    }
+
+    /**
+     * 在本地事务中执行，与 @DSTransactional 一致：已在事务中时加入外层事务，否则开启新事务，异常时回滚
+     *
+     * @param action 事务内的操作
+     */
+    public static void execute(Runnable action) {
+        if (StringUtils.hasText(TransactionContext.getXID())) {
+            action.run();
+            return;
+        }
+        final List<Runnable> callbacks = new ArrayList<>();
+        AFTER_COMMIT.set(callbacks);
+        boolean success = false;
+        LocalTxUtil.startTransaction();
+        try {
+            action.run();
+            success = true;
+        } finally {
+            AFTER_COMMIT.remove();
+            if (success) {
+                LocalTxUtil.commit();
+            } else {
+                LocalTxUtil.rollback();
+            }
+        }
+        for (Runnable callback : callbacks) {
+            try {
+                callback.run();
+            } catch (Exception e) {
+                log.error("事务提交后回调执行失败", e);
+            }
+        }
+    }
+
+    /**
+     * 登记事务提交后执行的操作，回滚时不执行；不在事务中时立即执行
+     *
+     * @param callback 提交后执行的操作
+     */
+    public static void afterCommit(Runnable callback) {
+        final List<Runnable> callbacks = AFTER_COMMIT.get();
+        if (callbacks != null) {
+            callbacks.add(callback);
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    callback.run();
+                }
+            });
+            return;
+        }
+        if (StringUtils.hasText(TransactionContext.getXID())) {
+            log.warn("当前事务不是通过 DsTransactionUtils.execute 开启，提交后回调将立即执行");
+        }
+        callback.run();
+    }
+}
@@ -0,0 +1,80 @@
+package com.soybean.framework.security.client;
+
+import com.soybean.framework.security.client.properties.LocalJwtProperties;
+import com.soybean.framework.security.client.properties.SecurityIgnoreProperties;
+import com.soybean.framework.security.client.token.JwkSetAccessTokenConverter;
+import com.soybean.framework.security.client.token.JwtUserAuthenticationConverter;
+import com.soybean.framework.security.client.token.LocalJwtConfiguration;
+import com.soybean.framework.security.client.token.LocalJwtTokenServices;
+import com.soybean.framework.security.client.token.LocalTokenDenyList;
+import com.soybean.framework.security.client.utils.AuthInfoContextFilter;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.ExpressionUrlAuthorizationConfigurer;
+import org.springframework.security.oauth2.config.annotation.web.configuration.ResourceServerConfigurerAdapter;
+import org.springframework.security.oauth2.config.annotation.web.configurers.ResourceServerSecurityConfigurer;
+import org.springframework.security.oauth2.provider.token.DefaultAccessTokenConverter;
+import org.springframework.security.web.authentication.preauth.AbstractPreAuthenticatedProcessingFilter;
+import org.springframework.util.CollectionUtils;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 本地校验 JWT 的资源服务器，公钥从认证中心的 JWKS 获取
+ *
+ * @author wenxina
+ */
+@Slf4j
+@AllArgsConstructor
+@Import({ResourceAuthExceptionEntryPoint.class, LoadBalancedRestTemplateAutoConfigurer.class, LocalJwtConfiguration.class})
+@EnableConfigurationProperties(SecurityIgnoreProperties.class)
+public class LoadBalancedJwtResourceServerConfigurerAdapter extends ResourceServerConfigurerAdapter {
+
+    private final RestTemplate lbRestTemplate;
+    private final ResourceAuthExceptionEntryPoint resourceAuthExceptionEntryPoint;
+    private final SecurityIgnoreProperties securityIgnoreProperties;
+    private final LocalJwtProperties localJwtProperties;
+    private final LocalTokenDenyList localTokenDenyList;
+    private final RequestMappingHandlerMapping requestMappingHandlerMapping;
+
+    @Override
+    public void configure(ResourceServerSecurityConfigurer resources) {
+        JwkSetAccessTokenConverter accessTokenConverter = new JwkSetAccessTokenConverter(lbRestTemplate,
+                localJwtProperties.getJwkSetUri(), localJwtProperties.getJwkRefreshInterval());
+        DefaultAccessTokenConverter defaultAccessTokenConverter = new DefaultAccessTokenConverter();
+        defaultAccessTokenConverter.setUserTokenConverter(new JwtUserAuthenticationConverter());
+        accessTokenConverter.setAccessTokenConverter(defaultAccessTokenConverter);
+        resources.authenticationEntryPoint(resourceAuthExceptionEntryPoint)
+                .tokenServices(new LocalJwtTokenServices(accessTokenConverter, localTokenDenyList));
+    }
+
+    @Override
+    public void configure(HttpSecurity http) throws Exception {
+        //允许使用iframe 嵌套，避免swagger-ui 不被加载的问题
+        http.headers().frameOptions().disable();
+        // 请求内只解析一次用户信息
+        http.addFilterAfter(new AuthInfoContextFilter(), AbstractPreAuthenticatedProcessingFilter.class);
+        ExpressionUrlAuthorizationConfigurer<HttpSecurity>.ExpressionInterceptUrlRegistry registry = http.authorizeRequests();
+        Map<RequestMappingInfo, HandlerMethod> handlerMethods = requestMappingHandlerMapping.getHandlerMethods();
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> handlerMethodEntry : handlerMethods.entrySet()) {
+            HandlerMethod value = handlerMethodEntry.getValue();
+            RequestMappingInfo key = handlerMethodEntry.getKey();
+            IgnoreAuthorizeUtil.resolveIgnoreAuthorize(registry, value, key, log);
+        }
+        List<String> ignoreUrls = securityIgnoreProperties.getResourceUrls();
+        if (!CollectionUtils.isEmpty(ignoreUrls)) {
+            String[] arr = ignoreUrls.toArray(new String[0]);
+            registry.antMatchers(arr).permitAll();
+        }
+        registry.anyRequest().authenticated()
+                .and().csrf().disable();
+    }
+}
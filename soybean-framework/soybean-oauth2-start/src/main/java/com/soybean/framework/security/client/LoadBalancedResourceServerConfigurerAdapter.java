@@ -2,6 +2,7 @@ package com.soybean.framework.security.client;
 
 import com.soybean.framework.security.client.exception.CustomWebResponseExceptionTranslator;
 import com.soybean.framework.security.client.properties.SecurityIgnoreProperties;
+import com.soybean.framework.security.client.utils.AuthInfoContextFilter;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -10,6 +11,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.ExpressionUrlAuthorizationConfigurer;
 import org.springframework.security.oauth2.config.annotation.web.configuration.ResourceServerConfigurerAdapter;
 import org.springframework.security.oauth2.config.annotation.web.configurers.ResourceServerSecurityConfigurer;
+import org.springframework.security.web.authentication.preauth.AbstractPreAuthenticatedProcessingFilter;
 import org.springframework.util.CollectionUtils;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
@@ -45,6 +47,8 @@ public class LoadBalancedResourceServerConfigurerAdapter extends ResourceServerC
     public void configure(HttpSecurity http) throws Exception {
         //允许使用iframe 嵌套，避免swagger-ui 不被加载的问题
         http.headers().frameOptions().disable();
+        // 请求内只解析一次用户信息
+        http.addFilterAfter(new AuthInfoContextFilter(), AbstractPreAuthenticatedProcessingFilter.class);
         ExpressionUrlAuthorizationConfigurer<HttpSecurity>
                 .ExpressionInterceptUrlRegistry registry = http
                 .authorizeRequests();
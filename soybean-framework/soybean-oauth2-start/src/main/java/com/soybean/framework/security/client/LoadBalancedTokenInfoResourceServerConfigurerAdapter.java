@@ -1,6 +1,11 @@
 package com.soybean.framework.security.client;
 
 import com.soybean.framework.security.client.properties.SecurityIgnoreProperties;
+import com.soybean.framework.security.client.token.CachingResourceServerTokenServices;
+import com.soybean.framework.security.client.token.ExpirationAwareAccessTokenConverter;
+import com.soybean.framework.security.client.token.TokenAuthenticationCache;
+import com.soybean.framework.security.client.token.TokenCacheConfiguration;
+import com.soybean.framework.security.client.utils.AuthInfoContextFilter;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -12,7 +17,9 @@ import org.springframework.security.oauth2.config.annotation.web.configurers.Res
 import org.springframework.security.oauth2.provider.token.DefaultAccessTokenConverter;
 import org.springframework.security.oauth2.provider.token.DefaultUserAuthenticationConverter;
 import org.springframework.security.oauth2.provider.token.RemoteTokenServices;
+import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
 import org.springframework.security.oauth2.provider.token.UserAuthenticationConverter;
+import org.springframework.security.web.authentication.preauth.AbstractPreAuthenticatedProcessingFilter;
 import org.springframework.util.CollectionUtils;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.method.HandlerMethod;
@@ -30,7 +37,7 @@ import java.util.Map;
  */
 @Slf4j
 @AllArgsConstructor
-@Import({ResourceAuthExceptionEntryPoint.class, LoadBalancedRestTemplateAutoConfigurer.class})
+@Import({ResourceAuthExceptionEntryPoint.class, LoadBalancedRestTemplateAutoConfigurer.class, TokenCacheConfiguration.class})
 @EnableConfigurationProperties(SecurityIgnoreProperties.class)
 public class LoadBalancedTokenInfoResourceServerConfigurerAdapter extends ResourceServerConfigurerAdapter {
 
@@ -40,21 +47,26 @@ public class LoadBalancedTokenInfoResourceServerConfigurerAdapter extends Resour
     private final ResourceAuthExceptionEntryPoint resourceAuthExceptionEntryPoint;
     private final SecurityIgnoreProperties securityIgnoreProperties;
     private final RequestMappingHandlerMapping requestMappingHandlerMapping;
+    private final TokenAuthenticationCache tokenAuthenticationCache;
 
     @Override
     public void configure(ResourceServerSecurityConfigurer resources) {
-        DefaultAccessTokenConverter accessTokenConverter = new DefaultAccessTokenConverter();
+        DefaultAccessTokenConverter accessTokenConverter = new ExpirationAwareAccessTokenConverter();
         UserAuthenticationConverter userAuthenticationConverter = new DefaultUserAuthenticationConverter();
         accessTokenConverter.setUserTokenConverter(userAuthenticationConverter);
         remoteTokenServices.setRestTemplate(lbRestTemplate);
         remoteTokenServices.setAccessTokenConverter(accessTokenConverter);
-        resources.authenticationEntryPoint(resourceAuthExceptionEntryPoint).tokenServices(remoteTokenServices);
+        // 本地缓存 check_token 结果，避免每个请求都调用认证中心
+        ResourceServerTokenServices tokenServices = new CachingResourceServerTokenServices(remoteTokenServices, tokenAuthenticationCache);
+        resources.authenticationEntryPoint(resourceAuthExceptionEntryPoint).tokenServices(tokenServices);
     }
 
     @Override
     public void configure(HttpSecurity http) throws Exception {
         //允许使用iframe 嵌套，避免swagger-ui 不被加载的问题
         http.headers().frameOptions().disable();
+        // 请求内只解析一次用户信息
+        http.addFilterAfter(new AuthInfoContextFilter(), AbstractPreAuthenticatedProcessingFilter.class);
         ExpressionUrlAuthorizationConfigurer<HttpSecurity>.ExpressionInterceptUrlRegistry registry = http.authorizeRequests();
         Map<RequestMappingInfo, HandlerMethod> handlerMethods = requestMappingHandlerMapping.getHandlerMethods();
         for (Map.Entry<RequestMappingInfo, HandlerMethod> handlerMethodEntry : handlerMethods.entrySet()) {
@@ -1,9 +1,11 @@
 package com.soybean.framework.security.client;
 
 import com.soybean.framework.commons.entity.Result;
+import com.soybean.framework.commons.exception.TooManyRequestsException;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.InsufficientAuthenticationException;
@@ -37,7 +39,15 @@ public class ResourceAuthExceptionEntryPoint implements AuthenticationEntryPoint
         response.setStatus(HttpStatus.UNAUTHORIZED.value());
         Result<String> result = Result.fail("错误");
         result.setSuccessful(false);
-        if (authException != null) {
+        if (authException != null && authException.getCause() instanceof TooManyRequestsException) {
+            // 认证过程中服务繁忙（如密码校验排队已满），返回 429 便于调用方退避重试
+            log.warn("[服务繁忙] - [{}] - [{}]", authException.getLocalizedMessage(), uri);
+            final TooManyRequestsException exception = (TooManyRequestsException) authException.getCause();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            result.setCode(exception.getCode());
+            result.setMessage(exception.getMessage());
+        } else if (authException != null) {
             String localizedMessage = authException.getLocalizedMessage();
             log.error("[访问受限] - [{}] - [{}]", localizedMessage, uri);
             if (authException.getCause() instanceof InvalidTokenException) {
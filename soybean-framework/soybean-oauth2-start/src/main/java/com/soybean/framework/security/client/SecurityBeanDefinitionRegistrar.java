@@ -18,6 +18,7 @@ import org.springframework.core.type.AnnotationMetadata;
 public class SecurityBeanDefinitionRegistrar implements ImportBeanDefinitionRegistrar {
 
     private static final String PREFER_TOKEN_INFO = "preferTokenInfo";
+    private static final String JWT = "jwt";
     /***
      * 资源服务器默认bean名称
      */
@@ -41,7 +42,9 @@ public class SecurityBeanDefinitionRegistrar implements ImportBeanDefinitionRegi
         }
         GenericBeanDefinition beanDefinition = new GenericBeanDefinition();
         final boolean preferTokenInfo = annotationAttributes.getBoolean(PREFER_TOKEN_INFO);
-        if (preferTokenInfo) {
+        if (annotationAttributes.getBoolean(JWT)) {
+            beanDefinition.setBeanClass(LoadBalancedJwtResourceServerConfigurerAdapter.class);
+        } else if (preferTokenInfo) {
             beanDefinition.setBeanClass(LoadBalancedTokenInfoResourceServerConfigurerAdapter.class);
         } else {
             beanDefinition.setBeanClass(LoadBalancedResourceServerConfigurerAdapter.class);
@@ -34,4 +34,11 @@ public @interface EnableOauth2ClientResourceServer {
      */
     boolean preferTokenInfo() default false;
 
+    /**
+     * true 本地校验 JWT（认证中心需开启 security.oauth2.jwt.enabled），优先于 preferTokenInfo
+     *
+     * @return true | false
+     */
+    boolean jwt() default false;
+
 }
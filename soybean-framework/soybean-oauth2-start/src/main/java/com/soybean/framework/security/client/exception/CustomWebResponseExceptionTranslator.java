@@ -1,6 +1,7 @@
 package com.soybean.framework.security.client.exception;
 
 import com.soybean.framework.commons.exception.CheckedException;
+import com.soybean.framework.commons.exception.TooManyRequestsException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -26,6 +27,17 @@ public class CustomWebResponseExceptionTranslator implements WebResponseExceptio
 
     @Override
     public ResponseEntity<OAuth2Exception> translate(Exception e) {
+        // 密码模式在令牌端点内校验用户密码，繁忙时返回 429
+        if (e instanceof TooManyRequestsException || e.getCause() instanceof TooManyRequestsException) {
+            final TooManyRequestsException exception = (TooManyRequestsException) (e instanceof TooManyRequestsException ? e : e.getCause());
+            log.warn("[服务繁忙] - [{}]", exception.getMessage());
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.CACHE_CONTROL, "no-store");
+            headers.set(HttpHeaders.PRAGMA, "no-cache");
+            headers.set(HttpHeaders.RETRY_AFTER, "1");
+            return new ResponseEntity<>(new Auth2Exception(exception.getMessage(), exception.getCode()), headers,
+                    HttpStatus.TOO_MANY_REQUESTS);
+        }
         if (e.getCause() != null && e.getCause() instanceof CheckedException) {
             CheckedException exception = (CheckedException) e.getCause();
             int code = exception.getCode();
@@ -0,0 +1,38 @@
+package com.soybean.framework.security.client.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 资源服务器本地校验 JWT 的配置
+ *
+ * @author wenxina
+ */
+@Data
+@ConfigurationProperties(prefix = "security.oauth2.resource.local-jwt")
+public class LocalJwtProperties {
+
+    /**
+     * 认证中心的 JWKS 地址（负载均衡）
+     */
+    private String jwkSetUri = "http://soybean-uaa/oauth/jwks";
+    /**
+     * 认证中心的令牌注销名单地址（负载均衡）
+     */
+    private String revokedUri = "http://soybean-uaa/oauth/revoked_jti";
+    /**
+     * 获取注销名单时认证使用的 client_id（HTTP Basic）
+     */
+    private String clientId;
+    /**
+     * 获取注销名单时认证使用的 client_secret
+     */
+    private String clientSecret;
+    /**
+     * 遇到未知 kid 时，两次重新加载 JWKS 的最小间隔
+     */
+    private Duration jwkRefreshInterval = Duration.ofSeconds(30);
+
+}
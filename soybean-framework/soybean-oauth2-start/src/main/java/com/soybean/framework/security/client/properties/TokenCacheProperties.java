@@ -0,0 +1,30 @@
+package com.soybean.framework.security.client.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 资源服务器本地令牌缓存（preferTokenInfo 模式下缓存 check_token 结果）
+ *
+ * @author wenxina
+ */
+@Data
+@ConfigurationProperties(prefix = "security.oauth2.resource.token-cache")
+public class TokenCacheProperties {
+
+    /**
+     * 是否启用本地令牌缓存
+     */
+    private boolean enabled = true;
+    /**
+     * 最大缓存的令牌数
+     */
+    private int maximumSize = 10000;
+    /**
+     * 缓存时间，令牌过期时间更早时以令牌过期时间为准
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+
+}
@@ -0,0 +1,30 @@
+package com.soybean.framework.security.client.token;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
+
+/**
+ * 带本地缓存的 {@link ResourceServerTokenServices}，避免每个请求都调用认证中心的 check_token
+ *
+ * @author wenxina
+ */
+@RequiredArgsConstructor
+public class CachingResourceServerTokenServices implements ResourceServerTokenServices {
+
+    private final ResourceServerTokenServices delegate;
+    private final TokenAuthenticationCache cache;
+
+    @Override
+    public OAuth2Authentication loadAuthentication(String accessToken) throws AuthenticationException, InvalidTokenException {
+        return cache.get(accessToken, delegate::loadAuthentication);
+    }
+
+    @Override
+    public OAuth2AccessToken readAccessToken(String accessToken) {
+        return delegate.readAccessToken(accessToken);
+    }
+}
@@ -0,0 +1,69 @@
+package com.soybean.framework.security.client.token;
+
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.common.util.JsonParser;
+import org.springframework.security.oauth2.common.util.JsonParserFactory;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+
+/**
+ * 支持注销的 {@link JwtTokenStore}
+ * <p>
+ * JWT 本身无法撤销，退出登录时把 jti 记录到 {@link TokenDenyList}，读取令牌时校验
+ *
+ * @author wenxina
+ */
+public class DenyListJwtTokenStore extends JwtTokenStore {
+
+    private final JsonParser jsonParser = JsonParserFactory.create();
+    private final TokenDenyList denyList;
+
+    public DenyListJwtTokenStore(JwtAccessTokenConverter jwtTokenEnhancer, TokenDenyList denyList) {
+        super(jwtTokenEnhancer);
+        this.denyList = denyList;
+    }
+
+    @Override
+    public OAuth2AccessToken readAccessToken(String tokenValue) {
+        OAuth2AccessToken accessToken = super.readAccessToken(tokenValue);
+        String jti = getTokenId(accessToken);
+        if (jti != null && denyList.isRevoked(jti)) {
+            throw new InvalidTokenException("Token was revoked: " + jti);
+        }
+        return accessToken;
+    }
+
+    @Override
+    public OAuth2RefreshToken readRefreshToken(String tokenValue) {
+        OAuth2RefreshToken refreshToken = super.readRefreshToken(tokenValue);
+        // 刷新令牌的 ati 即对应访问令牌的 jti，访问令牌注销后刷新令牌随之失效
+        Object ati = jsonParser.parseMap(JwtHelper.decode(tokenValue).getClaims()).get(JwtAccessTokenConverter.ACCESS_TOKEN_ID);
+        if (ati != null && denyList.isRevoked(ati.toString())) {
+            throw new InvalidTokenException("Token was revoked: " + ati);
+        }
+        return refreshToken;
+    }
+
+    @Override
+    public void removeAccessToken(OAuth2AccessToken token) {
+        String jti = getTokenId(token);
+        if (jti != null && token.getExpiration() != null) {
+            denyList.revoke(jti, token.getExpiration().getTime());
+        }
+        super.removeAccessToken(token);
+    }
+
+    /**
+     * 获取令牌 ID
+     *
+     * @param accessToken 令牌
+     * @return jti
+     */
+    public static String getTokenId(OAuth2AccessToken accessToken) {
+        Object jti = accessToken.getAdditionalInformation().get(JwtAccessTokenConverter.TOKEN_ID);
+        return jti == null ? null : jti.toString();
+    }
+}
@@ -0,0 +1,34 @@
+package com.soybean.framework.security.client.token;
+
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.DefaultAccessTokenConverter;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 在 {@link OAuth2Request#getExtensions()} 中保留 check_token 返回的 exp，
+ * 供 {@link TokenAuthenticationCache} 计算缓存的过期时间
+ *
+ * @author wenxina
+ */
+public class ExpirationAwareAccessTokenConverter extends DefaultAccessTokenConverter {
+
+    @Override
+    public OAuth2Authentication extractAuthentication(Map<String, ?> map) {
+        OAuth2Authentication authentication = super.extractAuthentication(map);
+        Object exp = map.get(EXP);
+        if (!(exp instanceof Number)) {
+            return authentication;
+        }
+        OAuth2Request request = authentication.getOAuth2Request();
+        Map<String, Serializable> extensions = new HashMap<>(request.getExtensions());
+        extensions.put(EXP, ((Number) exp).longValue());
+        OAuth2Request expirationRequest = new OAuth2Request(request.getRequestParameters(), request.getClientId(),
+                request.getAuthorities(), request.isApproved(), request.getScope(), request.getResourceIds(),
+                request.getRedirectUri(), request.getResponseTypes(), extensions);
+        return new OAuth2Authentication(expirationRequest, authentication.getUserAuthentication());
+    }
+}
@@ -0,0 +1,116 @@
+package com.soybean.framework.security.client.token;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.jwt.Jwt;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.jwt.crypto.sign.RsaVerifier;
+import org.springframework.security.jwt.crypto.sign.SignatureVerifier;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.common.util.JsonParser;
+import org.springframework.security.oauth2.common.util.JsonParserFactory;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于认证中心 JWKS 在本地校验 JWT 签名
+ * <p>
+ * 公钥按 kid 缓存，遇到未知的 kid（认证中心轮换密钥）时重新加载，两次加载间隔不小于 refreshInterval
+ *
+ * @author wenxina
+ */
+@Slf4j
+public class JwkSetAccessTokenConverter extends JwtAccessTokenConverter {
+
+    private static final String SIGNATURE_ALGORITHM = "SHA256withRSA";
+
+    private final JsonParser jsonParser = JsonParserFactory.create();
+    private final RestTemplate restTemplate;
+    private final String jwkSetUri;
+    private final long refreshIntervalMillis;
+
+    private volatile Map<String, SignatureVerifier> verifiers = Collections.emptyMap();
+    private volatile long lastLoadTime;
+
+    public JwkSetAccessTokenConverter(RestTemplate restTemplate, String jwkSetUri, Duration refreshInterval) {
+        this.restTemplate = restTemplate;
+        this.jwkSetUri = jwkSetUri;
+        this.refreshIntervalMillis = refreshInterval.toMillis();
+    }
+
+    /**
+     * 校验签名并解析令牌
+     *
+     * @param token 令牌
+     * @return claims
+     */
+    public Map<String, Object> decodeClaims(String token) {
+        return decode(token);
+    }
+
+    @Override
+    protected Map<String, Object> decode(String token) {
+        try {
+            String keyId = JwtHelper.headers(token).get(JwkSetUtils.KEY_ID);
+            Jwt jwt = JwtHelper.decodeAndVerify(token, getVerifier(keyId));
+            Map<String, Object> claims = jsonParser.parseMap(jwt.getClaims());
+            if (claims.get(EXP) instanceof Integer) {
+                claims.put(EXP, ((Integer) claims.get(EXP)).longValue());
+            }
+            getJwtClaimsSetVerifier().verify(claims);
+            return claims;
+        } catch (InvalidTokenException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new InvalidTokenException("Cannot convert access token to JSON", e);
+        }
+    }
+
+    private SignatureVerifier getVerifier(String keyId) {
+        if (keyId == null) {
+            throw new InvalidTokenException("kid is a required JOSE Header");
+        }
+        SignatureVerifier verifier = verifiers.get(keyId);
+        if (verifier == null) {
+            verifier = reload().get(keyId);
+        }
+        if (verifier == null) {
+            throw new InvalidTokenException("Invalid JOSE Header kid (" + keyId + ")");
+        }
+        return verifier;
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized Map<String, SignatureVerifier> reload() {
+        long now = System.currentTimeMillis();
+        if (now - lastLoadTime < refreshIntervalMillis) {
+            return verifiers;
+        }
+        lastLoadTime = now;
+        Map<String, Object> jwkSet = restTemplate.getForObject(jwkSetUri, Map.class);
+        List<Map<String, Object>> keys = jwkSet == null ? null : (List<Map<String, Object>>) jwkSet.get(JwkSetUtils.KEYS);
+        if (keys == null) {
+            log.warn("JWKS 为空 - {}", jwkSetUri);
+            return verifiers;
+        }
+        Map<String, SignatureVerifier> loaded = new HashMap<>(keys.size());
+        for (Map<String, Object> jwk : keys) {
+            if (!JwkSetUtils.RSA.equals(jwk.get(JwkSetUtils.KEY_TYPE))) {
+                continue;
+            }
+            try {
+                loaded.put((String) jwk.get(JwkSetUtils.KEY_ID), new RsaVerifier(JwkSetUtils.toPublicKey(jwk), SIGNATURE_ALGORITHM));
+            } catch (Exception e) {
+                log.warn("JWK 解析失败 - {} - {}", jwk.get(JwkSetUtils.KEY_ID), e.getMessage());
+            }
+        }
+        log.info("加载 JWKS - {} - {}", jwkSetUri, loaded.keySet());
+        verifiers = loaded;
+        return loaded;
+    }
+}
@@ -0,0 +1,75 @@
+package com.soybean.framework.security.client.token;
+
+import com.google.common.collect.Maps;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * RSA 公钥与 JWK（RFC 7517）之间的转换
+ *
+ * @author wenxina
+ */
+public class JwkSetUtils {
+
+    public static final String KEYS = "keys";
+    public static final String KEY_ID = "kid";
+    public static final String KEY_TYPE = "kty";
+    public static final String ALGORITHM = "alg";
+    public static final String PUBLIC_KEY_USE = "use";
+    public static final String MODULUS = "n";
+    public static final String EXPONENT = "e";
+
+    public static final String RSA = "RSA";
+    public static final String RS256 = "RS256";
+
+    /**
+     * RSA 公钥转换为 JWK
+     *
+     * @param keyId     密钥 ID
+     * @param publicKey 公钥
+     * @return JWK
+     */
+    public static Map<String, Object> toJwk(String keyId, RSAPublicKey publicKey) {
+        Map<String, Object> jwk = Maps.newLinkedHashMap();
+        jwk.put(KEY_TYPE, RSA);
+        jwk.put(KEY_ID, keyId);
+        jwk.put(PUBLIC_KEY_USE, "sig");
+        jwk.put(ALGORITHM, RS256);
+        jwk.put(MODULUS, encode(publicKey.getModulus()));
+        jwk.put(EXPONENT, encode(publicKey.getPublicExponent()));
+        return jwk;
+    }
+
+    /**
+     * JWK 转换为 RSA 公钥
+     *
+     * @param jwk JWK
+     * @return 公钥
+     * @throws GeneralSecurityException 非法的公钥
+     */
+    public static RSAPublicKey toPublicKey(Map<String, ?> jwk) throws GeneralSecurityException {
+        BigInteger modulus = decode((String) jwk.get(MODULUS));
+        BigInteger exponent = decode((String) jwk.get(EXPONENT));
+        return (RSAPublicKey) KeyFactory.getInstance(RSA).generatePublic(new RSAPublicKeySpec(modulus, exponent));
+    }
+
+    private static String encode(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        // 去掉 BigInteger 的符号位
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static BigInteger decode(String value) {
+        return new BigInteger(1, Base64.getUrlDecoder().decode(value));
+    }
+}
@@ -0,0 +1,63 @@
+package com.soybean.framework.security.client.token;
+
+import cn.hutool.core.map.MapUtil;
+import com.soybean.framework.security.client.entity.UserInfoDetails;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.provider.token.DefaultUserAuthenticationConverter;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 从 JWT 的 claims 还原 {@link UserInfoDetails}，使 SecurityUtils.getAuthInfo() 在 JWT 模式下可用
+ *
+ * @author wenxina
+ */
+public class JwtUserAuthenticationConverter extends DefaultUserAuthenticationConverter {
+
+    private static final String AUTHORITIES = "authorities";
+    private static final String PERMISSIONS = "permissions";
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Authentication extractAuthentication(Map<String, ?> map) {
+        if (!map.containsKey(USERNAME)) {
+            return null;
+        }
+        Collection<? extends GrantedAuthority> authorities = getAuthorities(map);
+        Object permissions = map.get(PERMISSIONS);
+        UserInfoDetails principal = UserInfoDetails.builder()
+                .userId(MapUtil.getLong(map, "userId"))
+                .username((String) map.get(USERNAME))
+                .nickName(MapUtil.getStr(map, "nickName"))
+                .tenantId(MapUtil.getLong(map, "tenantId"))
+                .tenantCode(MapUtil.getStr(map, "tenantCode"))
+                .avatar(MapUtil.getStr(map, "avatar"))
+                .sex(MapUtil.getInt(map, "sex"))
+                .email(MapUtil.getStr(map, "email"))
+                .mobile(MapUtil.getStr(map, "mobile"))
+                .permissions(permissions instanceof Collection ? (Collection<String>) permissions : new ArrayList<>())
+                .roles(new ArrayList<>())
+                .authorities((Collection<GrantedAuthority>) authorities)
+                .enabled(true)
+                .build();
+        return new UsernamePasswordAuthenticationToken(principal, "N/A", authorities);
+    }
+
+    private Collection<? extends GrantedAuthority> getAuthorities(Map<String, ?> map) {
+        Object authorities = map.get(AUTHORITIES);
+        if (authorities instanceof String) {
+            return AuthorityUtils.commaSeparatedStringToAuthorityList((String) authorities);
+        }
+        if (authorities instanceof Collection) {
+            return AuthorityUtils.commaSeparatedStringToAuthorityList(StringUtils.collectionToCommaDelimitedString((Collection<?>) authorities));
+        }
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,53 @@
+package com.soybean.framework.security.client.token;
+
+import com.soybean.framework.security.client.properties.LocalJwtProperties;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.bus.jackson.RemoteApplicationEventScan;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+
+/**
+ * 资源服务器本地校验 JWT 的配置
+ *
+ * @author wenxina
+ */
+@Configuration
+@EnableConfigurationProperties(LocalJwtProperties.class)
+@RemoteApplicationEventScan(basePackageClasses = TokenRevokedEvent.class)
+public class LocalJwtConfiguration {
+
+    @Bean
+    public LocalTokenDenyList localTokenDenyList(@Qualifier("lbRestTemplate") RestTemplate lbRestTemplate,
+                                                 LocalJwtProperties properties) {
+        return new LocalTokenDenyList(() -> lbRestTemplate.exchange(properties.getRevokedUri(), HttpMethod.GET, clientAuthentication(properties),
+                new ParameterizedTypeReference<Map<String, Long>>() {
+                }).getBody());
+    }
+
+    /**
+     * 注销名单需要客户端认证
+     */
+    private static HttpEntity<Void> clientAuthentication(LocalJwtProperties properties) {
+        HttpHeaders headers = new HttpHeaders();
+        if (StringUtils.hasText(properties.getClientId())) {
+            headers.setBasicAuth(properties.getClientId(), StringUtils.hasText(properties.getClientSecret()) ? properties.getClientSecret() : "");
+        }
+        return new HttpEntity<>(headers);
+    }
+
+    @Bean
+    public ApplicationListener<TokenRevokedEvent> tokenDenyListEventListener(LocalTokenDenyList localTokenDenyList) {
+        return new TokenDenyListEventListener(localTokenDenyList);
+    }
+
+}
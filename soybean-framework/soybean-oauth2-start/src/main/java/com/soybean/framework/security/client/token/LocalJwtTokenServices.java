@@ -0,0 +1,51 @@
+package com.soybean.framework.security.client.token;
+
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
+
+import java.util.Map;
+
+/**
+ * 资源服务器本地校验 JWT，不再调用认证中心
+ * <p>
+ * 每个令牌只验签、解析一次，再依次校验过期时间与注销名单
+ *
+ * @author wenxina
+ */
+public class LocalJwtTokenServices implements ResourceServerTokenServices {
+
+    private final JwkSetAccessTokenConverter accessTokenConverter;
+    private final TokenDenyList tokenDenyList;
+
+    public LocalJwtTokenServices(JwkSetAccessTokenConverter accessTokenConverter, TokenDenyList tokenDenyList) {
+        this.accessTokenConverter = accessTokenConverter;
+        this.tokenDenyList = tokenDenyList;
+    }
+
+    @Override
+    public OAuth2Authentication loadAuthentication(String accessToken) throws AuthenticationException, InvalidTokenException {
+        Map<String, Object> claims = accessTokenConverter.decodeClaims(accessToken);
+        checkAccessToken(accessTokenConverter.extractAccessToken(accessToken, claims));
+        return accessTokenConverter.extractAuthentication(claims);
+    }
+
+    @Override
+    public OAuth2AccessToken readAccessToken(String accessToken) {
+        OAuth2AccessToken token = accessTokenConverter.extractAccessToken(accessToken, accessTokenConverter.decodeClaims(accessToken));
+        checkAccessToken(token);
+        return token;
+    }
+
+    private void checkAccessToken(OAuth2AccessToken token) {
+        if (token.isExpired()) {
+            throw new InvalidTokenException("Access token expired: " + token.getValue());
+        }
+        String jti = DenyListJwtTokenStore.getTokenId(token);
+        if (jti != null && tokenDenyList.isRevoked(jti)) {
+            throw new InvalidTokenException("Token was revoked: " + jti);
+        }
+    }
+}
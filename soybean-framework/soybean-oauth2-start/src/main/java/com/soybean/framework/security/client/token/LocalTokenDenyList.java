@@ -0,0 +1,79 @@
+package com.soybean.framework.security.client.token;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.lang.NonNull;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 资源服务器本地的 {@link TokenDenyList}
+ * <p>
+ * 启动完成后从认证中心加载一次未过期的注销名单，之后通过 {@link TokenRevokedEvent} 增量更新，校验令牌时不需要网络调用；
+ * 每条记录在令牌过期时自动淘汰
+ *
+ * @author wenxina
+ */
+@Slf4j
+public class LocalTokenDenyList implements TokenDenyList, ApplicationListener<ApplicationReadyEvent> {
+
+    private final Cache<String, Long> revoked = Caffeine.newBuilder()
+            .expireAfter(new Expiry<String, Long>() {
+                @Override
+                public long expireAfterCreate(@NonNull String jti, @NonNull Long expiresAt, long currentTime) {
+                    return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiresAt - System.currentTimeMillis()));
+                }
+
+                @Override
+                public long expireAfterUpdate(@NonNull String jti, @NonNull Long expiresAt, long currentTime, long currentDuration) {
+                    return expireAfterCreate(jti, expiresAt, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(@NonNull String jti, @NonNull Long expiresAt, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+    private final Supplier<Map<String, Long>> loader;
+
+    /**
+     * @param loader 从认证中心加载注销名单，key 为 jti，value 为过期时间（毫秒）
+     */
+    public LocalTokenDenyList(Supplier<Map<String, Long>> loader) {
+        this.loader = loader;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        try {
+            Map<String, Long> loaded = loader.get();
+            if (loaded != null) {
+                loaded.forEach(this::revoke);
+            }
+            log.info("加载令牌注销名单 - {}", revoked.estimatedSize());
+        } catch (Exception e) {
+            log.warn("加载令牌注销名单失败 - {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void revoke(String jti, long expiresAt) {
+        if (expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        revoked.put(jti, expiresAt);
+    }
+
+    @Override
+    public boolean isRevoked(String jti) {
+        Long expiresAt = revoked.getIfPresent(jti);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+}
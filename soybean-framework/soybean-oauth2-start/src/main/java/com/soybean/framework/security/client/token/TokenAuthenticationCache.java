@@ -0,0 +1,161 @@
+package com.soybean.framework.security.client.token;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * 令牌认证信息本地缓存
+ * <p>
+ * 1. Key 为令牌的 SHA-256 摘要，不在内存中保存令牌原文
+ * 2. LRU 淘汰，过期时间取缓存时间与令牌过期时间（exp）中较早的一个
+ * 3. 同一个令牌并发加载时只有一个请求调用远程服务，其余等待结果
+ * 4. 移除缓存时同时作废正在进行的加载，加载结果不再写入缓存
+ *
+ * @author wenxina
+ */
+@Slf4j
+public class TokenAuthenticationCache {
+
+    private final int maximumSize;
+    private final long ttlMillis;
+    private final Map<String, CachedAuthentication> authentications;
+    private final ConcurrentMap<String, CompletableFuture<OAuth2Authentication>> loadings = new ConcurrentHashMap<>();
+
+    public TokenAuthenticationCache(int maximumSize, long ttlMillis) {
+        this.maximumSize = maximumSize;
+        this.ttlMillis = ttlMillis;
+        this.authentications = new LinkedHashMap<>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedAuthentication> eldest) {
+                return size() > TokenAuthenticationCache.this.maximumSize;
+            }
+        };
+    }
+
+    /**
+     * 令牌摘要
+     *
+     * @param accessToken 令牌
+     * @return 摘要
+     */
+    public static String hash(String accessToken) {
+        return DigestUtil.sha256Hex(accessToken);
+    }
+
+    /**
+     * 获取令牌对应的认证信息，缓存不存在时通过 loader 加载
+     *
+     * @param accessToken 令牌
+     * @param loader      加载器
+     * @return 认证信息
+     */
+    public OAuth2Authentication get(String accessToken, Function<String, OAuth2Authentication> loader) {
+        String key = hash(accessToken);
+        long now = System.currentTimeMillis();
+        OAuth2Authentication authentication = getIfPresent(key, now);
+        if (authentication != null) {
+            return authentication;
+        }
+        CompletableFuture<OAuth2Authentication> future = new CompletableFuture<>();
+        CompletableFuture<OAuth2Authentication> loading = loadings.putIfAbsent(key, future);
+        if (loading != null) {
+            return join(loading);
+        }
+        try {
+            authentication = loader.apply(accessToken);
+            put(key, future, authentication, now);
+            future.complete(authentication);
+            return authentication;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadings.remove(key, future);
+        }
+    }
+
+    /**
+     * 移除令牌对应的缓存
+     *
+     * @param tokenHash 令牌摘要，见 {@link #hash(String)}
+     */
+    public void evict(String tokenHash) {
+        synchronized (authentications) {
+            authentications.remove(tokenHash);
+            loadings.remove(tokenHash);
+        }
+    }
+
+    public int size() {
+        synchronized (authentications) {
+            return authentications.size();
+        }
+    }
+
+    private OAuth2Authentication getIfPresent(String key, long now) {
+        synchronized (authentications) {
+            CachedAuthentication cached = authentications.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (cached.expireAt <= now) {
+                authentications.remove(key);
+                return null;
+            }
+            return cached.authentication;
+        }
+    }
+
+    private void put(String key, CompletableFuture<OAuth2Authentication> future, OAuth2Authentication authentication, long now) {
+        if (authentication == null || maximumSize <= 0) {
+            return;
+        }
+        long expireAt = now + ttlMillis;
+        Serializable exp = authentication.getOAuth2Request().getExtensions().get(ExpirationAwareAccessTokenConverter.EXP);
+        if (exp instanceof Number) {
+            expireAt = Math.min(expireAt, ((Number) exp).longValue() * 1000L);
+        }
+        if (expireAt <= now) {
+            return;
+        }
+        synchronized (authentications) {
+            // 加载期间被 evict 的结果不写入
+            if (loadings.get(key) != future) {
+                return;
+            }
+            authentications.put(key, new CachedAuthentication(authentication, expireAt));
+        }
+    }
+
+    private static OAuth2Authentication join(CompletableFuture<OAuth2Authentication> loading) {
+        try {
+            return loading.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static final class CachedAuthentication {
+
+        private final OAuth2Authentication authentication;
+        private final long expireAt;
+
+        private CachedAuthentication(OAuth2Authentication authentication, long expireAt) {
+            this.authentication = authentication;
+            this.expireAt = expireAt;
+        }
+    }
+}
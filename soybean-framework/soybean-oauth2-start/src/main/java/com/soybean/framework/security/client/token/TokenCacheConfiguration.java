@@ -0,0 +1,31 @@
+package com.soybean.framework.security.client.token;
+
+import com.soybean.framework.security.client.properties.TokenCacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.bus.jackson.RemoteApplicationEventScan;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 资源服务器本地令牌缓存配置
+ *
+ * @author wenxina
+ */
+@Configuration
+@EnableConfigurationProperties(TokenCacheProperties.class)
+@RemoteApplicationEventScan(basePackageClasses = TokenRevokedEvent.class)
+public class TokenCacheConfiguration {
+
+    @Bean
+    public TokenAuthenticationCache tokenAuthenticationCache(TokenCacheProperties properties) {
+        int maximumSize = properties.isEnabled() ? properties.getMaximumSize() : 0;
+        return new TokenAuthenticationCache(maximumSize, properties.getTtl().toMillis());
+    }
+
+    @Bean
+    public ApplicationListener<TokenRevokedEvent> tokenRevokedEventListener(TokenAuthenticationCache tokenAuthenticationCache) {
+        return new TokenRevokedEventListener(tokenAuthenticationCache);
+    }
+
+}
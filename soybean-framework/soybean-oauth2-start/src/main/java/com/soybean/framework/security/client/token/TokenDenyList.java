@@ -0,0 +1,26 @@
+package com.soybean.framework.security.client.token;
+
+/**
+ * JWT 注销名单，只记录已注销（退出登录）令牌的 jti
+ *
+ * @author wenxina
+ */
+public interface TokenDenyList {
+
+    /**
+     * 注销令牌
+     *
+     * @param jti       令牌 ID
+     * @param expiresAt 令牌过期时间（毫秒），过期后无需再记录
+     */
+    void revoke(String jti, long expiresAt);
+
+    /**
+     * 令牌是否已注销
+     *
+     * @param jti 令牌 ID
+     * @return 是（true）|不是（false）
+     */
+    boolean isRevoked(String jti);
+
+}
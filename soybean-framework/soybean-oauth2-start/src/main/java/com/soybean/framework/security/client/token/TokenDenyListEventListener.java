@@ -0,0 +1,24 @@
+package com.soybean.framework.security.client.token;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationListener;
+
+/**
+ * @author wenxina
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class TokenDenyListEventListener implements ApplicationListener<TokenRevokedEvent> {
+
+    private final TokenDenyList tokenDenyList;
+
+    @Override
+    public void onApplicationEvent(TokenRevokedEvent event) {
+        if (event.getJti() == null || event.getExpiresAt() == null) {
+            return;
+        }
+        log.debug("接收令牌注销事件: - {} - {}", event.getOriginService(), event.getJti());
+        tokenDenyList.revoke(event.getJti(), event.getExpiresAt());
+    }
+}
@@ -0,0 +1,50 @@
+package com.soybean.framework.security.client.token;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.cloud.bus.event.RemoteApplicationEvent;
+
+
+/**
+ * 令牌注销事件，通过 Bus 广播到所有资源服务，移除本地令牌缓存 / 加入本地注销名单
+ *
+ * @author wenxina
+ */
+public class TokenRevokedEvent extends RemoteApplicationEvent {
+
+    /**
+     * 令牌摘要，见 {@link TokenAuthenticationCache#hash(String)}
+     */
+    @Getter
+    @Setter
+    private String tokenHash;
+
+    /**
+     * 令牌 ID，JWT 模式下用于 {@link TokenDenyList}
+     */
+    @Getter
+    @Setter
+    private String jti;
+
+    /**
+     * 令牌过期时间（毫秒）
+     */
+    @Getter
+    @Setter
+    private Long expiresAt;
+
+    public TokenRevokedEvent() {
+    }
+
+    public TokenRevokedEvent(Object body, String originService, String tokenHash) {
+        super(body, originService, DEFAULT_DESTINATION_FACTORY.getDestination(null));
+        this.tokenHash = tokenHash;
+    }
+
+    public TokenRevokedEvent(Object body, String originService, String tokenHash, String jti, Long expiresAt) {
+        this(body, originService, tokenHash);
+        this.jti = jti;
+        this.expiresAt = expiresAt;
+    }
+
+}
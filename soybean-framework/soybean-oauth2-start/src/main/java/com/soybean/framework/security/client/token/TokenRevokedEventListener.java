@@ -0,0 +1,21 @@
+package com.soybean.framework.security.client.token;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationListener;
+
+/**
+ * @author wenxina
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class TokenRevokedEventListener implements ApplicationListener<TokenRevokedEvent> {
+
+    private final TokenAuthenticationCache tokenAuthenticationCache;
+
+    @Override
+    public void onApplicationEvent(TokenRevokedEvent event) {
+        log.debug("接收令牌注销事件: - {}", event.getOriginService());
+        tokenAuthenticationCache.evict(event.getTokenHash());
+    }
+}
@@ -0,0 +1,28 @@
+package com.soybean.framework.security.client.utils;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 资源服务器过滤器链中开启 / 清理 {@link AuthInfoContextHolder}
+ *
+ * @author wenxina
+ */
+public class AuthInfoContextFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AuthInfoContextHolder.open();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            AuthInfoContextHolder.clear();
+        }
+    }
+}
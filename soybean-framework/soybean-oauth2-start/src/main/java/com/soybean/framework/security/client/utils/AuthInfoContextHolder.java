@@ -0,0 +1,69 @@
+package com.soybean.framework.security.client.utils;
+
+import com.soybean.framework.security.client.entity.UserInfoDetails;
+import org.springframework.security.core.Authentication;
+
+/**
+ * 当前请求已解析的用户信息
+ * <p>
+ * 由 {@link AuthInfoContextFilter} 在请求开始时开启、请求结束时清理，
+ * 请求内 {@link SecurityUtils#getAuthInfo()} 只解析一次 Principal，后续直接返回
+ *
+ * @author wenxina
+ */
+public final class AuthInfoContextHolder {
+
+    private static final ThreadLocal<AuthInfoContext> CONTEXT = new ThreadLocal<>();
+
+    private AuthInfoContextHolder() {
+    }
+
+    /**
+     * 开启当前请求的上下文
+     */
+    public static void open() {
+        CONTEXT.set(new AuthInfoContext());
+    }
+
+    /**
+     * 清理当前请求的上下文
+     */
+    public static void clear() {
+        CONTEXT.remove();
+    }
+
+    /**
+     * 获取已解析的用户信息，认证信息发生变化时返回 null
+     *
+     * @param authentication 当前认证信息
+     * @return 用户信息
+     */
+    static UserInfoDetails get(Authentication authentication) {
+        AuthInfoContext context = CONTEXT.get();
+        if (context == null || context.authentication != authentication) {
+            return null;
+        }
+        return context.authInfo;
+    }
+
+    /**
+     * 保存解析后的用户信息，未开启上下文（非请求线程）时不做处理
+     *
+     * @param authentication 当前认证信息
+     * @param authInfo       用户信息
+     */
+    static void set(Authentication authentication, UserInfoDetails authInfo) {
+        AuthInfoContext context = CONTEXT.get();
+        if (context == null) {
+            return;
+        }
+        context.authentication = authentication;
+        context.authInfo = authInfo;
+    }
+
+    private static final class AuthInfoContext {
+
+        private Authentication authentication;
+        private UserInfoDetails authInfo;
+    }
+}
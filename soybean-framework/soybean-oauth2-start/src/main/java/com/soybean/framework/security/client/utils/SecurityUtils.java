@@ -24,6 +24,8 @@ public class SecurityUtils {
 
     /**
      * 获取用户详细信息
+     * <p>
+     * 请求内只解析一次，结果保存在 {@link AuthInfoContextHolder}
      *
      * @return 结果
      */
@@ -32,13 +34,20 @@ public class SecurityUtils {
         if (authentication == null || anonymous()) {
             throw CheckedException.forbidden("认证信息不存在");
         }
+        UserInfoDetails authInfo = AuthInfoContextHolder.get(authentication);
+        if (authInfo != null) {
+            return authInfo;
+        }
         Authentication userAuthentication = authentication.getUserAuthentication();
         if (userAuthentication.getPrincipal() instanceof UserInfoDetails) {
-            return (UserInfoDetails) userAuthentication.getPrincipal();
+            authInfo = (UserInfoDetails) userAuthentication.getPrincipal();
+        } else {
+            String detailsText = JSON.toJSONString(userAuthentication.getDetails());
+            final JSONObject detailJson = JSON.parseObject(detailsText);
+            authInfo = detailJson.getObject(AUTH_DETAILS_PRINCIPAL, UserInfoDetails.class);
         }
-        String detailsText = JSON.toJSONString(userAuthentication.getDetails());
-        final JSONObject detailJson = JSON.parseObject(detailsText);
-        return detailJson.getObject(AUTH_DETAILS_PRINCIPAL, UserInfoDetails.class);
+        AuthInfoContextHolder.set(authentication, authInfo);
+        return authInfo;
     }
 
     /**
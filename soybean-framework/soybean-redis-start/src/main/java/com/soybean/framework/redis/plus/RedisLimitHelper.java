@@ -1,20 +1,47 @@
 package com.soybean.framework.redis.plus;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.soybean.framework.redis.plus.limit.LeasedRateLimiter;
+import com.soybean.framework.redis.plus.limit.LocalRateLimiter;
+import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RRateLimiter;
 import org.redisson.api.RateIntervalUnit;
 import org.redisson.api.RateType;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
 
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 /**
+ * 限流助手
+ * <p>
+ * PER_CLIENT 即单机限流，直接使用本地令牌桶，不访问 Redis；OVERALL 使用 Redisson 限流器，开启 lease 时批量申请令牌在本地消费。
+ * 限流器按 key 缓存，超过最大数量或长时间未使用时淘汰
+ *
  * @author wenxina
  */
-@RequiredArgsConstructor
+@Slf4j
 public class RedisLimitHelper {
 
+    private static final String NOT_INITIALIZED = "RateLimiter is not initialized";
+
     private final RedissonClient redissonClient;
+    private final RedisPlusProperties.RedisLimitSwitch properties;
+    private final Cache<String, Object> limiters;
+
+    public RedisLimitHelper(RedissonClient redissonClient) {
+        this(redissonClient, new RedisPlusProperties.RedisLimitSwitch());
+    }
+
+    public RedisLimitHelper(RedissonClient redissonClient, RedisPlusProperties.RedisLimitSwitch properties) {
+        this.redissonClient = redissonClient;
+        this.properties = properties;
+        this.limiters = Caffeine.newBuilder().maximumSize(properties.getLocalMaximumSize())
+                .expireAfterAccess(Duration.ofSeconds(properties.getLocalIdleTimeout())).build();
+    }
 
     public boolean tryAcquire(String rateKey, long permits, long timeout, RateType type) {
         return tryAcquire(rateKey, permits, timeout, TimeUnit.SECONDS, type, 0);
@@ -31,34 +58,72 @@ public class RedisLimitHelper {
      * @param permits:允许最大限流数
      * @param timeout:时间间隔单位数
      * @param timeUnit:时间间隔类型，默认秒(SECONDS,MINUTES,HOURS,DAYS)
-     * @param type:限流类型，默认秒(OVERALL                           总机限流，PER_CLIENT 单机限流)
+     * @param type:限流类型，默认秒(OVERALL                           总机限流，PER_CLIENT 单机限流，使用本地令牌桶)
      * @param retryTimes:重试次数，默认0不重试
      */
     public boolean tryAcquire(String rateKey, long permits, long timeout, TimeUnit timeUnit, RateType type, long retryTimes) {
+        // 速率也作为 key 的一部分，注解参数修改后重新创建
+        final String limiterKey = rateKey + ':' + type + ':' + permits + ':' + timeout + ':' + timeUnit;
+        if (type == RateType.PER_CLIENT) {
+            final LocalRateLimiter limiter = (LocalRateLimiter) limiters.get(limiterKey, key -> new LocalRateLimiter(permits, timeout, timeUnit));
+            return limiter != null && limiter.tryAcquire(retryTimes, timeUnit);
+        }
+        if (properties.isLease()) {
+            final LeasedRateLimiter limiter = (LeasedRateLimiter) limiters.get(limiterKey, key -> {
+                // 一次申请不能超过限流器速率，否则 Redisson 直接报错
+                final long batch = Math.min(properties.getLeaseBatch() > 0 ? properties.getLeaseBatch() : Math.max(1, permits / 10), permits);
+                // 租约不超过一个限流周期
+                final long lease = Math.min(TimeUnit.MILLISECONDS.toNanos(properties.getLeaseTimeout()), timeUnit.toNanos(timeout));
+                return new LeasedRateLimiter(rateLimiter(rateKey, permits, timeout, timeUnit, type), batch, lease, TimeUnit.NANOSECONDS);
+            });
+            return limiter != null && acquire(() -> limiter.tryAcquire(retryTimes, timeUnit), rateKey, permits, timeout, timeUnit, type);
+        }
+        final RRateLimiter limiter = (RRateLimiter) limiters.get(limiterKey, key -> rateLimiter(rateKey, permits, timeout, timeUnit, type));
+        return limiter != null && acquire(() -> retryTimes > 0 ? limiter.tryAcquire(1, retryTimes, timeUnit) : limiter.tryAcquire(),
+                rateKey, permits, timeout, timeUnit, type);
+    }
+
+    /**
+     * 速率只在本地首次创建限流器时设置，Redis 中的配置丢失（过期、被删除、切换节点）后申请会报未初始化，
+     * 此时重新设置速率并再申请一次
+     */
+    private boolean acquire(BooleanSupplier action, String rateKey, long permits, long timeout, TimeUnit timeUnit, RateType type) {
+        try {
+            return action.getAsBoolean();
+        } catch (RedisException e) {
+            if (e.getMessage() == null || !e.getMessage().contains(NOT_INITIALIZED)) {
+                throw e;
+            }
+            log.warn("redis rate limiter [{}] not initialized, reset rate", rateKey);
+            rateLimiter(rateKey, permits, timeout, timeUnit, type);
+            return action.getAsBoolean();
+        }
+    }
+
+    /**
+     * 获取 Redisson 限流器并设置速率（已存在时不覆盖）
+     */
+    private RRateLimiter rateLimiter(String rateKey, long permits, long timeout, TimeUnit timeUnit, RateType type) {
         RRateLimiter rateLimiter = redissonClient.getRateLimiter(rateKey);
         switch (timeUnit) {
-            //间隔一秒，尝试一次，失败就不重试，直接拒绝访问，0换成正数，就会间隔重试
             case MINUTES:
                 //1分钟permits个token
                 rateLimiter.trySetRate(type, permits, timeout, RateIntervalUnit.MINUTES);
-                //间隔一分钟，尝试一次，失败就不重试，直接拒绝访问，0换成正数，就会间隔重试
-                return rateLimiter.tryAcquire(1, retryTimes, TimeUnit.MINUTES);
+                break;
             case HOURS:
                 //1小时permits个token
                 rateLimiter.trySetRate(type, permits, timeout, RateIntervalUnit.HOURS);
-                //间隔一小时，尝试一次，失败就不重试，直接拒绝访问，0换成正数，就会间隔重试
-                return rateLimiter.tryAcquire(1, retryTimes, TimeUnit.HOURS);
+                break;
             case DAYS:
                 //1天permits个token
                 rateLimiter.trySetRate(type, permits, timeout, RateIntervalUnit.DAYS);
-                //间隔一天，尝试一次，失败就不重试，直接拒绝访问，0换成正数，就会间隔重试
-                return rateLimiter.tryAcquire(1, retryTimes, TimeUnit.DAYS);
+                break;
             default:
                 // "SECONDS": 1秒permits个token
                 rateLimiter.trySetRate(type, permits, timeout, RateIntervalUnit.SECONDS);
-                //间隔一秒，尝试一次，失败就不重试，直接拒绝访问，0换成正数，就会间隔重试
-                return rateLimiter.tryAcquire(1, retryTimes, TimeUnit.SECONDS);
+                break;
         }
+        return rateLimiter;
     }
 
 }
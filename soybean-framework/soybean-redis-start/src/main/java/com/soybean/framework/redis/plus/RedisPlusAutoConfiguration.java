@@ -2,10 +2,12 @@ package com.soybean.framework.redis.plus;
 
 import com.soybean.framework.redis.plus.interceptor.RedisLimitInterceptor;
 import com.soybean.framework.redis.plus.interceptor.RedisLockInterceptor;
+import com.soybean.framework.redis.plus.key.MethodKeyGenerator;
 import com.soybean.framework.redis.plus.sequence.RedisSequenceHelper;
 import org.redisson.api.RedissonClient;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -31,29 +33,38 @@ public class RedisPlusAutoConfiguration {
         return new DefaultRedisKeyGenerator();
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    public MethodKeyGenerator methodKeyGenerator() {
+        return new MethodKeyGenerator();
+    }
+
     @Bean
     @Primary
-    public RedisSequenceHelper redisSequenceHelper(StringRedisTemplate stringRedisTemplate) {
-        return new RedisSequenceHelper(stringRedisTemplate);
+    public RedisSequenceHelper redisSequenceHelper(StringRedisTemplate stringRedisTemplate, RedisPlusProperties redisPlusProperties) {
+        final RedisPlusProperties.RedisSequenceSwitch sequence = redisPlusProperties.getSequence();
+        return new RedisSequenceHelper(stringRedisTemplate, sequence == null ? new RedisPlusProperties.RedisSequenceSwitch() : sequence);
     }
 
     @Bean
     @ConditionalOnProperty(prefix = "extend.redis.limit", name = "enabled", havingValue = "true", matchIfMissing = true)
-    public RedisLimitHelper redisLimitHelper(RedissonClient redissonClient) {
-        return new RedisLimitHelper(redissonClient);
+    public RedisLimitHelper redisLimitHelper(RedissonClient redissonClient, RedisPlusProperties redisPlusProperties) {
+        final RedisPlusProperties.RedisLimitSwitch limit = redisPlusProperties.getLimit();
+        return new RedisLimitHelper(redissonClient, limit == null ? new RedisPlusProperties.RedisLimitSwitch() : limit);
     }
 
     @Bean
     @ConditionalOnProperty(prefix = "extend.redis.lock", name = "interceptor", havingValue = "true", matchIfMissing = true)
-    public RedisLockInterceptor redissonLockAspect(RedissonClient redissonClient, RedisKeyGenerator redisKeyGenerator) {
-        return new RedisLockInterceptor(redissonClient, redisKeyGenerator);
+    public RedisLockInterceptor redissonLockAspect(RedissonClient redissonClient, RedisKeyGenerator redisKeyGenerator,
+                                                   MethodKeyGenerator methodKeyGenerator) {
+        return new RedisLockInterceptor(redissonClient, redisKeyGenerator, methodKeyGenerator);
     }
 
     @Bean
     @ConditionalOnBean(RedisLimitHelper.class)
     @ConditionalOnProperty(prefix = "extend.redis.limit.interceptor", name = "enabled", havingValue = "true", matchIfMissing = true)
-    public RedisLimitInterceptor redisLimitInterceptor(RedisLimitHelper redisLimitHelper) {
-        return new RedisLimitInterceptor(redisLimitHelper);
+    public RedisLimitInterceptor redisLimitInterceptor(RedisLimitHelper redisLimitHelper, MethodKeyGenerator methodKeyGenerator) {
+        return new RedisLimitInterceptor(redisLimitHelper, methodKeyGenerator);
     }
 
 
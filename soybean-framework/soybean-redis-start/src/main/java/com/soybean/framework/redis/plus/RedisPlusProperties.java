@@ -17,8 +17,9 @@ public class RedisPlusProperties {
 
     private boolean enabled;
     private RedisSwitch lock;
-    private RedisSwitch limit;
+    private RedisLimitSwitch limit;
     private RedisCacheSwitch cache;
+    private RedisSequenceSwitch sequence = new RedisSequenceSwitch();
 
     @Data
     public static class RedisSwitch {
@@ -37,6 +38,61 @@ public class RedisPlusProperties {
         private boolean interceptor = true;
     }
 
+    /**
+     * 限流配置
+     *
+     * @author wenxina
+     */
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class RedisLimitSwitch extends RedisSwitch {
+        /**
+         * 本地缓存的限流器最大数量
+         */
+        private long localMaximumSize = 10000;
+        /**
+         * 本地限流器空闲多久后淘汰（秒）
+         */
+        private long localIdleTimeout = 600;
+        /**
+         * 总机限流是否批量申请令牌在本地消费，减少 Redis 访问
+         */
+        private boolean lease;
+        /**
+         * 每次申请的令牌数，小于等于 0 时为限流数量的 1/10
+         */
+        private long leaseBatch;
+        /**
+         * 申请到的令牌有效期（毫秒），不超过一个限流周期
+         */
+        private long leaseTimeout = 1000;
+    }
+
+    /**
+     * 序号配置
+     *
+     * @author wenxina
+     */
+    @Data
+    public static class RedisSequenceSwitch {
+        /**
+         * 是否使用号段模式（INCRBY 批量预留，本地发放）
+         */
+        private boolean segment;
+        /**
+         * 每个号段的序号数量
+         */
+        private long step = 1000;
+        /**
+         * 当前号段使用到该比例时后台预取下一段
+         */
+        private double prefetchThreshold = 0.8;
+        /**
+         * 按日期分区的 key 在分区结束后保留的天数，小于 0 不过期
+         */
+        private int bucketGraceDays = 1;
+    }
+
     @Data
     public static class RedisCacheSwitch {
         /**
@@ -53,9 +109,77 @@ public class RedisPlusProperties {
          */
         private long timeout = 60 * 60 * 24;
 
+        /**
+         * 缓存值编码方式，默认 MARSHALLING，旧的 JDK 序列化数据仍可读取
+         */
+        private CacheCodecType codec = CacheCodecType.MARSHALLING;
+
+        /**
+         * 缓存值超过该字节数时压缩，小于等于 0 不压缩
+         */
+        private int compressThreshold = 4096;
+
+        /**
+         * 空值缓存时长（秒），防止不存在的数据反复回源，小于等于 0 不缓存空值
+         */
+        private long nullTimeout = 60;
+
+        /**
+         * 加载缓存时是否使用 Redis 短锁，多个节点同时未命中时只有一个回源
+         */
+        private boolean loadLock;
+
+        /**
+         * Redis 短锁时长（毫秒），其它节点最多等待该时长
+         */
+        private long loadLockTimeout = 3000;
+
+        /**
+         * 提前刷新系数，命中但即将过期的 key 按概率异步刷新，小于等于 0 关闭
+         */
+        private double earlyRefreshBeta = 1.0;
+
+        /**
+         * 清空缓存时每次 SCAN 的 COUNT
+         */
+        private int clearScanCount = 1000;
+
+        /**
+         * 清空缓存是否在后台执行
+         */
+        private boolean clearAsync;
+
+        /**
+         * 是否使用代数模式，清空缓存只需代数加一，旧 key 在后台回收
+         */
+        private boolean generation;
+
+        /**
+         * 代数本地缓存时长（毫秒），其它节点清空后最多延迟该时长生效
+         */
+        private long generationCacheMillis = 1000;
+
         private List<RedisCacheItem> items;
     }
 
+    /**
+     * 缓存值编码方式
+     */
+    public enum CacheCodecType {
+        /**
+         * JBoss Marshalling
+         */
+        MARSHALLING,
+        /**
+         * 带类型信息的 JSON
+         */
+        JACKSON,
+        /**
+         * JDK 序列化
+         */
+        JDK
+    }
+
     /**
      * 单项缓存配置信息
      *
@@ -78,6 +202,16 @@ public class RedisPlusProperties {
          * 单项缓存是否开启
          */
         private boolean enabled;
+
+        /**
+         * 本地一级缓存最大条数，大于 0 时开启（Caffeine + Redis 二级缓存）
+         */
+        private long localMaximumSize;
+
+        /**
+         * 本地一级缓存存活时间（秒），未配置时与 timeout 相同
+         */
+        private long localTimeout;
     }
 
 
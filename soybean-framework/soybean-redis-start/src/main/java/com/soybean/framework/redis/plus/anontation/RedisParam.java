@@ -4,6 +4,8 @@ import java.lang.annotation.*;
 
 /**
  * 缓存 Key 的参数
+ * <p>
+ * 标注在方法参数上时，{@link com.soybean.framework.redis.plus.key.MethodKeyGenerator} 只使用标注的参数生成 Key，未标注任何参数时使用全部参数
  *
  * @author wenxina
  */
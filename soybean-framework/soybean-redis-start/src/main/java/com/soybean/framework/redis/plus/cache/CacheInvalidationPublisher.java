@@ -0,0 +1,69 @@
+package com.soybean.framework.redis.plus.cache;
+
+import cn.hutool.core.util.IdUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 二级缓存的本地缓存失效通知
+ * <p>
+ * 消息格式：节点ID \n 缓存名称 [\n key]，没有 key 表示清空；忽略本节点发出的消息
+ *
+ * @author wenxina
+ */
+@Slf4j
+public class CacheInvalidationPublisher implements MessageListener {
+
+    private static final char SEPARATOR = '\n';
+
+    private final String nodeId = IdUtil.fastSimpleUUID();
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final byte[] channel;
+
+    public CacheInvalidationPublisher(RedisTemplate<String, Object> redisTemplate, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel.getBytes(StandardCharsets.UTF_8);
+    }
+
+    void register(TwoLevelCache cache) {
+        caches.put(cache.getName(), cache);
+    }
+
+    void publish(String cacheName, @Nullable String key) {
+        final String text = nodeId + SEPARATOR + cacheName + (key == null ? "" : SEPARATOR + key);
+        try {
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(channel, text.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            log.warn("cache invalidation publish error cache:{},key:{},error:{}", cacheName, key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(@NonNull Message message, @Nullable byte[] pattern) {
+        final String text = new String(message.getBody(), StandardCharsets.UTF_8);
+        final int nodeEnd = text.indexOf(SEPARATOR);
+        if (nodeEnd < 0 || text.startsWith(nodeId)) {
+            return;
+        }
+        final int nameEnd = text.indexOf(SEPARATOR, nodeEnd + 1);
+        final String cacheName = nameEnd < 0 ? text.substring(nodeEnd + 1) : text.substring(nodeEnd + 1, nameEnd);
+        final TwoLevelCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.invalidateLocal(nameEnd < 0 ? null : text.substring(nameEnd + 1));
+        }
+    }
+
+    public String getChannel() {
+        return new String(channel, StandardCharsets.UTF_8);
+    }
+}
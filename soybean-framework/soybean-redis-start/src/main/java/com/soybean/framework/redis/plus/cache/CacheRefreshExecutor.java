@@ -0,0 +1,51 @@
+package com.soybean.framework.redis.plus.cache;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.lang.Nullable;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存提前刷新、后台清空线程池
+ * <p>
+ * 不实现 {@link java.util.concurrent.Executor}，避免影响 Spring Boot 默认的 applicationTaskExecutor；
+ * 回源在后台线程执行，租户、数据源等线程上下文通过 {@link TaskDecorator} 传递，未配置时回源没有调用方的上下文
+ *
+ * @author wenxina
+ */
+public class CacheRefreshExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+    private final TaskDecorator taskDecorator;
+
+    /**
+     * @param queueCapacity 队列容量，队列满时抛出 {@link RejectedExecutionException}
+     * @param taskDecorator 上下文传递，可为空
+     */
+    public CacheRefreshExecutor(int queueCapacity, @Nullable TaskDecorator taskDecorator) {
+        this.executor = new ThreadPoolExecutor(1, 4, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                new ThreadFactoryBuilder().setNameFormat("redis-cache-refresh-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.taskDecorator = taskDecorator;
+    }
+
+    /**
+     * 提交任务
+     *
+     * @param task 任务
+     * @throws RejectedExecutionException 队列已满
+     */
+    public void execute(Runnable task) {
+        executor.execute(taskDecorator == null ? task : taskDecorator.decorate(task));
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
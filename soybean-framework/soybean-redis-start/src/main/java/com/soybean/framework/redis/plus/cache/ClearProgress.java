@@ -0,0 +1,77 @@
+package com.soybean.framework.redis.plus.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 缓存清空进度，记录最近一次 SCAN + UNLINK 清空的情况
+ *
+ * @author wenxina
+ */
+public class ClearProgress {
+
+    private volatile boolean running;
+    private volatile long startTime;
+    private volatile long endTime;
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong deleted = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    void start() {
+        scanned.set(0);
+        deleted.set(0);
+        batches.set(0);
+        startTime = System.currentTimeMillis();
+        endTime = 0;
+        running = true;
+    }
+
+    void finish() {
+        endTime = System.currentTimeMillis();
+        running = false;
+    }
+
+    void scanned() {
+        scanned.incrementAndGet();
+    }
+
+    void deleted(long count) {
+        deleted.addAndGet(count);
+        batches.incrementAndGet();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getScanned() {
+        return scanned.get();
+    }
+
+    public long getDeleted() {
+        return deleted.get();
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    /**
+     * @return 耗时（毫秒），运行中为已运行时长
+     */
+    public long getElapsed() {
+        if (startTime == 0) {
+            return 0;
+        }
+        return (running ? System.currentTimeMillis() : endTime) - startTime;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[running=%s, scanned=%d, deleted=%d, batches=%d, elapsed=%dms]",
+                running, getScanned(), getDeleted(), getBatches(), getElapsed());
+    }
+}
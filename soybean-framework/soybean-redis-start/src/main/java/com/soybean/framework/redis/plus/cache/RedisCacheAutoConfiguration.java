@@ -1,24 +1,30 @@
 package com.soybean.framework.redis.plus.cache;
 
 import cn.hutool.core.collection.CollectionUtil;
-import cn.hutool.core.util.ArrayUtil;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.crypto.digest.MD5;
-import com.alibaba.fastjson.JSON;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.soybean.framework.redis.plus.RedisPlusProperties;
+import com.soybean.framework.redis.plus.cache.codec.CacheCodec;
+import com.soybean.framework.redis.plus.cache.codec.CacheSerializer;
+import com.soybean.framework.redis.plus.cache.codec.JacksonCacheCodec;
+import com.soybean.framework.redis.plus.cache.codec.JdkCacheCodec;
+import com.soybean.framework.redis.plus.cache.codec.MarshallingCacheCodec;
+import com.soybean.framework.redis.plus.key.MethodKeyGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.KeyGenerator;
@@ -28,11 +34,15 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -50,33 +60,29 @@ import java.util.stream.Collectors;
 @ConditionalOnProperty(prefix = "extend.redis.cache", name = "enabled", havingValue = "true")
 public class RedisCacheAutoConfiguration extends CachingConfigurerSupport {
 
+    /**
+     * 内置编解码保留的标识上限，见 {@link CacheCodec#id()}
+     */
+    private static final byte MAX_BUILT_IN_CODEC_ID = 9;
+
     private final RedisPlusProperties redisPlusProperties;
+    private final ObjectProvider<MethodKeyGenerator> methodKeyGeneratorProvider;
 
     /**
-     * 自定义SpringCache缓存key
+     * 方法级 Key 生成器，未开启 extend.redis 时由此注册
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public MethodKeyGenerator methodKeyGenerator() {
+        return new MethodKeyGenerator();
+    }
+
+    /**
+     * 自定义SpringCache缓存key，与分布式锁、限流共用同一个 {@link MethodKeyGenerator}（方法模板只生成一次）
      */
-    @Primary
-    @Bean("keyGenerator")
-    @ConditionalOnMissingBean(KeyGenerator.class)
     @Override
     public KeyGenerator keyGenerator() {
-        return (target, method, params) -> {
-            //保证key有序
-            Map<String, Object> keyMap = new LinkedHashMap<>();
-            //放入target的名字
-            keyMap.put("target", target.getClass().toGenericString());
-            //放入method的名字
-            keyMap.put("method", method.getName());
-            if (ArrayUtil.isNotEmpty(params)) {
-                //把所有参数放进去
-                for (int i = 0; i < params.length; i++) {
-                    keyMap.put("params-" + i, params[i]);
-                }
-            }
-            final String jsonText = JSON.toJSONString(keyMap);
-            //使用MD5生成位移key
-            return MD5.create().digestHex(jsonText);
-        };
+        return methodKeyGeneratorProvider.getObject();
     }
 
     /**
@@ -111,13 +117,59 @@ public class RedisCacheAutoConfiguration extends CachingConfigurerSupport {
         return redisTemplate;
     }
 
+    /**
+     * 缓存值序列化，存在自定义 {@link CacheCodec} Bean 时优先使用
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public CacheSerializer cacheSerializer(ObjectProvider<CacheCodec> customCodecs) {
+        final RedisPlusProperties.RedisCacheSwitch cache = redisPlusProperties.getCache();
+        final List<CacheCodec> codecs = new ArrayList<>(List.of(new MarshallingCacheCodec(), new JacksonCacheCodec(), new JdkCacheCodec()));
+        final List<CacheCodec> customs = customCodecs.orderedStream().collect(Collectors.toList());
+        final Set<Byte> ids = new HashSet<>();
+        for (CacheCodec custom : customs) {
+            if (custom.id() <= MAX_BUILT_IN_CODEC_ID) {
+                throw new IllegalStateException("cache codec " + custom.getClass().getName() + " id " + custom.id()
+                        + " is reserved for built-in codecs (1 ~ " + MAX_BUILT_IN_CODEC_ID + ")");
+            }
+            if (!ids.add(custom.id())) {
+                throw new IllegalStateException("duplicate cache codec id " + custom.id() + ": " + custom.getClass().getName());
+            }
+        }
+        codecs.addAll(customs);
+        CacheCodec codec;
+        if (!customs.isEmpty()) {
+            codec = customs.get(0);
+        } else if (cache.getCodec() == RedisPlusProperties.CacheCodecType.JACKSON) {
+            codec = codecs.get(1);
+        } else if (cache.getCodec() == RedisPlusProperties.CacheCodecType.JDK) {
+            codec = codecs.get(2);
+        } else {
+            codec = codecs.get(0);
+        }
+        log.info("redis cache codec {}, compress threshold {}", codec.getClass().getSimpleName(), cache.getCompressThreshold());
+        return new CacheSerializer(codec, codecs, cache.getCompressThreshold());
+    }
+
+    /**
+     * 缓存提前刷新、后台清空线程池，队列满时放弃本次刷新（下次命中会再次触发），清空改为同步执行；
+     * 存在唯一的 {@link TaskDecorator} Bean 时用于传递租户、数据源上下文
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public CacheRefreshExecutor cacheRefreshExecutor(ObjectProvider<TaskDecorator> taskDecorator) {
+        return new CacheRefreshExecutor(1024, taskDecorator.getIfUnique());
+    }
+
     /**
      * 自定义缓存SimpleCacheManager
      */
     @Bean
     @Order(value = Ordered.HIGHEST_PRECEDENCE)
     @ConditionalOnBean({RedisTemplate.class, RedisConnectionFactory.class})
-    public SimpleCacheManager simpleCacheManager(RedisTemplate<String, Object> redisTemplate, RedisConnectionFactory factory) {
+    public SimpleCacheManager simpleCacheManager(RedisTemplate<String, Object> redisTemplate, RedisConnectionFactory factory,
+                                                 CacheInvalidationPublisher cacheInvalidationPublisher, CacheSerializer cacheSerializer,
+                                                 CacheRefreshExecutor cacheRefreshExecutor) {
         SimpleCacheManager simple = new SimpleCacheManager();
         final RedisPlusProperties.RedisCacheSwitch cache = redisPlusProperties.getCache();
         final List<RedisPlusProperties.RedisCacheItem> cacheItems = cache.getItems();
@@ -127,15 +179,64 @@ public class RedisCacheAutoConfiguration extends CachingConfigurerSupport {
         final long globalTimeOut = Optional.of(cache.getTimeout()).orElse(60 * 60 * 24L);
         //祛除重复，过滤掉null
         List<RedisPlusProperties.RedisCacheItem> items = new ArrayList<>(new HashSet<>(cacheItems));
-        Set<RedisCacheRepository> caches = items.stream().filter(Objects::nonNull)
-                .filter(item -> StrUtil.isNotBlank(item.getName())).map(item -> RedisCacheRepository.builder()
-                        .enabled(item.isEnabled()).name(item.getName())
-                        //配置默认超时时间
-                        .timeout(Optional.of(item.getTimeout()).orElse(globalTimeOut))
-                        .keyPrefix(cache.getPrefix())
-                        .redisTemplate(redisTemplate).connectionFactory(factory).build()).collect(Collectors.toSet());
+        Set<Cache> caches = items.stream().filter(Objects::nonNull)
+                .filter(item -> StrUtil.isNotBlank(item.getName())).map(item -> {
+                    final long timeout = Optional.of(item.getTimeout()).orElse(globalTimeOut);
+                    final RedisCacheRepository repository = RedisCacheRepository.builder()
+                            .enabled(item.isEnabled()).name(item.getName())
+                            //配置默认超时时间
+                            .timeout(timeout)
+                            .keyPrefix(cache.getPrefix()).serializer(cacheSerializer)
+                            .nullTimeout(cache.getNullTimeout()).loadLock(cache.isLoadLock())
+                            .loadLockTimeout(cache.getLoadLockTimeout()).earlyRefreshBeta(cache.getEarlyRefreshBeta())
+                            .refreshExecutor(cacheRefreshExecutor::execute)
+                            .clearScanCount(cache.getClearScanCount()).clearAsync(cache.isClearAsync())
+                            .generation(cache.isGeneration()).generationCacheMillis(cache.getGenerationCacheMillis())
+                            .redisTemplate(redisTemplate).connectionFactory(factory).build();
+                    if (!item.isEnabled() || item.getLocalMaximumSize() <= 0) {
+                        return repository;
+                    }
+                    // 本地一级缓存
+                    final long localTimeout = item.getLocalTimeout() > 0 ? item.getLocalTimeout() : timeout;
+                    TwoLevelCache twoLevelCache = new TwoLevelCache(repository, item.getLocalMaximumSize(),
+                            Duration.ofSeconds(localTimeout > 0 ? localTimeout : globalTimeOut), cacheInvalidationPublisher);
+                    cacheInvalidationPublisher.register(twoLevelCache);
+                    return twoLevelCache;
+                }).collect(Collectors.toSet());
         simple.setCaches(caches);
         return simple;
     }
 
+    /**
+     * 二级缓存各级命中指标
+     */
+    @Bean
+    public MeterBinder twoLevelCacheMeterBinder(ObjectProvider<SimpleCacheManager> simpleCacheManager) {
+        return registry -> simpleCacheManager.ifAvailable(manager -> manager.getCacheNames().forEach(name -> {
+            final Cache cache = manager.getCache(name);
+            if (cache instanceof TwoLevelCache) {
+                ((TwoLevelCache) cache).bindTo(registry);
+            }
+        }));
+    }
+
+    /**
+     * 二级缓存的本地缓存失效通知
+     */
+    @Bean
+    @ConditionalOnBean({RedisTemplate.class, RedisConnectionFactory.class})
+    public CacheInvalidationPublisher cacheInvalidationPublisher(RedisTemplate<String, Object> redisTemplate) {
+        return new CacheInvalidationPublisher(redisTemplate, redisPlusProperties.getCache().getPrefix() + "invalidate");
+    }
+
+    @Bean
+    @ConditionalOnBean(CacheInvalidationPublisher.class)
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory factory,
+                                                                            CacheInvalidationPublisher cacheInvalidationPublisher) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.addMessageListener(cacheInvalidationPublisher, new ChannelTopic(cacheInvalidationPublisher.getChannel()));
+        return container;
+    }
+
 }
@@ -1,21 +1,41 @@
 package com.soybean.framework.redis.plus.cache;
 
+import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.StrUtil;
+import com.soybean.framework.redis.plus.cache.codec.CacheSerializer;
 import lombok.*;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
 import org.springframework.cache.support.SimpleValueWrapper;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.lang.Nullable;
 
-import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author wenxina
@@ -32,6 +52,15 @@ import java.util.concurrent.Callable;
 @SuppressWarnings("unchecked")
 public class RedisCacheRepository implements Cache {
 
+    private static final String LOCK_SUFFIX = ":lock";
+    private static final long LOCK_POLL_INTERVAL = 50;
+    private static final long DEFAULT_LOCK_TIMEOUT = 3000;
+    private static final int DEFAULT_SCAN_COUNT = 1000;
+    private static final int UNLINK_BATCH = 100;
+    private static final String GENERATION_SUFFIX = "_generation";
+    private static final byte[] UNLOCK_SCRIPT = ("if redis.call('get', KEYS[1]) == ARGV[1] then "
+            + "return redis.call('del', KEYS[1]) else return 0 end").getBytes(StandardCharsets.UTF_8);
+
     /**
      * 某项缓存是否开启,默认开启
      */
@@ -55,6 +84,91 @@ public class RedisCacheRepository implements Cache {
 
     private RedisConnectionFactory connectionFactory;
 
+    /**
+     * 缓存值序列化，未配置时使用 JDK 序列化
+     */
+    private CacheSerializer serializer;
+
+    /**
+     * 空值（负缓存）存活时间（秒），小于等于 0 不缓存空值
+     */
+    private long nullTimeout;
+
+    /**
+     * get(key, valueLoader) 加载时是否使用 Redis 短锁，保证多个节点只有一个回源
+     */
+    private boolean loadLock;
+
+    /**
+     * Redis 短锁存活时间（毫秒），也是其它节点等待结果的最长时间
+     */
+    private long loadLockTimeout;
+
+    /**
+     * 提前过期系数（XFetch），越大越早异步刷新，小于等于 0 不提前刷新
+     */
+    private double earlyRefreshBeta;
+
+    /**
+     * 异步刷新、后台清空线程池，为空时不提前刷新，清空同步执行
+     */
+    private Executor refreshExecutor;
+
+    /**
+     * 清空时每次 SCAN 的 COUNT
+     */
+    private int clearScanCount;
+
+    /**
+     * 清空是否在后台执行（使用 refreshExecutor），进度见 {@link #getClearProgress()}
+     */
+    private boolean clearAsync;
+
+    /**
+     * 是否使用代数（generation）模式：key 带上代数，清空只需代数加一，旧代数的 key 由过期时间或后台任务回收
+     */
+    private boolean generation;
+
+    /**
+     * 代数本地缓存时长（毫秒），其它节点清空后最多延迟该时长生效
+     */
+    private long generationCacheMillis;
+
+    /**
+     * 本节点正在加载的 key，同一个 key 只有一个线程回源
+     */
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private final Map<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+
+    /**
+     * 本节点正在提前刷新的 key，与 {@link #loading} 分开：刷新在其它节点持锁时会放弃，不能作为加载结果给 get 使用
+     */
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 回源平均耗时（纳秒），用于计算提前刷新的概率
+     */
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private final AtomicLong loadNanos = new AtomicLong();
+
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private final AtomicReference<long[]> generationHolder = new AtomicReference<>();
+
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private final Set<String> clearPending = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 最近一次清空的进度
+     */
+    @EqualsAndHashCode.Exclude
+    private final ClearProgress clearProgress = new ClearProgress();
+
     @Override
     @NonNull
     public String getName() {
@@ -80,11 +194,11 @@ public class RedisCacheRepository implements Cache {
             return null;
         }
         final String ukPrefix = getUkPrefix(key.toString());
-        Object object = redisTemplate.execute((RedisCallback<Object>) connection -> {
-            byte[] ukByteKey = ukPrefix.getBytes();
-            byte[] value = connection.get(ukByteKey);
-            return value == null ? null : toObject(value);
-        });
+        byte[] value = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.get(ukPrefix.getBytes()));
+        Object object = value == null ? null : toObject(ukPrefix, value);
+        if (object instanceof NullValue) {
+            return new SimpleValueWrapper(null);
+        }
         return (object != null ? new SimpleValueWrapper(object) : null);
     }
 
@@ -100,10 +214,14 @@ public class RedisCacheRepository implements Cache {
             return;
         }
         final String ukPrefix = getUkPrefix(key.toString());
-        final long liveTime = timeout;
+        final boolean negative = value == null && nullTimeout > 0;
+        final long liveTime = negative ? nullTimeout : timeout;
+        final byte[] valueByte = toByteArray(negative ? NullValue.INSTANCE : value);
+        if (valueByte == null) {
+            return;
+        }
         redisTemplate.execute((RedisCallback<Long>) connection -> {
             byte[] cacheKey = ukPrefix.getBytes();
-            byte[] valueByte = toByteArray(value);
             connection.set(cacheKey, valueByte);
             if (liveTime > 0) {
                 connection.expire(cacheKey, liveTime);
@@ -124,6 +242,8 @@ public class RedisCacheRepository implements Cache {
 
     /**
      * 清除的时候，只会清除缓存名称为name前缀的缓存
+     * <p>
+     * 代数模式下代数加一即可；否则使用 SCAN + UNLINK 分批删除，开启 clearAsync 时在后台执行
      */
     @Override
     public void clear() {
@@ -131,12 +251,128 @@ public class RedisCacheRepository implements Cache {
             log.warn("not enabled , stop clear......");
             return;
         }
-        final Set<String> keys = redisTemplate.keys(getUkPrefix("*"));
-        if (keys == null || keys.isEmpty()) {
-            log.warn("keys is null,return......");
+        if (generation) {
+            final long previous = nextGeneration();
+            submitClear(getBasePrefix() + "g" + previous + "_*");
+            return;
+        }
+        if (clearAsync) {
+            submitClear(getUkPrefix("*"));
+        } else {
+            scanAndUnlink(getUkPrefix("*"));
+        }
+    }
+
+    /**
+     * 立即清空，返回时当前 key 已全部删除（代数模式下已切换代数）
+     */
+    @Override
+    public boolean invalidate() {
+        if (!enabled) {
+            return false;
+        }
+        if (generation) {
+            final long previous = nextGeneration();
+            submitClear(getBasePrefix() + "g" + previous + "_*");
+        } else {
+            scanAndUnlink(getUkPrefix("*"));
+        }
+        return true;
+    }
+
+    private void submitClear(String pattern) {
+        if (refreshExecutor == null) {
+            scanAndUnlink(pattern);
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> scanAndUnlink(pattern));
+        } catch (RejectedExecutionException e) {
+            scanAndUnlink(pattern);
+        }
+    }
+
+    /**
+     * SCAN 分批遍历，每批 UNLINK 通过 pipeline 发送；同一匹配规则的清空在等待期间合并为一轮，
+     * 等待的请求在其登记之后开始的那一轮结束后返回
+     *
+     * @param pattern 匹配规则
+     */
+    private void scanAndUnlink(String pattern) {
+        clearPending.add(pattern);
+        synchronized (clearProgress) {
+            if (!clearPending.remove(pattern)) {
+                return;
+            }
+            clearProgress.start();
+            try {
+                final ScanOptions options = ScanOptions.scanOptions().match(pattern)
+                        .count(clearScanCount > 0 ? clearScanCount : DEFAULT_SCAN_COUNT).build();
+                redisTemplate.execute((RedisCallback<Void>) connection -> {
+                    final List<byte[]> batch = new ArrayList<>(UNLINK_BATCH * 10);
+                    try (Cursor<byte[]> cursor = connection.scan(options)) {
+                        while (cursor.hasNext()) {
+                            batch.add(cursor.next());
+                            clearProgress.scanned();
+                            if (batch.size() >= UNLINK_BATCH * 10) {
+                                unlink(batch);
+                            }
+                        }
+                    }
+                    unlink(batch);
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                log.error("redis cache clear error name:{},pattern:{},progress:{}", name, pattern, clearProgress, e);
+            } finally {
+                clearProgress.finish();
+            }
+            log.info("redis cache clear name:{},pattern:{},progress:{}", name, pattern, clearProgress);
+        }
+    }
+
+    private void unlink(List<byte[]> batch) {
+        if (batch.isEmpty()) {
             return;
         }
-        redisTemplate.delete(keys);
+        final byte[][] keys = batch.toArray(new byte[0][]);
+        batch.clear();
+        // 扫描使用的连接不能开启 pipeline，删除使用另一个连接
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < keys.length; i += UNLINK_BATCH) {
+                connection.unlink(Arrays.copyOfRange(keys, i, Math.min(i + UNLINK_BATCH, keys.length)));
+            }
+            return null;
+        });
+        clearProgress.deleted(keys.length);
+    }
+
+    /**
+     * 代数加一
+     *
+     * @return 原代数
+     */
+    private long nextGeneration() {
+        final Long next = redisTemplate.execute((RedisCallback<Long>) connection -> connection.incr(generationKey()));
+        final long value = next == null ? 0 : next;
+        generationHolder.set(new long[]{value, System.currentTimeMillis()});
+        return value - 1;
+    }
+
+    private long currentGeneration() {
+        final long now = System.currentTimeMillis();
+        final long[] cached = generationHolder.get();
+        if (cached != null && now - cached[1] < generationCacheMillis) {
+            return cached[0];
+        }
+        final byte[] bytes = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.get(generationKey()));
+        final long value = bytes == null ? 0 : Long.parseLong(new String(bytes, StandardCharsets.UTF_8));
+        generationHolder.set(new long[]{value, now});
+        return value;
+    }
+
+    private byte[] generationKey() {
+        return (keyPrefix + "_fn_" + name + GENERATION_SUFFIX).getBytes();
     }
 
     /**
@@ -154,16 +390,22 @@ public class RedisCacheRepository implements Cache {
         }
         Object object = null;
         try {
-            ValueOperations<String, Object> valueOperations = redisTemplate.opsForValue();
-            object = valueOperations.get(getUkPrefix(key.toString()));
+            final ValueWrapper wrapper = get(key);
+            object = wrapper == null ? null : wrapper.get();
         } catch (Exception e) {
             log.error("redis cache get object error key:{},type:{},error:{}", key, type, e);
         }
+        if (object != null && type != null && !type.isInstance(object)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + object);
+        }
         return isEmpty(object) ? null : (T) object;
     }
 
     /**
-     * 从缓存获取参数
+     * 从缓存获取参数，未命中时加载并写入缓存
+     * <p>
+     * 同一个 key 本节点只有一个线程回源，开启 loadLock 时通过 Redis 短锁保证多个节点只有一个回源；
+     * 命中但即将过期时按 XFetch 概率提前异步刷新；加载结果为 null 时按 nullTimeout 缓存空值
      *
      * @param key         key
      * @param valueLoader valueLoader
@@ -173,15 +415,168 @@ public class RedisCacheRepository implements Cache {
     @Override
     public <T> T get(@NonNull Object key, @NonNull Callable<T> valueLoader) {
         if (!enabled) {
-            return null;
+            return call(key, valueLoader);
         }
-        Object object = null;
+        final String ukPrefix = getUkPrefix(key.toString());
+        final boolean earlyRefresh = earlyRefreshBeta > 0 && refreshExecutor != null;
+        final byte[] cacheKey = ukPrefix.getBytes();
+        final List<Object> entry = earlyRefresh ? redisTemplate.execute((RedisCallback<List<Object>>) connection -> {
+            connection.openPipeline();
+            connection.get(cacheKey);
+            connection.pTtl(cacheKey);
+            return connection.closePipeline();
+        }) : null;
+        final byte[] stored = earlyRefresh ? (entry == null || entry.isEmpty() ? null : (byte[]) entry.get(0))
+                : redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.get(cacheKey));
+        final Object value = stored == null ? null : toObject(ukPrefix, stored);
+        if (value == null) {
+            return (T) load(key, ukPrefix, valueLoader);
+        }
+        if (entry != null && entry.size() > 1 && entry.get(1) instanceof Long && shouldRefresh((Long) entry.get(1))) {
+            refresh(key, ukPrefix, valueLoader);
+        }
+        return value instanceof NullValue ? null : (T) value;
+    }
+
+    /**
+     * 本节点单飞加载
+     */
+    private Object load(Object key, String ukPrefix, Callable<?> valueLoader) {
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        final CompletableFuture<Object> existing = loading.putIfAbsent(ukPrefix, future);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                final Throwable cause = e.getCause();
+                throw cause instanceof ValueRetrievalException ? (ValueRetrievalException) cause
+                        : new ValueRetrievalException(key, valueLoader, cause);
+            }
+        }
+        try {
+            final Object value = loadAndStore(key, ukPrefix, valueLoader, true);
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(ukPrefix, future);
+        }
+    }
+
+    /**
+     * 异步刷新，本节点或其它节点已在刷新时跳过
+     */
+    private void refresh(Object key, String ukPrefix, Callable<?> valueLoader) {
+        if (loading.containsKey(ukPrefix) || !refreshing.add(ukPrefix)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    loadAndStore(key, ukPrefix, valueLoader, false);
+                } catch (RuntimeException e) {
+                    log.warn("redis cache refresh error key:{},error:{}", ukPrefix, e.getMessage());
+                } finally {
+                    refreshing.remove(ukPrefix);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(ukPrefix);
+        }
+    }
+
+    /**
+     * 回源并写入缓存
+     *
+     * @param wait 未获取到 Redis 短锁时是否等待其它节点的结果，为 false 时直接放弃
+     * @return 加载结果，放弃时返回 null
+     */
+    private Object loadAndStore(Object key, String ukPrefix, Callable<?> valueLoader, boolean wait) {
+        if (!loadLock) {
+            return callAndPut(key, valueLoader);
+        }
+        final byte[] lockKey = (ukPrefix + LOCK_SUFFIX).getBytes();
+        final byte[] token = IdUtil.fastSimpleUUID().getBytes();
+        final Boolean locked = redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.set(lockKey, token,
+                Expiration.milliseconds(lockTimeout()), RedisStringCommands.SetOption.SET_IF_ABSENT));
+        if (!Boolean.TRUE.equals(locked)) {
+            if (!wait) {
+                return null;
+            }
+            final ValueWrapper wrapper = await(ukPrefix);
+            // 持有锁的节点超时未写入，自己加载
+            return wrapper != null ? wrapper.get() : callAndPut(key, valueLoader);
+        }
+        try {
+            if (wait) {
+                // 获取锁之前其它节点可能刚写入
+                final ValueWrapper wrapper = get(ukPrefix);
+                if (wrapper != null) {
+                    return wrapper.get();
+                }
+            }
+            return callAndPut(key, valueLoader);
+        } finally {
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.eval(UNLOCK_SCRIPT, ReturnType.INTEGER, 1, lockKey, token));
+        }
+    }
+
+    /**
+     * 等待持有锁的节点写入缓存
+     */
+    private ValueWrapper await(String ukPrefix) {
+        final long deadline = System.currentTimeMillis() + lockTimeout();
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(LOCK_POLL_INTERVAL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            final ValueWrapper wrapper = get(ukPrefix);
+            if (wrapper != null) {
+                return wrapper;
+            }
+        }
+        return null;
+    }
+
+    private long lockTimeout() {
+        return loadLockTimeout > 0 ? loadLockTimeout : DEFAULT_LOCK_TIMEOUT;
+    }
+
+    private Object callAndPut(Object key, Callable<?> valueLoader) {
+        final long start = System.nanoTime();
+        final Object value = call(key, valueLoader);
+        final long elapsed = System.nanoTime() - start;
+        // 指数加权平均，新值占 1/8
+        loadNanos.getAndUpdate(avg -> avg == 0 ? elapsed : avg + ((elapsed - avg) >> 3));
+        put(key, value);
+        return value;
+    }
+
+    private static <T> T call(Object key, Callable<T> valueLoader) {
         try {
-            object = get(key, valueLoader.call().getClass());
+            return valueLoader.call();
         } catch (Exception e) {
-            log.error("redis cache get object error key:{},valueLoader:{},error:{}", key, valueLoader, e);
+            throw new ValueRetrievalException(key, valueLoader, e);
         }
-        return (T) object;
+    }
+
+    /**
+     * XFetch：剩余时间 - 回源耗时 * beta * -ln(rand) <= 0 时刷新，越接近过期、回源越慢，刷新概率越高
+     *
+     * @param ttl 剩余存活时间（毫秒）
+     */
+    private boolean shouldRefresh(long ttl) {
+        final long avg = loadNanos.get();
+        if (ttl <= 0 || avg <= 0) {
+            return false;
+        }
+        final double gap = TimeUnit.NANOSECONDS.toMillis(avg) * earlyRefreshBeta * -Math.log(1 - ThreadLocalRandom.current().nextDouble());
+        return ttl - gap <= 0;
     }
 
     /**
@@ -205,7 +600,15 @@ public class RedisCacheRepository implements Cache {
      * 保证生成的key唯一前缀
      */
     private String getUkPrefix(String key) {
-        return key.startsWith(keyPrefix + "_fn_" + name + "_") ? key : (keyPrefix + "_fn_" + name + "_" + key);
+        final String basePrefix = getBasePrefix();
+        if (key.startsWith(basePrefix)) {
+            return key;
+        }
+        return generation ? basePrefix + "g" + currentGeneration() + "_" + key : basePrefix + key;
+    }
+
+    private String getBasePrefix() {
+        return keyPrefix + "_fn_" + name + "_";
     }
 
     /**
@@ -215,6 +618,13 @@ public class RedisCacheRepository implements Cache {
         return obj == null || StrUtil.isBlank(obj.toString());
     }
 
+    private CacheSerializer serializer() {
+        if (serializer == null) {
+            serializer = CacheSerializer.jdk();
+        }
+        return serializer;
+    }
+
     /**
      * 对象转换字节流
      *
@@ -222,39 +632,28 @@ public class RedisCacheRepository implements Cache {
      * @return bytes
      */
     private byte[] toByteArray(Object obj) {
-        byte[] bytes = null;
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
         try {
-            ObjectOutputStream oos = new ObjectOutputStream(bos);
-            oos.writeObject(obj);
-            oos.flush();
-            bytes = bos.toByteArray();
-            oos.close();
-            bos.close();
-        } catch (IOException ex) {
+            return serializer().serialize(obj);
+        } catch (Exception ex) {
             log.error("redis cache convent object to byteArray error object:{},error：", obj, ex);
         }
-        return bytes;
+        return null;
     }
 
     /**
-     * 字节流转换对象
+     * 字节流转换对象，无法解析时按未命中处理，不删除 key（滚动发布时可能是其它节点写入的新格式或未知编解码）
      *
+     * @param key   key
      * @param bytes bytes
      * @return obj
      */
-    private Object toObject(byte[] bytes) {
-        Object obj = null;
+    private Object toObject(String key, byte[] bytes) {
         try {
-            ByteArrayInputStream bis = new ByteArrayInputStream(bytes);
-            ObjectInputStream ois = new ObjectInputStream(bis);
-            obj = ois.readObject();
-            ois.close();
-            bis.close();
-        } catch (IOException | ClassNotFoundException ex) {
-            log.error("redis cache convent byteArray to object error bytes:{},error：", bytes, ex);
-        }
-        return obj;
+            return serializer().deserialize(bytes);
+        } catch (Exception ex) {
+            log.warn("redis cache convent byteArray to object error key:{}, treat as miss, error:{}", key, ex.getMessage());
+        }
+        return null;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,307 @@
+package com.soybean.framework.redis.plus.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.soybean.framework.redis.plus.cache.codec.CacheSerializer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 二级缓存：Caffeine 本地缓存 + {@link RedisCacheRepository}
+ * <p>
+ * 读取先查本地，未命中再查 Redis 并回填本地；写入、删除、清空时通过 {@link CacheInvalidationPublisher} 通知其它节点删除本地缓存。
+ * 本地缓存只直接保存不可变的值（字符串、包装类型、枚举、java.time 等），其它值保存序列化后的字节，每次读取返回新的副本，
+ * 调用方修改返回值不会影响缓存。
+ * 删除、清空（包括其它节点的通知）时递增版本号，从 Redis 读取期间版本号发生变化则不回填本地，避免旧值在失效后又被放回
+ *
+ * @author wenxina
+ */
+@Slf4j
+public class TwoLevelCache implements Cache, MeterBinder {
+
+    private static final Set<Class<?>> IMMUTABLE_TYPES = Set.of(String.class, Boolean.class, Character.class, Byte.class,
+            Short.class, Integer.class, Long.class, Float.class, Double.class, BigDecimal.class, BigInteger.class, UUID.class);
+    private static final String JAVA_TIME_PACKAGE = "java.time";
+
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    @Getter
+    private final RedisCacheRepository remote;
+    private final CacheInvalidationPublisher publisher;
+    private final CacheSerializer serializer;
+
+    /**
+     * 本地失效版本号
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+
+    public TwoLevelCache(RedisCacheRepository remote, long maximumSize, Duration timeout, CacheInvalidationPublisher publisher) {
+        this.remote = remote;
+        this.publisher = publisher;
+        this.serializer = remote.getSerializer() == null ? CacheSerializer.jdk() : remote.getSerializer();
+        this.local = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(timeout).build();
+    }
+
+    @Override
+    @NonNull
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    @NonNull
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    public ValueWrapper get(@NonNull Object key) {
+        final String localKey = key.toString();
+        final Object value = getLocal(localKey);
+        if (value != null) {
+            localHits.increment();
+            return new SimpleValueWrapper(value);
+        }
+        final long current = version.get();
+        final ValueWrapper wrapper = remote.get(key);
+        record(wrapper == null ? null : wrapper.get(), localKey, current);
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(@NonNull Object key, Class<T> type) {
+        final String localKey = key.toString();
+        final Object value = getLocal(localKey);
+        if (value != null && (type == null || type.isInstance(value))) {
+            localHits.increment();
+            return (T) value;
+        }
+        final long current = version.get();
+        final T remoteValue = remote.get(key, type);
+        record(remoteValue, localKey, current);
+        return remoteValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(@NonNull Object key, @NonNull Callable<T> valueLoader) {
+        final String localKey = key.toString();
+        final Object value = getLocal(localKey);
+        if (value != null) {
+            localHits.increment();
+            return (T) value;
+        }
+        final long current = version.get();
+        final T remoteValue = remote.get(key, valueLoader);
+        fillLocal(localKey, remoteValue, current);
+        return remoteValue;
+    }
+
+    @Override
+    public void put(@NonNull Object key, @Nullable Object value) {
+        remote.put(key, value);
+        putLocal(key.toString(), value);
+        publisher.publish(getName(), key.toString());
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(@NonNull Object key, @Nullable Object value) {
+        final ValueWrapper existing = get(key);
+        if (existing == null) {
+            put(key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(@NonNull Object key) {
+        remote.evict(key);
+        final String localKey = key.toString();
+        version.incrementAndGet();
+        local.invalidate(localKey);
+        publisher.publish(getName(), localKey);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        version.incrementAndGet();
+        local.invalidateAll();
+        publisher.publish(getName(), null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        final boolean invalidated = remote.invalidate();
+        version.incrementAndGet();
+        local.invalidateAll();
+        publisher.publish(getName(), null);
+        return invalidated;
+    }
+
+    /**
+     * 其它节点变更后删除本地缓存
+     *
+     * @param key 为 null 时清空
+     */
+    void invalidateLocal(@Nullable String key) {
+        version.incrementAndGet();
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+
+    /**
+     * 各级命中情况
+     *
+     * @return 统计
+     */
+    public Statistics getStatistics() {
+        return new Statistics(getName(), local.estimatedSize(), localHits.sum(), remoteHits.sum(), remoteMisses.sum());
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        final Tags tags = Tags.of("cache", getName());
+        Gauge.builder("cache.local.size", local, com.github.benmanes.caffeine.cache.Cache::estimatedSize).tags(tags)
+                .description("本地缓存条数").register(registry);
+        FunctionCounter.builder("cache.local.hits", localHits, LongAdder::sum).tags(tags).description("本地缓存命中数").register(registry);
+        FunctionCounter.builder("cache.remote.hits", remoteHits, LongAdder::sum).tags(tags).description("Redis 缓存命中数").register(registry);
+        FunctionCounter.builder("cache.remote.misses", remoteMisses, LongAdder::sum).tags(tags).description("Redis 缓存未命中数").register(registry);
+    }
+
+    private void record(@Nullable Object value, String localKey, long readVersion) {
+        if (value == null) {
+            remoteMisses.increment();
+            return;
+        }
+        remoteHits.increment();
+        fillLocal(localKey, value, readVersion);
+    }
+
+    /**
+     * 用 Redis 读取的值回填本地，读取期间发生过失效时跳过
+     *
+     * @param readVersion 开始读取时的版本号
+     */
+    private void fillLocal(String localKey, @Nullable Object value, long readVersion) {
+        if (version.get() != readVersion) {
+            return;
+        }
+        putLocal(localKey, value);
+        // 回填的同时发生了失效
+        if (version.get() != readVersion) {
+            local.invalidate(localKey);
+        }
+    }
+
+    /**
+     * 读取本地缓存，序列化保存的值解码为新的副本
+     */
+    @Nullable
+    private Object getLocal(String localKey) {
+        final Object stored = local.getIfPresent(localKey);
+        if (!(stored instanceof LocalBytes)) {
+            return stored;
+        }
+        try {
+            return serializer.deserialize(((LocalBytes) stored).bytes);
+        } catch (Exception e) {
+            log.warn("two level cache decode error, cache:{}, key:{}, error:{}", getName(), localKey, e.getMessage());
+            local.invalidate(localKey);
+            return null;
+        }
+    }
+
+    private void putLocal(String localKey, @Nullable Object value) {
+        if (value == null) {
+            local.invalidate(localKey);
+            return;
+        }
+        if (isImmutable(value)) {
+            local.put(localKey, value);
+            return;
+        }
+        try {
+            local.put(localKey, new LocalBytes(serializer.serialize(value)));
+        } catch (Exception e) {
+            // 无法序列化的值不放入本地缓存
+            local.invalidate(localKey);
+            log.debug("two level cache encode error, cache:{}, key:{}, error:{}", getName(), localKey, e.getMessage());
+        }
+    }
+
+    private static boolean isImmutable(Object value) {
+        final Class<?> type = value.getClass();
+        return IMMUTABLE_TYPES.contains(type) || value instanceof Enum
+                || (type.getPackage() != null && JAVA_TIME_PACKAGE.equals(type.getPackage().getName()));
+    }
+
+    private static final class LocalBytes {
+
+        private final byte[] bytes;
+
+        private LocalBytes(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * 二级缓存统计，本地未命中数即 remoteHits + remoteMisses
+     */
+    @Getter
+    public static class Statistics {
+
+        private final String name;
+        private final long localSize;
+        private final long localHits;
+        private final long remoteHits;
+        private final long remoteMisses;
+
+        Statistics(String name, long localSize, long localHits, long remoteHits, long remoteMisses) {
+            this.name = name;
+            this.localSize = localSize;
+            this.localHits = localHits;
+            this.remoteHits = remoteHits;
+            this.remoteMisses = remoteMisses;
+        }
+
+        public double getLocalHitRatio() {
+            final long requests = localHits + remoteHits + remoteMisses;
+            return requests == 0 ? 0 : (double) localHits / requests;
+        }
+
+        public double getRemoteHitRatio() {
+            final long requests = remoteHits + remoteMisses;
+            return requests == 0 ? 0 : (double) remoteHits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s[localSize=%d, localHitRatio=%.4f, remoteHitRatio=%.4f]", name, localSize, getLocalHitRatio(), getRemoteHitRatio());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.soybean.framework.redis.plus.cache.codec;
+
+/**
+ * 缓存值编解码 SPI
+ * <p>
+ * 自定义实现注册为 Spring Bean 即可替换默认编解码，{@link #id()} 写入每个缓存值的头部，用于读取时选择编解码，不同实现不能重复
+ *
+ * @author wenxina
+ */
+public interface CacheCodec {
+
+    /**
+     * 编解码标识（1 ~ 127），1 ~ 9 为内置实现保留
+     *
+     * @return 标识
+     */
+    byte id();
+
+    /**
+     * 编码
+     *
+     * @param value 缓存值
+     * @return 字节
+     * @throws Exception 编码失败
+     */
+    byte[] encode(Object value) throws Exception;
+
+    /**
+     * 解码
+     *
+     * @param bytes 字节
+     * @return 缓存值
+     * @throws Exception 解码失败
+     */
+    Object decode(byte[] bytes) throws Exception;
+
+}
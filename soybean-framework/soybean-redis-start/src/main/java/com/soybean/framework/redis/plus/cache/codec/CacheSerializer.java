@@ -0,0 +1,133 @@
+package com.soybean.framework.redis.plus.cache.codec;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 缓存值的统一读写格式
+ * <p>
+ * 第一个字节：低 7 位为 {@link CacheCodec#id()}，最高位表示是否压缩；之后为编码后的内容。
+ * 没有头部的旧数据（JDK 序列化，以 0xACED 开头）按 {@link JdkCacheCodec} 读取
+ *
+ * @author wenxina
+ */
+@Slf4j
+public class CacheSerializer {
+
+    private static final int COMPRESSED = 0x80;
+    private static final int CODEC_MASK = 0x7F;
+    private static final byte JDK_STREAM_MAGIC_0 = (byte) 0xAC;
+    private static final byte JDK_STREAM_MAGIC_1 = (byte) 0xED;
+
+    private final CacheCodec codec;
+    private final CacheCodec fallback = new JdkCacheCodec();
+    private final Map<Byte, CacheCodec> codecs = new HashMap<>();
+    private final int compressThreshold;
+
+    /**
+     * @param codec             写入使用的编解码
+     * @param codecs            读取时可识别的编解码
+     * @param compressThreshold 超过该字节数时压缩，小于等于 0 不压缩
+     */
+    public CacheSerializer(CacheCodec codec, List<CacheCodec> codecs, int compressThreshold) {
+        this.codec = codec;
+        this.compressThreshold = compressThreshold;
+        this.codecs.put(fallback.id(), fallback);
+        codecs.forEach(item -> this.codecs.put(item.id(), item));
+        this.codecs.put(codec.id(), codec);
+    }
+
+    /**
+     * 默认 JDK 序列化且不压缩
+     *
+     * @return 序列化
+     */
+    public static CacheSerializer jdk() {
+        return new CacheSerializer(new JdkCacheCodec(), List.of(), 0);
+    }
+
+    public byte[] serialize(Object value) throws Exception {
+        CacheCodec writer = codec;
+        byte[] body;
+        try {
+            body = writer.encode(value);
+        } catch (Exception e) {
+            // 当前编解码不支持的类型退回 JDK 序列化
+            log.warn("cache codec {} encode error, fallback to jdk, type:{}, error:{}", codec.getClass().getSimpleName(),
+                    value == null ? null : value.getClass().getName(), e.getMessage());
+            writer = fallback;
+            body = writer.encode(value);
+        }
+        int header = writer.id();
+        if (compressThreshold > 0 && body.length > compressThreshold) {
+            body = compress(body);
+            header |= COMPRESSED;
+        }
+        byte[] bytes = new byte[body.length + 1];
+        bytes[0] = (byte) header;
+        System.arraycopy(body, 0, bytes, 1, body.length);
+        return bytes;
+    }
+
+    public Object deserialize(byte[] bytes) throws Exception {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes.length > 1 && bytes[0] == JDK_STREAM_MAGIC_0 && bytes[1] == JDK_STREAM_MAGIC_1) {
+            return fallback.decode(bytes);
+        }
+        final int header = bytes[0] & 0xFF;
+        final CacheCodec reader = codecs.get((byte) (header & CODEC_MASK));
+        if (reader == null) {
+            throw new IllegalStateException("unknown cache codec id " + (header & CODEC_MASK));
+        }
+        byte[] body = new byte[bytes.length - 1];
+        System.arraycopy(bytes, 1, body, 0, body.length);
+        if ((header & COMPRESSED) != 0) {
+            body = decompress(body);
+        }
+        return reader.decode(body);
+    }
+
+    private static byte[] compress(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(bytes.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                bos.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return bos.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] decompress(byte[] bytes) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes);
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(bytes.length * 3);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                final int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("truncated cache value");
+                }
+                bos.write(buffer, 0, count);
+            }
+            return bos.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
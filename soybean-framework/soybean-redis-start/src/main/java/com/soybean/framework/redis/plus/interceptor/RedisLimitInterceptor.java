@@ -1,28 +1,20 @@
 package com.soybean.framework.redis.plus.interceptor;
 
-import cn.hutool.crypto.digest.MD5;
-import com.alibaba.fastjson.JSONObject;
+import com.soybean.framework.commons.util.SpelExpressionHelper;
 import com.soybean.framework.redis.plus.RedisLimitHelper;
 import com.soybean.framework.redis.plus.anontation.RedisLimit;
+import com.soybean.framework.redis.plus.key.MethodKeyGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.springframework.core.LocalVariableTableParameterNameDiscoverer;
 import org.springframework.core.annotation.AnnotationUtils;
-import org.springframework.expression.EvaluationContext;
-import org.springframework.expression.ExpressionParser;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.util.ObjectUtils;
 
 import java.lang.reflect.Method;
-import java.util.LinkedHashMap;
-import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -36,9 +28,8 @@ import java.util.Objects;
 public class RedisLimitInterceptor {
 
     private final RedisLimitHelper redisLimitHelper;
+    private final MethodKeyGenerator methodKeyGenerator;
 
-    private final ExpressionParser parser = new SpelExpressionParser();
-    private final LocalVariableTableParameterNameDiscoverer discoverer = new LocalVariableTableParameterNameDiscoverer();
 
     @Pointcut("@annotation(com.soybean.framework.redis.plus.anontation.RedisLimit)")
     public void redissonRateAspectPointcut() {
@@ -89,14 +80,9 @@ public class RedisLimitInterceptor {
         if (!useArgs) {
             return parseDefaultKey(key, false, method, point);
         }
-        String[] params = discoverer.getParameterNames(method);
         //指定spel表达式，并且有适配参数时
-        if (Objects.nonNull(params) && Objects.nonNull(key)) {
-            EvaluationContext context = new StandardEvaluationContext();
-            for (int i = 0; i < params.length; i++) {
-                context.setVariable(params[i], args[i]);
-            }
-            return parser.parseExpression(key).getValue(context, String.class);
+        if (SpelExpressionHelper.getParameterNames(method).length > 0 && Objects.nonNull(key)) {
+            return SpelExpressionHelper.getValue(method, key, args, String.class);
         } else {
             return parseDefaultKey(key, true, method, point);
         }
@@ -113,23 +99,7 @@ public class RedisLimitInterceptor {
      * @return parseDefaultKey
      */
     private String parseDefaultKey(String key, boolean useArgs, Method method, ProceedingJoinPoint point) {
-        //保证key有序
-        Map<String, Object> keyMap = new LinkedHashMap<>();
-        //放入target的名字
-        keyMap.put("target", point.getTarget().getClass().toGenericString());
-        //放入method的名字
-        keyMap.put("method", method.getName());
-        Object[] params = point.getArgs();
-        //把所有参数放进去
-        if (useArgs && Objects.nonNull(params)) {
-            for (int i = 0; i < params.length; i++) {
-                keyMap.put("params-" + i, params[i]);
-            }
-        }
-        //key表达式
-        key = StringUtils.isEmpty(key) ? "" : "_" + key;
-        //使用MD5生成位移key
-        return MD5.create().digestHex(JSONObject.toJSON(keyMap).toString() + key).toUpperCase();
+        return methodKeyGenerator.generate(point.getTarget().getClass(), method, useArgs ? point.getArgs() : null, key);
     }
 
 
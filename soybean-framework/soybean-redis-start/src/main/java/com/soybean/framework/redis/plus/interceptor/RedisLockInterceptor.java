@@ -2,13 +2,12 @@ package com.soybean.framework.redis.plus.interceptor;
 
 
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.crypto.digest.MD5;
-import com.alibaba.fastjson.JSON;
-import com.google.common.collect.Maps;
 import com.soybean.framework.commons.exception.CheckedException;
 import com.soybean.framework.commons.exception.RedisLockException;
+import com.soybean.framework.commons.util.SpelExpressionHelper;
 import com.soybean.framework.redis.plus.RedisKeyGenerator;
 import com.soybean.framework.redis.plus.anontation.RedisLock;
+import com.soybean.framework.redis.plus.key.MethodKeyGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -21,16 +20,9 @@ import org.redisson.RedissonMultiLock;
 import org.redisson.RedissonRedLock;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
-import org.springframework.core.LocalVariableTableParameterNameDiscoverer;
-import org.springframework.expression.EvaluationContext;
-import org.springframework.expression.ExpressionParser;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.util.ObjectUtils;
 
 import java.lang.reflect.Method;
-import java.util.Map;
-import java.util.Objects;
 
 
 /**
@@ -43,10 +35,7 @@ public class RedisLockInterceptor {
 
     private final RedissonClient redissonClient;
     private final RedisKeyGenerator redisKeyGenerator;
-
-    private final ExpressionParser parser = new SpelExpressionParser();
-
-    private final LocalVariableTableParameterNameDiscoverer discoverer = new LocalVariableTableParameterNameDiscoverer();
+    private final MethodKeyGenerator methodKeyGenerator;
 
 
     @SneakyThrows
@@ -96,14 +85,9 @@ public class RedisLockInterceptor {
      * @return String
      */
     private String parse(String key, Method method, Object[] args, ProceedingJoinPoint point) {
-        String[] params = discoverer.getParameterNames(method);
         //指定 SPEL 表达式，并且有适配参数时
-        if (!ObjectUtils.isEmpty(params) && StringUtils.isNotEmpty(key)) {
-            EvaluationContext context = new StandardEvaluationContext();
-            for (int i = 0; i < params.length; i++) {
-                context.setVariable(params[i], args[i]);
-            }
-            return parser.parseExpression(key).getValue(context, String.class);
+        if (!ObjectUtils.isEmpty(SpelExpressionHelper.getParameterNames(method)) && StringUtils.isNotEmpty(key)) {
+            return SpelExpressionHelper.getValue(method, key, args, String.class);
         } else {
             return parseDefaultKey(key, method, point.getArgs(), point);
         }
@@ -121,24 +105,7 @@ public class RedisLockInterceptor {
      * @return String
      */
     private String parseDefaultKey(String key, Method method, Object[] args, ProceedingJoinPoint point) {
-        //保证key有序
-        Map<String, Object> keyMap = Maps.newLinkedHashMap();
-        //放入target的名字
-        keyMap.put("target", point.getTarget().getClass().toGenericString());
-        //放入method的名字
-        keyMap.put("method", method.getName());
-        //把所有参数放进去
-        Object[] params = point.getArgs();
-        if (Objects.nonNull(params)) {
-            for (int i = 0; i < params.length; i++) {
-                keyMap.put("params-" + i, params[i]);
-            }
-        }
-        //key表达式
-        key = Objects.isNull(key) ? "" : "_" + key;
-        final String jsonText = JSON.toJSONString(keyMap) + key;
-        //使用MD5生成位移key
-        return MD5.create().digestHex(jsonText);
+        return methodKeyGenerator.generate(point.getTarget().getClass(), method, args, key);
     }
 
 
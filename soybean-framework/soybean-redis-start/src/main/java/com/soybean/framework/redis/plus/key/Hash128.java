@@ -0,0 +1,128 @@
+package com.soybean.framework.redis.plus.key;
+
+/**
+ * 流式 128 位非加密哈希，按 64 位字输入，混合函数与 MurmurHash3 x64_128 相同
+ * <p>
+ * 非线程安全，由 {@link MethodKeyGenerator} 按线程复用
+ *
+ * @author wenxina
+ */
+final class Hash128 {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private long h1;
+    private long h2;
+    private long pending;
+    private boolean hasPending;
+    private long length;
+
+    Hash128 reset(long seed1, long seed2) {
+        this.h1 = seed1;
+        this.h2 = seed2;
+        this.pending = 0;
+        this.hasPending = false;
+        this.length = 0;
+        return this;
+    }
+
+    Hash128 putLong(long value) {
+        length += 8;
+        if (!hasPending) {
+            pending = value;
+            hasPending = true;
+        } else {
+            block(pending, value);
+            hasPending = false;
+        }
+        return this;
+    }
+
+    Hash128 putChars(CharSequence value) {
+        final int len = value.length();
+        putLong(len);
+        int i = 0;
+        for (; i + 4 <= len; i += 4) {
+            putLong((long) value.charAt(i) | (long) value.charAt(i + 1) << 16
+                    | (long) value.charAt(i + 2) << 32 | (long) value.charAt(i + 3) << 48);
+        }
+        if (i < len) {
+            long tail = 0;
+            for (int shift = 0; i < len; i++, shift += 16) {
+                tail |= (long) value.charAt(i) << shift;
+            }
+            putLong(tail);
+        }
+        return this;
+    }
+
+    /**
+     * 结束并输出 32 位十六进制
+     */
+    String toHex() {
+        finish();
+        final char[] chars = new char[32];
+        write(chars, 0, h1);
+        write(chars, 16, h2);
+        return new String(chars);
+    }
+
+    long[] toLongs() {
+        finish();
+        return new long[]{h1, h2};
+    }
+
+    private void finish() {
+        if (hasPending) {
+            long k1 = pending * C1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= C2;
+            h1 ^= k1;
+            hasPending = false;
+        }
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+    }
+
+    private void block(long k1, long k2) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        h1 ^= k1;
+        h1 = Long.rotateLeft(h1, 27);
+        h1 += h2;
+        h1 = h1 * 5 + 0x52dce729;
+
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        h2 ^= k2;
+        h2 = Long.rotateLeft(h2, 31);
+        h2 += h1;
+        h2 = h2 * 5 + 0x38495ab5;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    private static void write(char[] chars, int offset, long value) {
+        for (int i = 15; i >= 0; i--) {
+            chars[offset + i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.soybean.framework.redis.plus.key;
+
+import com.soybean.framework.redis.plus.anontation.RedisParam;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.core.MethodClassKey;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 方法级 Key 生成器
+ * <p>
+ * 每个 (类, 方法) 首次调用时生成模板：类名、方法签名预先哈希为种子，并确定参与计算的参数（带 {@link RedisParam} 的参数，没有则全部参数）；
+ * 之后每次调用只把参数值直接写入 128 位流式哈希，不再拼装 Map、序列化 JSON 与 MD5
+ *
+ * @author wenxina
+ */
+@Slf4j
+public class MethodKeyGenerator implements KeyGenerator {
+
+    private static final int MAX_DEPTH = 8;
+
+    private static final long TAG_NULL = 0x4E554C4CL;
+    private static final long TAG_STRING = 1;
+    private static final long TAG_LONG = 2;
+    private static final long TAG_DOUBLE = 3;
+    private static final long TAG_BOOLEAN = 4;
+    private static final long TAG_CHAR = 5;
+    private static final long TAG_ENUM = 6;
+    private static final long TAG_ARRAY = 7;
+    private static final long TAG_ITERABLE = 8;
+    private static final long TAG_MAP = 9;
+    private static final long TAG_TEXT = 10;
+    private static final long TAG_BEAN = 11;
+    private static final long TAG_END = 12;
+    private static final long TAG_DEPTH = 13;
+    private static final long TAG_SUFFIX = 14;
+    private static final long TAG_SET = 15;
+    private static final long TAG_DATE = 16;
+    private static final long TAG_REF = 17;
+
+    private static final Comparator<long[]> UNORDERED_DIGEST = Comparator.<long[]>comparingLong(digest -> digest[0])
+            .thenComparingLong(digest -> digest[1]);
+
+    private static final ThreadLocal<Hash128> HASHER = ThreadLocal.withInitial(Hash128::new);
+
+    private static final ClassValue<Field[]> FIELDS = new ClassValue<>() {
+        @Override
+        protected Field[] computeValue(@NonNull Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            ReflectionUtils.doWithFields(type, field -> {
+                try {
+                    ReflectionUtils.makeAccessible(field);
+                    fields.add(field);
+                } catch (RuntimeException e) {
+                    log.debug("key generator skip field {}", field);
+                }
+            }, field -> !Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers()));
+            return fields.toArray(new Field[0]);
+        }
+    };
+
+    private final Map<MethodClassKey, Template> templates = new ConcurrentHashMap<>();
+
+    @Override
+    @NonNull
+    public Object generate(@NonNull Object target, @NonNull Method method, @NonNull Object... params) {
+        return generate(target.getClass(), method, params, null);
+    }
+
+    /**
+     * 生成 32 位十六进制 Key
+     *
+     * @param targetClass 目标类
+     * @param method      方法
+     * @param args        参数，为 null 时不参与计算
+     * @param suffix      附加内容，可为空
+     * @return Key
+     */
+    public String generate(Class<?> targetClass, Method method, @Nullable Object[] args, @Nullable String suffix) {
+        final Template template = templates.computeIfAbsent(new MethodClassKey(method, targetClass), key -> new Template(targetClass, method));
+        final Hash128 hasher = HASHER.get().reset(template.seed1, template.seed2);
+        final Visited visited = new Visited();
+        if (args != null) {
+            if (template.indexes == null) {
+                for (Object arg : args) {
+                    putValue(hasher, arg, visited, 0);
+                }
+            } else {
+                for (int index : template.indexes) {
+                    putValue(hasher, index < args.length ? args[index] : null, visited, 0);
+                }
+            }
+        }
+        if (suffix != null && !suffix.isEmpty()) {
+            hasher.putLong(TAG_SUFFIX).putChars(suffix);
+        }
+        return hasher.toHex();
+    }
+
+    private static void putValue(Hash128 hasher, @Nullable Object value, Visited visited, int depth) {
+        if (value == null) {
+            hasher.putLong(TAG_NULL);
+        } else if (value instanceof CharSequence) {
+            hasher.putLong(TAG_STRING).putChars((CharSequence) value);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            hasher.putLong(TAG_LONG).putLong(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            hasher.putLong(TAG_DOUBLE).putLong(Double.doubleToLongBits(((Number) value).doubleValue()));
+        } else if (value instanceof Boolean) {
+            hasher.putLong(TAG_BOOLEAN).putLong((Boolean) value ? 1 : 0);
+        } else if (value instanceof Character) {
+            hasher.putLong(TAG_CHAR).putLong((Character) value);
+        } else if (value instanceof Enum) {
+            hasher.putLong(TAG_ENUM).putChars(((Enum<?>) value).name());
+        } else if (value instanceof Date) {
+            hasher.putLong(TAG_DATE).putLong(((Date) value).getTime());
+        } else if (value instanceof UUID) {
+            hasher.putLong(TAG_TEXT).putLong(((UUID) value).getMostSignificantBits()).putLong(((UUID) value).getLeastSignificantBits());
+        } else if (value instanceof Class) {
+            hasher.putLong(TAG_TEXT).putChars(((Class<?>) value).getName());
+        } else if (depth >= MAX_DEPTH) {
+            hasher.putLong(TAG_DEPTH);
+        } else if (isContainer(value) && isRepeated(hasher, value, visited)) {
+            return;
+        } else if (value.getClass().isArray()) {
+            putArray(hasher, value, visited, depth);
+        } else if (value instanceof Set && !(value instanceof SortedSet)) {
+            putUnordered(hasher, TAG_SET, (Set<?>) value, false, visited, depth);
+        } else if (value instanceof Iterable) {
+            hasher.putLong(TAG_ITERABLE);
+            for (Object item : (Iterable<?>) value) {
+                putValue(hasher, item, visited, depth + 1);
+            }
+            hasher.putLong(TAG_END);
+        } else if (value instanceof Map && !(value instanceof SortedMap)) {
+            putUnordered(hasher, TAG_MAP, ((Map<?, ?>) value).entrySet(), true, visited, depth);
+        } else if (value instanceof Map) {
+            hasher.putLong(TAG_MAP);
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                putValue(hasher, entry.getKey(), visited, depth + 1);
+                putValue(hasher, entry.getValue(), visited, depth + 1);
+            }
+            hasher.putLong(TAG_END);
+        } else if (value instanceof Number || value instanceof TemporalAccessor || isJdkType(value.getClass())) {
+            hasher.putLong(TAG_TEXT).putChars(value.toString());
+        } else {
+            putBean(hasher, value, visited, depth);
+        }
+    }
+
+    /**
+     * 无序集合（Set、Map）的迭代顺序与插入顺序、容量有关，相等的集合可能顺序不同：
+     * 每个元素单独哈希后按摘要排序再写入，结果与迭代顺序无关
+     */
+    private static void putUnordered(Hash128 hasher, long tag, Collection<?> items, boolean entries, Visited visited, int depth) {
+        final long[][] digests = new long[items.size()][];
+        int count = 0;
+        for (Object item : items) {
+            if (count == digests.length) {
+                break;
+            }
+            final Hash128 itemHasher = new Hash128().reset(0, 0);
+            // 每个元素使用独立的已访问记录，避免元素之间的引用关系受迭代顺序影响
+            final Visited itemVisited = new Visited(visited);
+            if (entries) {
+                putValue(itemHasher, ((Map.Entry<?, ?>) item).getKey(), itemVisited, depth + 1);
+                putValue(itemHasher, ((Map.Entry<?, ?>) item).getValue(), itemVisited, depth + 1);
+            } else {
+                putValue(itemHasher, item, itemVisited, depth + 1);
+            }
+            digests[count++] = itemHasher.toLongs();
+        }
+        Arrays.sort(digests, 0, count, UNORDERED_DIGEST);
+        hasher.putLong(tag).putLong(count);
+        for (int i = 0; i < count; i++) {
+            hasher.putLong(digests[i][0]).putLong(digests[i][1]);
+        }
+        hasher.putLong(TAG_END);
+    }
+
+    private static void putArray(Hash128 hasher, Object array, Visited visited, int depth) {
+        final int length = Array.getLength(array);
+        hasher.putLong(TAG_ARRAY).putLong(length);
+        if (array instanceof Object[]) {
+            for (Object item : (Object[]) array) {
+                putValue(hasher, item, visited, depth + 1);
+            }
+        } else if (array instanceof long[]) {
+            for (long item : (long[]) array) {
+                hasher.putLong(item);
+            }
+        } else if (array instanceof int[]) {
+            for (int item : (int[]) array) {
+                hasher.putLong(item);
+            }
+        } else if (array instanceof byte[]) {
+            for (byte item : (byte[]) array) {
+                hasher.putLong(item);
+            }
+        } else if (array instanceof char[]) {
+            for (char item : (char[]) array) {
+                hasher.putLong(item);
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                putValue(hasher, Array.get(array, i), visited, depth + 1);
+            }
+        }
+    }
+
+    private static void putBean(Hash128 hasher, Object bean, Visited visited, int depth) {
+        hasher.putLong(TAG_BEAN).putChars(bean.getClass().getName());
+        try {
+            for (Field field : FIELDS.get(bean.getClass())) {
+                final Class<?> type = field.getType();
+                if (type == long.class || type == int.class || type == short.class || type == byte.class || type == char.class) {
+                    hasher.putLong(field.getLong(bean));
+                } else if (type == double.class || type == float.class) {
+                    hasher.putLong(Double.doubleToLongBits(field.getDouble(bean)));
+                } else if (type == boolean.class) {
+                    hasher.putLong(field.getBoolean(bean) ? 1 : 0);
+                } else {
+                    putValue(hasher, field.get(bean), visited, depth + 1);
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("key generator read field error " + bean.getClass(), e);
+        }
+        hasher.putLong(TAG_END);
+    }
+
+    private static boolean isContainer(Object value) {
+        return value.getClass().isArray() || value instanceof Iterable || value instanceof Map
+                || !(value instanceof Number || value instanceof TemporalAccessor || isJdkType(value.getClass()));
+    }
+
+    /**
+     * 同一个对象再次出现时（如父子互相引用的实体）只写入引用标记与首次出现的序号，不再展开
+     */
+    private static boolean isRepeated(Hash128 hasher, Object value, Visited visited) {
+        final int index = visited.visit(value);
+        if (index < 0) {
+            return false;
+        }
+        hasher.putLong(TAG_REF).putLong(index);
+        return true;
+    }
+
+    private static boolean isJdkType(Class<?> type) {
+        final String name = type.getName();
+        return name.startsWith("java.") || name.startsWith("javax.");
+    }
+
+    /**
+     * 已展开的对象（按引用），记录首次出现的序号；大多数 Key 只包含简单类型，首次遇到对象时才创建
+     */
+    private static final class Visited {
+
+        private IdentityHashMap<Object, Integer> objects;
+
+        private Visited() {
+        }
+
+        private Visited(Visited parent) {
+            this.objects = parent.objects == null ? null : new IdentityHashMap<>(parent.objects);
+        }
+
+        /**
+         * @return 已出现过时返回首次出现的序号，否则登记并返回 -1
+         */
+        private int visit(Object value) {
+            if (objects == null) {
+                objects = new IdentityHashMap<>();
+            }
+            final Integer index = objects.putIfAbsent(value, objects.size());
+            return index == null ? -1 : index;
+        }
+    }
+
+    /**
+     * 方法模板
+     */
+    private static final class Template {
+
+        private final long seed1;
+        private final long seed2;
+        /**
+         * 参与计算的参数下标，为 null 时全部参数参与
+         */
+        private final int[] indexes;
+
+        private Template(Class<?> targetClass, Method method) {
+            final Hash128 hasher = new Hash128().reset(0, 0).putChars(targetClass.getName()).putChars(method.getName());
+            for (Class<?> type : method.getParameterTypes()) {
+                hasher.putChars(type.getName());
+            }
+            final long[] seed = hasher.toLongs();
+            this.seed1 = seed[0];
+            this.seed2 = seed[1];
+            final Parameter[] parameters = method.getParameters();
+            int count = 0;
+            for (Parameter parameter : parameters) {
+                if (parameter.isAnnotationPresent(RedisParam.class)) {
+                    count++;
+                }
+            }
+            if (count == 0) {
+                this.indexes = null;
+                return;
+            }
+            this.indexes = new int[count];
+            for (int i = 0, j = 0; i < parameters.length; i++) {
+                if (parameters[i].isAnnotationPresent(RedisParam.class)) {
+                    indexes[j++] = i;
+                }
+            }
+        }
+    }
+}
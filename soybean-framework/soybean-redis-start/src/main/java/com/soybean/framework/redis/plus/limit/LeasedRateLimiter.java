@@ -0,0 +1,74 @@
+package com.soybean.framework.redis.plus.limit;
+
+import org.redisson.api.RRateLimiter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 总机限流的本地租约：每次从 Redis 限流器一次性申请一批令牌，在本地消费，用完或租约到期后再申请
+ * <p>
+ * 未用完的令牌在租约到期后作废，因此总放行量不会超过 Redis 限流器的配额，代价是最多少放行每个节点一批
+ *
+ * @author wenxina
+ */
+public class LeasedRateLimiter {
+
+    private final RRateLimiter rateLimiter;
+    private final long batch;
+    private final long leaseNanos;
+    private final AtomicLong remaining = new AtomicLong();
+    private volatile long expiresAt;
+
+    /**
+     * @param rateLimiter Redis 限流器（已设置速率）
+     * @param batch       每次申请的令牌数
+     * @param lease       租约时长
+     * @param unit        单位
+     */
+    public LeasedRateLimiter(RRateLimiter rateLimiter, long batch, long lease, TimeUnit unit) {
+        this.rateLimiter = rateLimiter;
+        this.batch = Math.max(1, batch);
+        this.leaseNanos = Math.max(1, unit.toNanos(lease));
+    }
+
+    /**
+     * 获取一个令牌，本地令牌不足时向 Redis 申请
+     *
+     * @param timeout 向 Redis 申请单个令牌时的最长等待时间
+     * @param unit    单位
+     * @return 是否获取成功
+     */
+    public boolean tryAcquire(long timeout, TimeUnit unit) {
+        if (takeLocal()) {
+            return true;
+        }
+        synchronized (this) {
+            // 其它线程可能已续租
+            if (takeLocal()) {
+                return true;
+            }
+            if (batch > 1 && rateLimiter.tryAcquire(batch)) {
+                remaining.set(batch - 1);
+                expiresAt = System.nanoTime() + leaseNanos;
+                return true;
+            }
+        }
+        // 剩余配额不足一批时退回逐个申请
+        return timeout > 0 ? rateLimiter.tryAcquire(1, timeout, unit) : rateLimiter.tryAcquire();
+    }
+
+    private boolean takeLocal() {
+        if (System.nanoTime() - expiresAt >= 0) {
+            return false;
+        }
+        long current;
+        do {
+            current = remaining.get();
+            if (current <= 0) {
+                return false;
+            }
+        } while (!remaining.compareAndSet(current, current - 1));
+        return true;
+    }
+}
@@ -0,0 +1,61 @@
+package com.soybean.framework.redis.plus.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 单机令牌桶（GCRA 实现），状态只有一个 AtomicLong（理论到达时间），无锁
+ * <p>
+ * 每个周期 permits 个令牌，允许一次性用完（突发上限为 permits）
+ *
+ * @author wenxina
+ */
+public class LocalRateLimiter {
+
+    /**
+     * 单个令牌的间隔（纳秒）
+     */
+    private final long interval;
+    /**
+     * 周期（纳秒）
+     */
+    private final long period;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    public LocalRateLimiter(long permits, long period, TimeUnit unit) {
+        this.period = Math.max(1, unit.toNanos(period));
+        this.interval = Math.max(1, this.period / Math.max(1, permits));
+    }
+
+    /**
+     * 获取一个令牌
+     *
+     * @param timeout 最长等待时间
+     * @param unit    单位
+     * @return 是否获取成功
+     */
+    public boolean tryAcquire(long timeout, TimeUnit unit) {
+        final long maxWait = unit.toNanos(Math.max(0, timeout));
+        while (true) {
+            final long now = System.nanoTime();
+            final long current = theoreticalArrival.get();
+            final long base = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+            final long next = base + interval;
+            // next - now 超过周期说明令牌已用完，需要等待的时间为超出部分
+            final long wait = next - now - period;
+            if (wait > maxWait) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                    if (Thread.interrupted()) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return true;
+            }
+        }
+    }
+}
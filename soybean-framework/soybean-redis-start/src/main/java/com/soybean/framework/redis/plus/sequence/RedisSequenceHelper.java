@@ -3,26 +3,59 @@ package com.soybean.framework.redis.plus.sequence;
 
 import cn.hutool.core.util.StrUtil;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.soybean.framework.redis.plus.RedisPlusProperties;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * 序号生成
+ * <p>
+ * 默认每个序号一次 INCR；开启 segment 时按号段批量预留、本地发放（序号在节点间不连续，重启会跳号）。
+ * 按日期分区的 key 在分区结束后 bucketGraceDays 天自动过期
+ *
  * @author wenxina
  */
 @Slf4j
-@RequiredArgsConstructor
-public class RedisSequenceHelper {
+public class RedisSequenceHelper implements DisposableBean {
 
     private static final DateTimeFormatter YYYYMMDD = DateTimeFormatter.ofPattern("yyyyMMdd");
     private static final DateTimeFormatter YYYYMM = DateTimeFormatter.ofPattern("yyyyMM");
 
     private final StringRedisTemplate redisTemplate;
+    private final RedisPlusProperties.RedisSequenceSwitch properties;
+    private final Cache<String, SegmentAllocator> allocators;
+    private final ThreadPoolExecutor prefetchExecutor;
+
+    public RedisSequenceHelper(StringRedisTemplate redisTemplate) {
+        this(redisTemplate, new RedisPlusProperties.RedisSequenceSwitch());
+    }
+
+    public RedisSequenceHelper(StringRedisTemplate redisTemplate, RedisPlusProperties.RedisSequenceSwitch properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        // 日期分区切换后旧号段不再使用，空闲一段时间后淘汰
+        this.allocators = Caffeine.newBuilder().expireAfterAccess(Duration.ofHours(1)).build();
+        this.prefetchExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(256),
+                new ThreadFactoryBuilder().setNameFormat("redis-sequence-prefetch-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
 
     public String generate(Sequence sequence, KeyRule keyRule, int size) {
         String localDate;
@@ -33,21 +66,63 @@ public class RedisSequenceHelper {
         } else {
             localDate = LocalDate.now().format(YYYYMMDD);
         }
-        Long increment = redisTemplate.opsForValue().increment(StrUtil.join(sequence.key(), localDate));
+        Long increment = increment(StrUtil.join(sequence.key(), localDate), keyRule);
         return StrUtil.join(sequence.prefix(), localDate, StrUtil.padAfter(increment + "", size, '0'));
     }
 
     public String generate6Number(String key) {
         String localDate = LocalDate.now().format(YYYYMMDD);
-        Long increment = redisTemplate.opsForValue().increment(key + localDate);
+        Long increment = increment(key + localDate, KeyRule.YYYY_MM_DD);
         return StrUtil.padAfter(increment + "", 6, '0');
     }
 
     public String generateNumber(String key, int size) {
-        Long increment = redisTemplate.opsForValue().increment(key);
+        Long increment = increment(key, null);
         return StrUtil.padAfter(increment + "", size, '0');
     }
 
+    @Override
+    public void destroy() {
+        prefetchExecutor.shutdownNow();
+    }
+
+    /**
+     * 自增，按日期分区的 key 同时设置过期时间
+     *
+     * @param key     key
+     * @param keyRule 日期分区规则，为 null 时不过期
+     * @return 序号
+     */
+    private Long increment(String key, KeyRule keyRule) {
+        final long expireAt = expireAt(keyRule);
+        if (properties.isSegment()) {
+            return allocators.get(key, k -> new SegmentAllocator(redisTemplate, prefetchExecutor, k,
+                    properties.getStep(), properties.getPrefetchThreshold(), expireAt)).next();
+        }
+        if (expireAt <= 0) {
+            return redisTemplate.opsForValue().increment(key);
+        }
+        final List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            final StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            stringConnection.incr(key);
+            stringConnection.expireAt(key, expireAt);
+            return null;
+        });
+        return ((Number) results.get(0)).longValue();
+    }
+
+    /**
+     * 分区结束后再保留 bucketGraceDays 天
+     */
+    private long expireAt(KeyRule keyRule) {
+        if (keyRule == null || properties.getBucketGraceDays() < 0) {
+            return 0;
+        }
+        final LocalDate today = LocalDate.now();
+        final LocalDate bucketEnd = keyRule == KeyRule.YYYY_MM ? today.withDayOfMonth(1).plusMonths(1) : today.plusDays(1);
+        return bucketEnd.plusDays(properties.getBucketGraceDays()).atStartOfDay(ZoneId.systemDefault()).toEpochSecond();
+    }
+
 
     /**
      * @author wenxina
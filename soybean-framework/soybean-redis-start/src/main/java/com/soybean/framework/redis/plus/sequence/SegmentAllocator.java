@@ -0,0 +1,117 @@
+package com.soybean.framework.redis.plus.sequence;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 号段分配：每次通过 INCRBY 预留 step 个序号在本地发放，当前号段用到 prefetchThreshold 时后台预取下一段
+ *
+ * @author wenxina
+ */
+@Slf4j
+class SegmentAllocator {
+
+    private static final Segment EMPTY = new Segment(1, 0);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Executor executor;
+    private final String key;
+    private final long step;
+    private final long prefetchOffset;
+    /**
+     * key 过期时间（秒级时间戳），小于等于 0 不过期
+     */
+    private final long expireAt;
+
+    private volatile Segment current = EMPTY;
+    private CompletableFuture<Segment> next;
+
+    SegmentAllocator(StringRedisTemplate redisTemplate, Executor executor, String key, long step, double prefetchThreshold, long expireAt) {
+        this.redisTemplate = redisTemplate;
+        this.executor = executor;
+        this.key = key;
+        this.step = Math.max(1, step);
+        this.prefetchOffset = Math.min(this.step - 1, Math.max(0, (long) (this.step * prefetchThreshold)));
+        this.expireAt = expireAt;
+    }
+
+    long next() {
+        while (true) {
+            final Segment segment = current;
+            final long value = segment.cursor.getAndIncrement();
+            if (value <= segment.max) {
+                if (value - segment.start == prefetchOffset) {
+                    prefetch();
+                }
+                return value;
+            }
+            synchronized (this) {
+                if (current == segment) {
+                    current = take();
+                }
+            }
+        }
+    }
+
+    private synchronized void prefetch() {
+        if (next != null) {
+            return;
+        }
+        try {
+            next = CompletableFuture.supplyAsync(this::fetch, executor);
+        } catch (RejectedExecutionException e) {
+            log.debug("sequence prefetch rejected key:{}", key);
+        }
+    }
+
+    private Segment take() {
+        final CompletableFuture<Segment> future = next;
+        next = null;
+        if (future != null) {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                log.warn("sequence prefetch error key:{},error:{}", key, e.getMessage());
+            }
+        }
+        return fetch();
+    }
+
+    /**
+     * INCRBY 与 EXPIREAT 在同一个 pipeline 中发送
+     */
+    private Segment fetch() {
+        final List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            final StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            stringConnection.incrBy(key, step);
+            if (expireAt > 0) {
+                stringConnection.expireAt(key, expireAt);
+            }
+            return null;
+        });
+        final long end = ((Number) results.get(0)).longValue();
+        return new Segment(end - step + 1, end);
+    }
+
+    private static final class Segment {
+
+        private final long start;
+        private final long max;
+        private final AtomicLong cursor;
+
+        private Segment(long start, long max) {
+            this.start = start;
+            this.max = max;
+            this.cursor = new AtomicLong(start);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.soybean.gateway.config;
+
+import com.soybean.gateway.config.rule.GatewayRuleIndex;
+import com.soybean.gateway.route.RedisRouteDefinitionRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Redis 发布订阅配置，网关节点之间同步本地规则与路由
+ *
+ * @author wenxina
+ */
+@Configuration
+public class RedisListenerConfiguration {
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                       GatewayRuleIndex gatewayRuleIndex,
+                                                                       ObjectProvider<RedisRouteDefinitionRepository> redisRouteDefinitionRepository) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(gatewayRuleIndex, new ChannelTopic(GatewayRuleIndex.CHANNEL));
+        redisRouteDefinitionRepository.ifAvailable(repository ->
+                container.addMessageListener(repository, new ChannelTopic(RedisRouteDefinitionRepository.CHANNEL)));
+        return container;
+    }
+
+}
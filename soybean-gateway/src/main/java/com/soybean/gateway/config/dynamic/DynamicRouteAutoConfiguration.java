@@ -39,7 +39,7 @@ public class DynamicRouteAutoConfiguration {
     @ConditionalOnProperty(prefix = "spring.cloud.gateway.dynamic-route", name = "type", havingValue = "redis", matchIfMissing = true)
     public RedisRouteDynamicGatewayService redisRouteDynamicGatewayService(RedisRouteDefinitionRepository redisRouteDefinitionRepository) {
         log.info(" init redisRouteDynamicGatewayService ");
-        return new RedisRouteDynamicGatewayService(publisher, redisRouteDefinitionRepository);
+        return new RedisRouteDynamicGatewayService(redisRouteDefinitionRepository);
     }
 
     @Bean
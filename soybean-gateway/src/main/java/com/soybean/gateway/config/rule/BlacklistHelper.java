@@ -6,9 +6,12 @@ import com.alibaba.nacos.common.utils.UuidUtils;
 import com.google.common.collect.Lists;
 import com.soybean.gateway.controller.domain.BlacklistRule;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
 
 import javax.annotation.Resource;
 import java.net.InetSocketAddress;
@@ -33,6 +36,10 @@ public class BlacklistHelper implements GatewayRule<BlacklistRule> {
 
     @Resource
     private StringRedisTemplate stringRedisTemplate;
+    @Resource
+    private ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+    @Resource
+    private GatewayRuleIndex gatewayRuleIndex;
 
 
     public void setBlack(ServerWebExchange exchange) {
@@ -85,17 +92,41 @@ public class BlacklistHelper implements GatewayRule<BlacklistRule> {
                 }).collect(Collectors.toList());
     }
 
-    public boolean valid(ServerWebExchange exchange) {
+    /**
+     * 黑名单检查，规则从本地索引匹配，只异步累加访问量
+     *
+     * @param exchange exchange
+     * @return 命中黑名单（true）|未命中（false）
+     */
+    public Mono<Boolean> valid(ServerWebExchange exchange) {
         final InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
         if (remoteAddress == null) {
-            return false;
+            return Mono.just(false);
+        }
+        final String ip = remoteAddress.getAddress().getHostAddress();
+        // 指定了 IP 的规则只拦截该 IP
+        final BlacklistRule rule = gatewayRuleIndex.match(RULE_BLACKLIST, exchange.getRequest(),
+                (BlacklistRule blacklistRule) -> StringUtils.isBlank(blacklistRule.getIp()) || StringUtils.equals(blacklistRule.getIp(), ip));
+        if (rule == null) {
+            return Mono.just(false);
         }
-        final BlacklistRule rule = getByPath(stringRedisTemplate, exchange.getRequest(), RULE_BLACKLIST);
-        boolean flag = rule != null;
-        if (flag) {
-            stringRedisTemplate.opsForHash().increment(RULE_BLACKLIST.visitsKey(), rule.getId(), 1);
+        return reactiveStringRedisTemplate.opsForHash().increment(RULE_BLACKLIST.visitsKey(), rule.getId(), 1).thenReturn(true);
+    }
+
+    /**
+     * 非阻塞保存，供网关过滤器使用
+     *
+     * @param rule 规则
+     * @return 完成信号
+     */
+    public Mono<Void> saveOrUpdateReactive(BlacklistRule rule) {
+        if (rule.getCreatedTime() == null) {
+            rule.setCreatedTime(LocalDateTime.now());
         }
-        return flag;
+        return reactiveStringRedisTemplate.opsForHash().putIfAbsent(RULE_BLACKLIST.hashKey(), rule.getId(), JSON.toJSONString(rule))
+                .filter(Boolean::booleanValue)
+                .flatMap(saved -> reactiveStringRedisTemplate.convertAndSend(GatewayRuleIndex.CHANNEL, RULE_BLACKLIST.name()))
+                .then();
     }
 
     public void saveOrUpdate(BlacklistRule rule) {
@@ -110,10 +141,12 @@ public class BlacklistHelper implements GatewayRule<BlacklistRule> {
         }
         final String content = JSON.toJSONString(rule);
         stringRedisTemplate.opsForHash().put(RULE_BLACKLIST.hashKey(), rule.getId(), content);
+        gatewayRuleIndex.publish(RULE_BLACKLIST);
     }
 
     public void delete(String id) {
         stringRedisTemplate.opsForHash().delete(RULE_BLACKLIST.hashKey(), id);
+        gatewayRuleIndex.publish(RULE_BLACKLIST);
     }
 
 }
@@ -0,0 +1,243 @@
+package com.soybean.gateway.config.rule;
+
+import com.alibaba.fastjson.JSON;
+import com.soybean.gateway.controller.domain.CommonRule;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ObjectUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * 网关规则本地索引
+ * <p>
+ * 规则在刷新时一次性解析，按请求方法与路径的字面量前缀分桶，保存在不可变快照中整体替换；
+ * 规则变更时通过 Redis 发布订阅通知所有网关节点重新加载，匹配请求时不访问 Redis、不解析 JSON
+ * <p>
+ * 路径规则与 {@link AntPathMatcher} 一致：
+ * //（1）? 匹配一个字符（除过操作系统默认的文件分隔符）
+ * //（2）* 匹配0个或多个字符
+ * //（3）**匹配0个或多个目录
+ * //（4）{spring:[a-z]+} 将正则表达式[a-z]+匹配到的值,赋值给名为 spring 的路径变量.
+ *
+ * @author wenxina
+ */
+@Slf4j
+@Component
+public class GatewayRuleIndex implements MessageListener, InitializingBean {
+
+    /**
+     * 规则变更通知频道，消息内容为 {@link GatewayRule.GatewayRuleEnum#name()}
+     */
+    public static final String CHANNEL = "gateway:rule:changed";
+    private static final String ALL_METHOD = "ALL";
+    private static final char PATH_SEPARATOR = '/';
+
+    private final AntPathMatcher antPathMatcher = new AntPathMatcher();
+    private final Map<GatewayRule.GatewayRuleEnum, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final StringRedisTemplate stringRedisTemplate;
+
+    public GatewayRuleIndex(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        for (GatewayRule.GatewayRuleEnum ruleEnum : GatewayRule.GatewayRuleEnum.values()) {
+            try {
+                refresh(ruleEnum);
+            } catch (Exception e) {
+                log.warn("加载网关规则失败 - {} - {}", ruleEnum, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void onMessage(@NonNull Message message, byte[] pattern) {
+        final String name = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            refresh(GatewayRule.GatewayRuleEnum.valueOf(name));
+        } catch (Exception e) {
+            log.warn("刷新网关规则失败 - {} - {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * 通知所有网关节点刷新规则
+     *
+     * @param ruleEnum 规则类型
+     */
+    public void publish(GatewayRule.GatewayRuleEnum ruleEnum) {
+        stringRedisTemplate.convertAndSend(CHANNEL, ruleEnum.name());
+    }
+
+    /**
+     * 从 Redis 重新加载规则并替换快照
+     *
+     * @param ruleEnum 规则类型
+     */
+    public void refresh(GatewayRule.GatewayRuleEnum ruleEnum) {
+        final Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(ruleEnum.hashKey());
+        Map<String, Map<String, List<CompiledRule>>> buckets = new HashMap<>();
+        int ordinal = 0;
+        for (Object value : entries.values()) {
+            final String json = value.toString();
+            final CommonRule common = JSON.parseObject(json, CommonRule.class);
+            if (common == null || !Boolean.TRUE.equals(common.getStatus()) || common.getPath() == null) {
+                continue;
+            }
+            final String method = StringUtils.equals(common.getMethod(), ALL_METHOD) ? ALL_METHOD : StringUtils.upperCase(common.getMethod());
+            final CompiledRule rule = new CompiledRule(ordinal++, common, antPathMatcher.isPattern(common.getPath()),
+                    JSON.parseObject(json, ruleEnum.clazz()));
+            buckets.computeIfAbsent(method, key -> new HashMap<>())
+                    .computeIfAbsent(literalPrefix(common.getPath()), key -> new ArrayList<>())
+                    .add(rule);
+        }
+        snapshots.put(ruleEnum, new Snapshot(buckets));
+        log.info("刷新网关规则 - {} - {}", ruleEnum, ordinal);
+    }
+
+    /**
+     * 匹配请求对应的规则
+     *
+     * @param ruleEnum 规则类型
+     * @param request  请求
+     * @param <T>      规则类型
+     * @return 规则，未匹配时返回 null
+     */
+    public <T> T match(GatewayRule.GatewayRuleEnum ruleEnum, ServerHttpRequest request) {
+        return match(ruleEnum, request, rule -> true);
+    }
+
+    /**
+     * 匹配请求对应的规则
+     *
+     * @param ruleEnum 规则类型
+     * @param request  请求
+     * @param filter   路径、方法之外的附加条件
+     * @param <T>      规则类型
+     * @return 规则，未匹配时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T match(GatewayRule.GatewayRuleEnum ruleEnum, ServerHttpRequest request, Predicate<T> filter) {
+        final Snapshot snapshot = snapshots.get(ruleEnum);
+        if (snapshot == null || snapshot.isEmpty()) {
+            return null;
+        }
+        final String path = request.getURI().getPath();
+        final HttpMethod httpMethod = request.getMethod();
+        CompiledRule matched = null;
+        if (httpMethod != null) {
+            matched = match(snapshot.buckets.get(httpMethod.name()), path, (Predicate<Object>) filter, null);
+        }
+        matched = match(snapshot.buckets.get(ALL_METHOD), path, (Predicate<Object>) filter, matched);
+        return matched == null ? null : (T) matched.rule;
+    }
+
+    private CompiledRule match(Map<String, List<CompiledRule>> prefixBuckets, String path, Predicate<Object> filter, CompiledRule matched) {
+        if (prefixBuckets == null) {
+            return matched;
+        }
+        LocalDateTime now = null;
+        // 依次查找路径的每一级前缀（含空前缀与完整路径）
+        int end = 0;
+        while (end >= 0) {
+            final String prefix = path.substring(0, end);
+            final List<CompiledRule> rules = prefixBuckets.get(prefix);
+            if (rules != null) {
+                for (CompiledRule rule : rules) {
+                    if (matched != null && matched.ordinal < rule.ordinal) {
+                        break;
+                    }
+                    if (rule.windowed) {
+                        now = now == null ? LocalDateTime.now() : now;
+                        if (now.isBefore(rule.startTime) || now.isAfter(rule.endTime)) {
+                            continue;
+                        }
+                    }
+                    if ((rule.pattern ? antPathMatcher.match(rule.path, path) : rule.path.equals(path)) && filter.test(rule.rule)) {
+                        matched = rule;
+                        break;
+                    }
+                }
+            }
+            if (end == path.length()) {
+                break;
+            }
+            final int next = path.indexOf(PATH_SEPARATOR, end + 1);
+            end = next < 0 ? path.length() : next;
+        }
+        return matched;
+    }
+
+    /**
+     * 路径中第一个含通配符的层级之前的字面量部分
+     *
+     * @param path 路径规则
+     * @return 前缀
+     */
+    private static String literalPrefix(String path) {
+        int literalEnd = path.length();
+        for (int i = 0; i < path.length(); i++) {
+            final char c = path.charAt(i);
+            if (c == '*' || c == '?' || c == '{') {
+                literalEnd = Math.max(path.lastIndexOf(PATH_SEPARATOR, i), 0);
+                break;
+            }
+        }
+        return path.substring(0, literalEnd);
+    }
+
+    private static final class Snapshot {
+
+        /**
+         * 请求方法 -> 字面量前缀 -> 规则（按加载顺序）
+         */
+        private final Map<String, Map<String, List<CompiledRule>>> buckets;
+
+        private Snapshot(Map<String, Map<String, List<CompiledRule>>> buckets) {
+            this.buckets = buckets;
+        }
+
+        private boolean isEmpty() {
+            return buckets.isEmpty();
+        }
+    }
+
+    private static final class CompiledRule {
+
+        private final int ordinal;
+        private final String path;
+        private final boolean pattern;
+        private final boolean windowed;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+        private final Object rule;
+
+        private CompiledRule(int ordinal, CommonRule common, boolean pattern, Object rule) {
+            this.ordinal = ordinal;
+            this.path = common.getPath();
+            this.pattern = pattern;
+            this.windowed = ObjectUtils.allNotNull(common.getStartTime(), common.getEndTime());
+            this.startTime = common.getStartTime();
+            this.endTime = common.getEndTime();
+            this.rule = rule;
+        }
+    }
+}
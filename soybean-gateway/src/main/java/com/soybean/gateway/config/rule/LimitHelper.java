@@ -1,42 +1,70 @@
 package com.soybean.gateway.config.rule;
 
 import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.BooleanUtil;
 import cn.hutool.core.util.IdUtil;
 import com.alibaba.fastjson.JSON;
 import com.google.common.collect.Lists;
 import com.soybean.gateway.controller.domain.BlacklistRule;
 import com.soybean.gateway.controller.domain.LimitRule;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
 
 import java.net.InetSocketAddress;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static com.soybean.gateway.config.rule.GatewayRule.Constants.DEFAULT_RULE_LIMIT_TOTAL;
 import static com.soybean.gateway.config.rule.GatewayRule.Constants.GLOBAL_RANGE;
+import static com.soybean.gateway.config.rule.GatewayRule.GatewayRuleEnum.RULE_BLACKLIST;
 import static com.soybean.gateway.config.rule.GatewayRule.GatewayRuleEnum.RULE_LIMIT;
 
 /**
  * 限制助手
+ * <p>
+ * 支持 QUOTA、SLIDING_LOG、SLIDING_WINDOW、TOKEN_BUCKET 四种算法（见 {@link LimitRule.Algorithm}），除 QUOTA 外计数 key 均带过期时间；
+ * 访问量（visits）统一为累计请求数，包括被拒绝的请求
  *
  * @author wenxina
  * @date 2022/03/22
  */
 @Component
 @RequiredArgsConstructor
-public class LimitHelper implements GatewayRule<LimitRule> {
+@EnableConfigurationProperties(LimitProperties.class)
+public class LimitHelper implements GatewayRule<LimitRule>, InitializingBean, DisposableBean {
+
+    private static final RedisScript<Long> LIMIT_SCRIPT = RedisScript.of(new ClassPathResource("scripts/gateway_rule_limit.lua"), Long.class);
+    private static final long NOT_OVERFLOW = 0L;
+    private static final long OVERFLOW_BLACKLIST = 2L;
+    private static final Set<LimitRule.Algorithm> AGGREGATE_ALGORITHMS = EnumSet.of(LimitRule.Algorithm.QUOTA, LimitRule.Algorithm.SLIDING_WINDOW);
 
     private final StringRedisTemplate stringRedisTemplate;
 
     private final BlacklistHelper blacklistHelper;
 
+    private final GatewayRuleIndex gatewayRuleIndex;
+
+    private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+
+    private final LimitProperties limitProperties;
+
+    private LocalLimitAggregator localLimitAggregator;
+
     public List<LimitRule> query() {
         final Set<Object> keys = stringRedisTemplate.opsForHash().keys(RULE_LIMIT.hashKey());
         if (CollUtil.isEmpty(keys)) {
@@ -66,50 +94,103 @@ public class LimitHelper implements GatewayRule<LimitRule> {
             rule.setCreatedTime(LocalDateTime.now());
         }
         stringRedisTemplate.opsForHash().put(RULE_LIMIT.hashKey(), rule.getId(), JSON.toJSONString(rule));
+        gatewayRuleIndex.publish(RULE_LIMIT);
     }
 
     public void delete(String id) {
         stringRedisTemplate.opsForHash().delete(RULE_LIMIT.hashKey(), id);
+        gatewayRuleIndex.publish(RULE_LIMIT);
     }
 
 
-    public boolean hostTrace(ServerWebExchange exchange) {
+    @Override
+    public void afterPropertiesSet() {
+        // 预聚合时本地拒绝即视为超限；全局规则的计数由所有客户端共享，无法确定超限的 IP，不拉黑
+        localLimitAggregator = new LocalLimitAggregator(limitProperties.getAggregateInterval(), (rule, counterField, permits, rejected) ->
+                execute(rule, counterField, counterField, permits, rejected, true).flatMap(count -> {
+                    if (rejected > 0 && BooleanUtil.isTrue(rule.getBlacklist()) && rule.getRange() != GLOBAL_RANGE) {
+                        return blacklistHelper.saveOrUpdateReactive(blacklistRule(rule, counterField)).thenReturn(count);
+                    }
+                    return Mono.just(count);
+                }));
+        localLimitAggregator.start();
+    }
+
+    @Override
+    public void destroy() {
+        localLimitAggregator.stop();
+    }
+
+    /**
+     * 限流检查，按规则的算法计数，计数、访问量与黑名单检查在一次 Lua 调用中完成，不阻塞事件循环；
+     * 脚本同时访问所有规则共享的 hash，不支持 Redis Cluster
+     *
+     * @param exchange exchange
+     * @return 超限（true）|未超限（false）
+     */
+    public Mono<Boolean> hostTrace(ServerWebExchange exchange) {
         final ServerHttpRequest request = exchange.getRequest();
         final InetSocketAddress remoteAddress = request.getRemoteAddress();
         if (remoteAddress == null) {
-            return false;
+            return Mono.just(false);
         }
-        final String hostName = remoteAddress.getHostName();
-        final LimitRule limitRule = getByPath(stringRedisTemplate, exchange.getRequest(), RULE_LIMIT);
+        final LimitRule limitRule = gatewayRuleIndex.match(RULE_LIMIT, request);
         if (limitRule == null) {
-            return false;
-        }
-        Long increment;
-        if (limitRule.getRange() == GLOBAL_RANGE) {
-            increment = stringRedisTemplate.opsForHash().increment(DEFAULT_RULE_LIMIT_TOTAL, limitRule.getId(), 1);
-        } else {
-            increment = stringRedisTemplate.opsForHash().increment(DEFAULT_RULE_LIMIT_TOTAL, hostName, 1);
+            return Mono.just(false);
         }
-        stringRedisTemplate.opsForHash().put(RULE_LIMIT.visitsKey(), limitRule.getId(), increment + "");
-        boolean overflow = increment > limitRule.getTotal();
-        if (overflow && limitRule.getBlacklist()) {
-            final BlacklistRule blacklistRule = blacklistHelper.getById(limitRule.getId());
-            if (blacklistRule != null) {
-                return true;
+        final String ip = remoteAddress.getAddress().getHostAddress();
+        final String counterField = limitRule.getRange() == GLOBAL_RANGE ? limitRule.getId() : ip;
+        if (BooleanUtil.isTrue(limitRule.getAggregate()) && AGGREGATE_ALGORITHMS.contains(algorithm(limitRule))) {
+            final Boolean overflow = localLimitAggregator.tryAcquire(limitRule, counterField);
+            if (overflow != null) {
+                return Mono.just(overflow);
             }
-            // 添加黑名单
-            BlacklistRule rule = new BlacklistRule();
-            rule.setId(limitRule.getId());
-            rule.setDescription("访问" + limitRule.getPath() + "频率过快被拉入黑名单24小时");
-            rule.setStatus(true);
-            final LocalDateTime now = LocalDateTime.now();
-            rule.setStartTime(LocalDateTime.now());
-            rule.setEndTime(now.plusDays(1));
-            rule.setIp(remoteAddress.getAddress().getHostAddress());
-            rule.setMethod(limitRule.getMethod());
-            rule.setPath(limitRule.getPath());
-            blacklistHelper.saveOrUpdate(rule);
         }
-        return overflow;
+        return execute(limitRule, counterField, ip, 1, 0, false).flatMap(result -> {
+            if (result == NOT_OVERFLOW) {
+                return Mono.just(false);
+            }
+            if (result == OVERFLOW_BLACKLIST) {
+                return blacklistHelper.saveOrUpdateReactive(blacklistRule(limitRule, ip)).thenReturn(true);
+            }
+            return Mono.just(true);
+        }).defaultIfEmpty(false);
+    }
+
+    private Mono<Long> execute(LimitRule rule, String counterField, String ip, long permits, long rejected, boolean record) {
+        final LimitRule.Algorithm algorithm = algorithm(rule);
+        final long window = TimeUnit.SECONDS.toMillis(rule.getWindow() == null || rule.getWindow() <= 0 ? 1 : rule.getWindow());
+        final String windowKey = RULE_LIMIT.hashKey() + ":window:" + rule.getId() + ":" + counterField;
+        final List<String> keys = List.of(DEFAULT_RULE_LIMIT_TOTAL, RULE_LIMIT.visitsKey(), RULE_BLACKLIST.hashKey(), windowKey);
+        final List<String> args = List.of(counterField, rule.getId(), String.valueOf(rule.getTotal()),
+                BooleanUtil.isTrue(rule.getBlacklist()) ? "1" : "0", algorithm.name(), String.valueOf(window),
+                String.valueOf(permits), algorithm == LimitRule.Algorithm.SLIDING_LOG ? IdUtil.fastSimpleUUID() : "",
+                record ? "1" : "0", String.valueOf(rejected), blacklistId(rule, ip));
+        return reactiveStringRedisTemplate.execute(LIMIT_SCRIPT, keys, args).next();
+    }
+
+    private static LimitRule.Algorithm algorithm(LimitRule rule) {
+        return rule.getAlgorithm() == null ? LimitRule.Algorithm.QUOTA : rule.getAlgorithm();
+    }
+
+    /**
+     * 限流拉黑的黑名单规则ID，每个 IP 一条，同一 IP 已拉黑时不重复写入
+     */
+    private static String blacklistId(LimitRule limitRule, String ip) {
+        return limitRule.getId() + ":" + ip;
+    }
+
+    private static BlacklistRule blacklistRule(LimitRule limitRule, String ip) {
+        BlacklistRule rule = new BlacklistRule();
+        rule.setId(blacklistId(limitRule, ip));
+        rule.setDescription("访问" + limitRule.getPath() + "频率过快被拉入黑名单24小时");
+        rule.setStatus(true);
+        final LocalDateTime now = LocalDateTime.now();
+        rule.setStartTime(now);
+        rule.setEndTime(now.plusDays(1));
+        rule.setIp(ip);
+        rule.setMethod(limitRule.getMethod());
+        rule.setPath(limitRule.getPath());
+        return rule;
     }
 }
@@ -0,0 +1,22 @@
+package com.soybean.gateway.config.rule;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 网关限流配置
+ *
+ * @author wenxina
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.limit")
+public class LimitProperties {
+
+    /**
+     * 本地预聚合的提交间隔
+     */
+    private Duration aggregateInterval = Duration.ofMillis(100);
+
+}
@@ -0,0 +1,151 @@
+package com.soybean.gateway.config.rule;
+
+import com.soybean.gateway.controller.domain.LimitRule;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 限流计数本地预聚合
+ * <p>
+ * 请求只在本地判断（上次提交得到的全局计数 + 本地未提交计数），按固定间隔把本地计数批量提交到 Redis 并取回最新的全局计数；
+ * 节点间存在一个提交间隔的误差。被拒绝的请求单独计数并随提交一起上报；
+ * 超过一个窗口（且不短于提交间隔）没有请求的条目直接移除，不再提交；新建的条目在首次取得全局计数前由调用方逐次判断
+ *
+ * @author wenxina
+ */
+@Slf4j
+class LocalLimitAggregator {
+
+    private static final int FLUSH_CONCURRENCY = 16;
+
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+    private final Duration interval;
+    private final Flusher flusher;
+    private Disposable disposable;
+
+    LocalLimitAggregator(Duration interval, Flusher flusher) {
+        this.interval = interval;
+        this.flusher = flusher;
+    }
+
+    void start() {
+        disposable = Flux.interval(interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> flush(), 1)
+                .subscribe();
+    }
+
+    void stop() {
+        if (disposable != null) {
+            disposable.dispose();
+        }
+    }
+
+    /**
+     * @return 超限（true）|未超限（false）|尚未取得全局计数（null，由调用方逐次判断）
+     */
+    Boolean tryAcquire(LimitRule rule, String counterField) {
+        final Slot slot = slots.computeIfAbsent(rule.getId() + ':' + counterField, key -> new Slot(counterField));
+        slot.rule = rule;
+        slot.lastAccess = System.nanoTime();
+        if (!slot.synced) {
+            return null;
+        }
+        if (slot.global + slot.pending.get() >= rule.getTotal()) {
+            slot.rejected.incrementAndGet();
+            return true;
+        }
+        slot.pending.incrementAndGet();
+        return false;
+    }
+
+    private Mono<Void> flush() {
+        final long now = System.nanoTime();
+        return Flux.fromIterable(slots.entrySet())
+                .filter(entry -> !evictIfIdle(entry.getKey(), entry.getValue(), now))
+                .flatMap(entry -> {
+                    final Slot slot = entry.getValue();
+                    final long permits = slot.pending.getAndSet(0);
+                    final long rejected = slot.rejected.getAndSet(0);
+                    return flusher.flush(slot.rule, slot.counterField, permits, rejected)
+                            .doOnNext(count -> {
+                                slot.global = count;
+                                slot.synced = true;
+                            })
+                            .onErrorResume(e -> {
+                                slot.pending.addAndGet(permits);
+                                slot.rejected.addAndGet(rejected);
+                                log.warn("提交限流计数失败 - {}", e.getMessage());
+                                return Mono.empty();
+                            });
+                }, FLUSH_CONCURRENCY)
+                .then();
+    }
+
+    /**
+     * 空闲条目移除，下次请求时重新创建；移除时仍有未提交计数（并发请求）则转入新条目
+     *
+     * @return 是否已移除
+     */
+    private boolean evictIfIdle(String key, Slot slot, long now) {
+        if (slot.pending.get() != 0 || slot.rejected.get() != 0 || now - slot.lastAccess < idleNanos(slot.rule)) {
+            return false;
+        }
+        if (!slots.remove(key, slot)) {
+            return true;
+        }
+        final long permits = slot.pending.getAndSet(0);
+        final long rejected = slot.rejected.getAndSet(0);
+        if (permits != 0 || rejected != 0) {
+            final Slot current = slots.computeIfAbsent(key, k -> new Slot(slot.counterField));
+            current.rule = slot.rule;
+            current.global = slot.global;
+            current.synced = slot.synced;
+            current.pending.addAndGet(permits);
+            current.rejected.addAndGet(rejected);
+        }
+        return true;
+    }
+
+    private long idleNanos(LimitRule rule) {
+        final long window = rule.getWindow() == null || rule.getWindow() <= 0 ? 1 : rule.getWindow();
+        return Math.max(interval.toNanos(), TimeUnit.SECONDS.toNanos(window));
+    }
+
+    interface Flusher {
+
+        /**
+         * 提交本地计数
+         *
+         * @param rule         规则
+         * @param counterField 计数字段
+         * @param permits      本地放行数
+         * @param rejected     本地拒绝数
+         * @return 全局计数
+         */
+        Mono<Long> flush(LimitRule rule, String counterField, long permits, long rejected);
+    }
+
+    private static final class Slot {
+
+        private final String counterField;
+        private final AtomicLong pending = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private volatile long global;
+        private volatile boolean synced;
+        private volatile long lastAccess = System.nanoTime();
+        private volatile LimitRule rule;
+
+        private Slot(String counterField) {
+            this.counterField = counterField;
+        }
+    }
+}
@@ -35,4 +35,35 @@ public class LimitRule {
     private LocalDateTime endTime;
     private String description;
     private LocalDateTime createdTime;
+    /**
+     * 限流算法，为空时沿用 {@link Algorithm#QUOTA}
+     */
+    private Algorithm algorithm;
+    /**
+     * 时间窗口（秒），默认 1 秒
+     */
+    private Long window;
+    /**
+     * 本地预聚合，按固定间隔批量提交计数，适用于访问量极大的路由（仅 QUOTA、SLIDING_WINDOW 支持）
+     */
+    private Boolean aggregate;
+
+    public enum Algorithm {
+        /**
+         * 总量配额，计数不过期
+         */
+        QUOTA,
+        /**
+         * 滑动日志，精确但每个请求占用一条记录
+         */
+        SLIDING_LOG,
+        /**
+         * 滑动窗口计数，上一窗口按比例加权
+         */
+        SLIDING_WINDOW,
+        /**
+         * 令牌桶，容量为 total，每个窗口补满
+         */
+        TOKEN_BUCKET
+    }
 }
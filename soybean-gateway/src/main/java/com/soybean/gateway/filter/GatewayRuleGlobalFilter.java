@@ -0,0 +1,88 @@
+package com.soybean.gateway.filter;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.soybean.gateway.config.rule.BlacklistHelper;
+import com.soybean.gateway.config.rule.LimitHelper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 黑名单、限流规则过滤器
+ * <p>
+ * 规则从本地索引匹配，Redis 访问全部走 {@link org.springframework.data.redis.core.ReactiveStringRedisTemplate}，不阻塞事件循环；
+ * Redis 异常时放行，避免规则存储故障导致网关不可用
+ *
+ * @author wenxina
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GatewayRuleGlobalFilter implements GlobalFilter, Ordered {
+
+    private final BlacklistHelper blacklistHelper;
+    private final LimitHelper limitHelper;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return blacklistHelper.valid(exchange)
+                .flatMap(black -> black ? Mono.just(Verdict.BLACKLIST)
+                        : limitHelper.hostTrace(exchange).map(overflow -> overflow ? Verdict.LIMIT : Verdict.PASS))
+                .onErrorResume(e -> {
+                    log.warn("网关规则检查失败 - {}", e.getMessage());
+                    return Mono.just(Verdict.PASS);
+                })
+                .flatMap(verdict -> {
+                    if (verdict == Verdict.BLACKLIST) {
+                        return reject(exchange, HttpStatus.FORBIDDEN, "访问受限，请联系管理员");
+                    }
+                    if (verdict == Verdict.LIMIT) {
+                        return reject(exchange, HttpStatus.TOO_MANY_REQUESTS, "访问频率过快，请稍后再试");
+                    }
+                    return chain.filter(exchange);
+                });
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, HttpStatus status, String message) {
+        log.warn("[{}] - [{}] - [{}]", message, exchange.getRequest().getRemoteAddress(), exchange.getRequest().getURI().getPath());
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        JSONObject result = new JSONObject();
+        result.put("code", status.value());
+        result.put("message", message);
+        result.put("successful", false);
+        result.put("timestamp", System.currentTimeMillis());
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(JSON.toJSONBytes(result))));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 100;
+    }
+
+    private enum Verdict {
+        /**
+         * 放行
+         */
+        PASS,
+        /**
+         * 命中黑名单
+         */
+        BLACKLIST,
+        /**
+         * 超出限流
+         */
+        LIMIT
+    }
+}
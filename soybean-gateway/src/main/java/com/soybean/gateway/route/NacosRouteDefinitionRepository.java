@@ -5,8 +5,9 @@ import com.alibaba.cloud.nacos.NacosConfigManager;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.nacos.api.config.listener.Listener;
 import com.alibaba.nacos.api.exception.NacosException;
-import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
 import org.springframework.cloud.gateway.route.RouteDefinition;
 import org.springframework.cloud.gateway.route.RouteDefinitionRepository;
@@ -15,42 +16,70 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 /**
  * Nacos 路由数据源
  *
  * <p>
+ * 启动时读取一次配置，之后只根据监听器推送的内容增量更新内存中的路由，刷新路由时不再访问 Nacos；
+ * 与上一版本比较，没有任何变化时不触发刷新（Spring Cloud Gateway 每次刷新都会重建全部路由）
  *
  * @author wenxina
  * @date 2022/03/22
  */
 @Slf4j
-public class NacosRouteDefinitionRepository implements RouteDefinitionRepository {
+public class NacosRouteDefinitionRepository implements RouteDefinitionRepository, DisposableBean {
 
     private static final String SCG_DATA_ID = "scg-routes";
     private static final String SCG_GROUP_ID = "SCG_GATEWAY";
 
     private final ApplicationEventPublisher publisher;
     private final NacosConfigManager nacosConfigManager;
+    private final ExecutorService listenerExecutor = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("nacos-route-listener-%d").setDaemon(true).build());
+    private final Listener listener = new Listener() {
+        @Override
+        public Executor getExecutor() {
+            return listenerExecutor;
+        }
+
+        @Override
+        public void receiveConfigInfo(String configInfo) {
+            if (update(configInfo)) {
+                publisher.publishEvent(new RefreshRoutesEvent(this));
+            }
+        }
+    };
+    private volatile Map<String, RouteDefinition> routeDefinitions = Collections.emptyMap();
 
     public NacosRouteDefinitionRepository(ApplicationEventPublisher publisher, NacosConfigManager nacosConfigManager) {
         this.publisher = publisher;
         this.nacosConfigManager = nacosConfigManager;
+        load();
         addListener();
     }
 
     @Override
     public Flux<RouteDefinition> getRouteDefinitions() {
+        return Flux.fromIterable(routeDefinitions.values());
+    }
+
+    /**
+     * 启动时读取路由配置
+     */
+    private void load() {
         try {
-            String content = this.nacosConfigManager.getConfigService().getConfig(SCG_DATA_ID, SCG_GROUP_ID, 5000);
-            List<RouteDefinition> routeDefinitions = getListByStr(content);
-            return Flux.fromIterable(routeDefinitions);
+            update(this.nacosConfigManager.getConfigService().getConfig(SCG_DATA_ID, SCG_GROUP_ID, 5000));
         } catch (NacosException e) {
             log.error("getRouteDefinitions by nacos error", e);
         }
-        return Flux.fromIterable(Lists.newArrayList());
     }
 
     /**
@@ -58,22 +87,45 @@ public class NacosRouteDefinitionRepository implements RouteDefinitionRepository
      */
     private void addListener() {
         try {
-            this.nacosConfigManager.getConfigService().addListener(SCG_DATA_ID, SCG_GROUP_ID, new Listener() {
-                @Override
-                public Executor getExecutor() {
-                    return null;
-                }
-
-                @Override
-                public void receiveConfigInfo(String configInfo) {
-                    publisher.publishEvent(new RefreshRoutesEvent(this));
-                }
-            });
+            this.nacosConfigManager.getConfigService().addListener(SCG_DATA_ID, SCG_GROUP_ID, listener);
         } catch (NacosException e) {
             log.error("nacos-addListener-error", e);
         }
     }
 
+    /**
+     * 与当前路由比较后替换
+     *
+     * @param content 配置内容
+     * @return 是否有变化
+     */
+    private synchronized boolean update(String content) {
+        final Map<String, RouteDefinition> previous = routeDefinitions;
+        final List<RouteDefinition> definitions = getListByStr(content);
+        Map<String, RouteDefinition> current = new LinkedHashMap<>(definitions.size());
+        int changed = 0;
+        for (RouteDefinition definition : definitions) {
+            if (!definition.equals(previous.get(definition.getId()))) {
+                changed++;
+            }
+            current.put(definition.getId(), definition);
+        }
+        final long removed = previous.keySet().stream().filter(id -> !current.containsKey(id)).count();
+        if (changed == 0 && removed == 0) {
+            log.debug("Nacos 路由未变化");
+            return false;
+        }
+        log.info("Nacos 路由变化 - 新增或修改 {} - 删除 {}", changed, removed);
+        routeDefinitions = Collections.unmodifiableMap(current);
+        return true;
+    }
+
+    @Override
+    public void destroy() {
+        this.nacosConfigManager.getConfigService().removeListener(SCG_DATA_ID, SCG_GROUP_ID, listener);
+        listenerExecutor.shutdown();
+    }
+
     @Override
     public Mono<Void> save(Mono<RouteDefinition> route) {
         return null;
@@ -90,4 +142,4 @@ public class NacosRouteDefinitionRepository implements RouteDefinitionRepository
         }
         return new ArrayList<>(0);
     }
-}
\ No newline at end of file
+}
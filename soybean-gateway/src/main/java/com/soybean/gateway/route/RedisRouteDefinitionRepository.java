@@ -3,20 +3,31 @@ package com.soybean.gateway.route;
 import com.alibaba.fastjson.JSON;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
 import org.springframework.cloud.gateway.route.RouteDefinition;
 import org.springframework.cloud.gateway.route.RouteDefinitionRepository;
 import org.springframework.cloud.gateway.support.NotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static java.util.stream.Collectors.toList;
 
 /**
  * 复述,路由定义存储库
+ * <p>
+ * 路由在内存中保存快照，只在收到 {@link #CHANNEL} 消息后失效，重新加载时一次 HGETALL 且不在事件循环线程上执行；
+ * 失效时递增版本号，加载期间发生失效则不保存加载结果，避免旧数据覆盖
  *
  * @author wenxina
  * @date 2022/03/22
@@ -24,13 +35,25 @@ import static java.util.stream.Collectors.toList;
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class RedisRouteDefinitionRepository implements RouteDefinitionRepository {
+public class RedisRouteDefinitionRepository implements RouteDefinitionRepository, MessageListener, ApplicationEventPublisherAware {
 
+    /**
+     * 路由变更通知频道
+     */
+    public static final String CHANNEL = "gateway:route:changed";
     /**
      * 存储的的key
      */
     private static final String KEY = "gateway_dynamic_route";
     private final StringRedisTemplate redisTemplate;
+    private ApplicationEventPublisher publisher;
+    private volatile List<RouteDefinition> snapshot;
+    private final AtomicLong version = new AtomicLong();
+
+    @Override
+    public void setApplicationEventPublisher(@NonNull ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
 
     public RouteDefinition find(String routeId) {
         final Object object = redisTemplate.opsForHash().get(KEY, routeId);
@@ -49,9 +72,45 @@ public class RedisRouteDefinitionRepository implements RouteDefinitionRepository
      */
     @Override
     public Flux<RouteDefinition> getRouteDefinitions() {
-        final List<RouteDefinition> gatewayRouteEntityList = redisTemplate.opsForHash().keys(KEY).stream()
-                .map(routeId -> find(String.valueOf(routeId))).collect(toList());
-        return Flux.fromIterable(gatewayRouteEntityList);
+        final List<RouteDefinition> routeDefinitions = snapshot;
+        if (routeDefinitions != null) {
+            return Flux.fromIterable(routeDefinitions);
+        }
+        return Mono.fromCallable(this::load).subscribeOn(Schedulers.boundedElastic()).flatMapIterable(list -> list);
+    }
+
+    private List<RouteDefinition> load() {
+        final long loadingVersion = version.get();
+        final List<RouteDefinition> routeDefinitions = redisTemplate.opsForHash().entries(KEY).values().stream()
+                .map(object -> JSON.parseObject(object.toString(), RouteDefinition.class)).collect(toList());
+        log.debug("[加载动态路由] - [{}]", routeDefinitions.size());
+        synchronized (version) {
+            if (version.get() == loadingVersion) {
+                snapshot = routeDefinitions;
+            }
+        }
+        return routeDefinitions;
+    }
+
+    private void invalidate() {
+        synchronized (version) {
+            version.incrementAndGet();
+            snapshot = null;
+        }
+    }
+
+    /**
+     * 通知所有网关节点重新加载路由
+     */
+    public void publish() {
+        invalidate();
+        redisTemplate.convertAndSend(CHANNEL, KEY);
+    }
+
+    @Override
+    public void onMessage(@NonNull Message message, byte[] pattern) {
+        invalidate();
+        publisher.publishEvent(new RefreshRoutesEvent(this));
     }
 
     /**
@@ -64,6 +123,7 @@ public class RedisRouteDefinitionRepository implements RouteDefinitionRepository
     public Mono<Void> save(Mono<RouteDefinition> route) {
         return route.flatMap(routeDefinition -> {
             redisTemplate.opsForHash().put(KEY, routeDefinition.getId(), JSON.toJSONString(routeDefinition));
+            invalidate();
             return Mono.empty();
         });
     }
@@ -79,6 +139,7 @@ public class RedisRouteDefinitionRepository implements RouteDefinitionRepository
         return routeId.flatMap(id -> {
             if (Boolean.TRUE.equals(redisTemplate.opsForHash().hasKey(KEY, id))) {
                 redisTemplate.opsForHash().delete(KEY, id);
+                invalidate();
                 return Mono.empty();
             }
             return Mono.defer(() -> Mono.error(new NotFoundException("route definition is not found, routeId:" + routeId)));
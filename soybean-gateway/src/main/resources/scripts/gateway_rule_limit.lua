@@ -0,0 +1,87 @@
+-- 网关限流：按算法计数、更新访问量、检查黑名单，一次往返完成
+-- 只访问 KEYS 中声明的 key；KEYS[1..3] 为所有规则共享的 hash，与窗口 key 不在同一个槽，不支持 Redis Cluster
+-- KEYS[1] 配额计数 hash  KEYS[2] 访问量 hash（规则ID -> 累计请求数）  KEYS[3] 黑名单规则 hash  KEYS[4] 窗口计数 key（带过期时间）
+-- ARGV[1] 计数字段（规则ID 或 IP）  ARGV[2] 规则ID  ARGV[3] 阈值  ARGV[4] 超限是否拉黑（1/0）
+-- ARGV[5] 算法  ARGV[6] 窗口（毫秒）  ARGV[7] 本次请求数  ARGV[8] 请求标识  ARGV[9] 只记录不判断（1/0，本地预聚合时使用）
+-- ARGV[10] 本地已拒绝的请求数（本地预聚合时使用，只计入访问量与配额计数）  ARGV[11] 拉黑时的黑名单规则ID（规则ID:IP）
+-- 返回：ARGV[9] 为 1 时返回当前计数；否则 0 未超限  1 超限  2 超限且需要拉入黑名单
+redis.replicate_commands()
+local limit = tonumber(ARGV[3])
+local algorithm = ARGV[5]
+local window = tonumber(ARGV[6])
+local permits = tonumber(ARGV[7])
+local record = ARGV[9] == '1'
+local rejected = tonumber(ARGV[10] or '0')
+local allowed
+local count
+
+if algorithm == 'QUOTA' then
+    -- 与逐次判断一致，被拒绝的请求同样计入配额
+    count = redis.call('HINCRBY', KEYS[1], ARGV[1], permits + rejected)
+    allowed = count <= limit
+else
+    local time = redis.call('TIME')
+    local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+    if algorithm == 'SLIDING_LOG' then
+        redis.call('ZREMRANGEBYSCORE', KEYS[4], 0, now - window)
+        count = redis.call('ZCARD', KEYS[4])
+        allowed = count + permits <= limit
+        if allowed then
+            for i = 1, permits do
+                redis.call('ZADD', KEYS[4], now, ARGV[8] .. ':' .. i)
+            end
+            count = count + permits
+        end
+        redis.call('PEXPIRE', KEYS[4], window)
+    elseif algorithm == 'TOKEN_BUCKET' then
+        local bucket = redis.call('HMGET', KEYS[4], 'tokens', 'timestamp')
+        local tokens = tonumber(bucket[1]) or limit
+        local timestamp = tonumber(bucket[2]) or now
+        tokens = math.min(limit, tokens + math.max(0, now - timestamp) * limit / window)
+        allowed = tokens >= permits
+        if allowed then
+            tokens = tokens - permits
+        end
+        redis.call('HMSET', KEYS[4], 'tokens', tostring(tokens), 'timestamp', now)
+        redis.call('PEXPIRE', KEYS[4], window)
+        count = limit - math.floor(tokens)
+    else
+        -- SLIDING_WINDOW：当前、上一窗口的计数存放在同一个 hash 中，上一窗口按剩余时间比例加权
+        local index = math.floor(now / window)
+        local state = redis.call('HMGET', KEYS[4], 'index', 'current', 'previous')
+        local stored = tonumber(state[1])
+        local current = tonumber(state[2]) or 0
+        local previous = tonumber(state[3]) or 0
+        if stored ~= index then
+            previous = stored == index - 1 and current or 0
+            current = 0
+        end
+        local weight = 1 - (now % window) / window
+        count = math.floor(previous * weight) + current
+        allowed = count + permits <= limit
+        if (allowed or record) and permits > 0 then
+            current = current + permits
+            count = count + permits
+        end
+        if stored ~= index or ((allowed or record) and permits > 0) then
+            redis.call('HMSET', KEYS[4], 'index', index, 'current', current, 'previous', previous)
+            redis.call('PEXPIRE', KEYS[4], window * 2)
+        end
+    end
+end
+
+-- 访问量：所有算法均累计请求数（含被拒绝的请求）
+if permits + rejected > 0 then
+    redis.call('HINCRBY', KEYS[2], ARGV[2], permits + rejected)
+end
+
+if record then
+    return count
+end
+if allowed then
+    return 0
+end
+if ARGV[4] == '1' and redis.call('HEXISTS', KEYS[3], ARGV[11]) == 0 then
+    return 2
+end
+return 1
@@ -2,14 +2,21 @@ package com.soybean.uaa;
 
 import com.soybean.framework.boot.listener.AppStartupListener;
 import com.soybean.framework.boot.log.event.SysLogListener;
+import com.soybean.framework.boot.log.event.SysLogPipeline;
+import com.soybean.framework.boot.log.properties.SysLogProperties;
 import com.soybean.framework.security.client.annotation.EnableOauth2ClientResourceServer;
+import com.soybean.uaa.configuration.provider.ClientDetailsChangedEvent;
+import com.soybean.uaa.configuration.provider.LoginLogPipeline;
+import com.soybean.uaa.service.LoginLogService;
 import com.soybean.uaa.service.OptLogService;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.mybatis.spring.annotation.MapperScan;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cloud.bus.jackson.RemoteApplicationEventScan;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.context.annotation.Bean;
@@ -27,6 +34,7 @@ import org.springframework.stereotype.Repository;
 @EnableFeignClients(basePackages = "com.soybean")
 @MapperScan(value = "com.soybean.uaa.repository", annotationClass = Repository.class)
 @EnableOauth2ClientResourceServer
+@RemoteApplicationEventScan(basePackageClasses = ClientDetailsChangedEvent.class)
 public class UaaApplication {
 
     @SneakyThrows
@@ -35,8 +43,19 @@ public class UaaApplication {
     }
 
     @Bean
-    public SysLogListener sysLogListener(OptLogService optLogService) {
-        return new SysLogListener(optLogService::save);
+    public SysLogPipeline sysLogPipeline(OptLogService optLogService, ObjectProvider<SysLogProperties> sysLogProperties) {
+        return new SysLogPipeline(sysLogProperties.getIfAvailable(SysLogProperties::new).getPipeline(), optLogService::saveBatch);
+    }
+
+    @Bean
+    public LoginLogPipeline loginLogPipeline(ObjectProvider<LoginLogService> loginLogService, ObjectProvider<SysLogProperties> sysLogProperties) {
+        return new LoginLogPipeline(sysLogProperties.getIfAvailable(SysLogProperties::new).getPipeline(),
+                logs -> loginLogService.getObject().saveLoginLogs(logs));
+    }
+
+    @Bean
+    public SysLogListener sysLogListener(SysLogPipeline sysLogPipeline) {
+        return new SysLogListener(sysLogPipeline);
     }
 
     @Bean
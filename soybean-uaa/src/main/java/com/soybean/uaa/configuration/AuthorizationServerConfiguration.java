@@ -3,9 +3,11 @@ package com.soybean.uaa.configuration;
 import com.google.common.collect.Maps;
 import com.soybean.framework.security.client.entity.UserInfoDetails;
 import com.soybean.framework.security.client.exception.CustomWebResponseExceptionTranslator;
+import com.soybean.uaa.configuration.crypto.BoundedPasswordEncoder;
 import com.soybean.uaa.configuration.integration.IntegrationAuthenticationFilter;
 import com.soybean.uaa.configuration.properties.OAuth2Properties;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
@@ -21,9 +23,12 @@ import org.springframework.security.oauth2.config.annotation.web.configurers.Aut
 import org.springframework.security.oauth2.provider.ClientDetailsService;
 import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
 import org.springframework.security.oauth2.provider.token.TokenEnhancer;
+import org.springframework.security.oauth2.provider.token.TokenEnhancerChain;
 import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
 import org.springframework.security.web.AuthenticationEntryPoint;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -46,7 +51,9 @@ public class AuthorizationServerConfiguration extends AuthorizationServerConfigu
     private final UserDetailsService userDetailsService;
     private final ClientDetailsService clientDetailsService;
     private final AuthenticationEntryPoint authenticationEntryPoint;
+    private final BoundedPasswordEncoder passwordEncoder;
     private final IntegrationAuthenticationFilter integrationAuthenticationFilter;
+    private final ObjectProvider<JwtAccessTokenConverter> jwtAccessTokenConverter;
 
     @Bean
     public FilterRegistrationBean<IntegrationAuthenticationFilter> registration(IntegrationAuthenticationFilter integrationAuthenticationFilter) {
@@ -74,8 +81,17 @@ public class AuthorizationServerConfiguration extends AuthorizationServerConfigu
     @Override
     public void configure(AuthorizationServerEndpointsConfigurer endpoints) {
 
+        TokenEnhancer tokenEnhancer = tokenEnhancer();
+        final JwtAccessTokenConverter accessTokenConverter = jwtAccessTokenConverter.getIfAvailable();
+        if (accessTokenConverter != null) {
+            // JWT 模式，先补充用户信息再签名
+            TokenEnhancerChain tokenEnhancerChain = new TokenEnhancerChain();
+            tokenEnhancerChain.setTokenEnhancers(List.of(tokenEnhancer, accessTokenConverter));
+            tokenEnhancer = tokenEnhancerChain;
+            endpoints.accessTokenConverter(accessTokenConverter);
+        }
         endpoints.tokenStore(tokenStore)
-                .tokenEnhancer(tokenEnhancer())
+                .tokenEnhancer(tokenEnhancer)
                 .userDetailsService(userDetailsService)
                 .authenticationManager(authenticationManager)
                 .allowedTokenEndpointRequestMethods(HttpMethod.POST, HttpMethod.GET)
@@ -96,7 +112,9 @@ public class AuthorizationServerConfiguration extends AuthorizationServerConfigu
     @Override
     public void configure(AuthorizationServerSecurityConfigurer security) {
         // 允许表单认证 设置异常处理
+        // 客户端密钥校验繁忙时由 authenticationEntryPoint 返回 429
         security.allowFormAuthenticationForClients()
+                .passwordEncoder(passwordEncoder.forAuthentication())
                 .authenticationEntryPoint(authenticationEntryPoint)
                 .tokenKeyAccess("isAuthenticated()")
                 .checkTokenAccess("permitAll()");
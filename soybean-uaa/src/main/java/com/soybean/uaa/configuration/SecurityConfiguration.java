@@ -1,6 +1,11 @@
 package com.soybean.uaa.configuration;
 
+import com.soybean.uaa.configuration.crypto.BoundedPasswordEncoder;
+import com.soybean.uaa.configuration.properties.PasswordEncoderProperties;
 import com.soybean.uaa.configuration.provider.JdbcUserDetailsServiceImpl;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
@@ -12,8 +17,6 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.factory.PasswordEncoderFactories;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.provider.token.TokenStore;
 import org.springframework.security.oauth2.provider.token.store.redis.RedisTokenStore;
 
@@ -22,8 +25,11 @@ import org.springframework.security.oauth2.provider.token.store.redis.RedisToken
  */
 @Configuration
 @EnableWebSecurity
+@RequiredArgsConstructor
+@EnableConfigurationProperties(PasswordEncoderProperties.class)
 public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
 
+    private final PasswordEncoderProperties passwordEncoderProperties;
 
     @Bean
     @Override
@@ -31,12 +37,16 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
         return new JdbcUserDetailsServiceImpl();
     }
 
+    /**
+     * BCrypt 在独立的有界线程池中执行，繁忙时返回 429
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder() {
+        return new BoundedPasswordEncoder(passwordEncoderProperties);
     }
 
     @Bean
+    @ConditionalOnProperty(prefix = "security.oauth2.jwt", name = "enabled", havingValue = "false", matchIfMissing = true)
     public TokenStore tokenStore(RedisConnectionFactory redisConnectionFactory) {
         // redis 存储 token
         return new RedisTokenStore(redisConnectionFactory);
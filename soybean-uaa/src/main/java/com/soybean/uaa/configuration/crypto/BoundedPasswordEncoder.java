@@ -0,0 +1,216 @@
+package com.soybean.uaa.configuration.crypto;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.soybean.framework.commons.exception.TooManyRequestsException;
+import com.soybean.uaa.configuration.properties.PasswordEncoderProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 在独立的有界线程池中执行 BCrypt，避免登录高峰占满 Web 工作线程
+ * <p>
+ * 1. 线程数默认与 CPU 核数相同，队列满时立即拒绝并返回 429（{@link TooManyRequestsException}），等待超时同样返回 429；
+ * 2. 启动时实测 BCrypt 耗时，按目标耗时选择新密码的强度，已有密码按其自身强度校验；
+ * 3. 非 BCrypt 的密码（如 {noop} 客户端密钥）直接在当前线程处理；
+ * 4. 排队时间、计算时间、拒绝数通过 Micrometer 暴露（password.hash.*）；
+ * 5. 等待超时时已开始计算的 BCrypt 无法中断，会继续占用线程直到算完，计入 password.hash.abandoned
+ *
+ * @author wenxina
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, MeterBinder, DisposableBean {
+
+    private static final String BCRYPT = "bcrypt";
+    private static final String BCRYPT_PREFIX = "{" + BCRYPT + "}";
+    private static final int BENCHMARK_STRENGTH = 10;
+    private static final int BENCHMARK_ROUNDS = 3;
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutNanos;
+    @Getter
+    private final int strength;
+
+    private final LongAdder waitCount = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder hashCount = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+
+    public BoundedPasswordEncoder(PasswordEncoderProperties properties) {
+        this.strength = properties.isAdaptive() ? selectStrength(properties) : properties.getStrength();
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(BCRYPT, Map.of(BCRYPT, new BCryptPasswordEncoder(strength)));
+        // 其它前缀（noop、pbkdf2 等）及 BCrypt 以外的旧格式交给默认实现
+        encoder.setDefaultPasswordEncoderForMatches(PasswordEncoderFactories.createDelegatingPasswordEncoder());
+        this.delegate = encoder;
+        final int threads = properties.getThreads() > 0 ? properties.getThreads() : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+                new ThreadFactoryBuilder().setNameFormat("password-hash-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutNanos = properties.getTimeout().toNanos();
+        log.info("密码加密线程数 {}，队列长度 {}，BCrypt 强度 {}", threads, properties.getQueueCapacity(), strength);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (encodedPassword == null || !encodedPassword.startsWith(BCRYPT_PREFIX)) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+        return execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * 供 Spring Security 过滤器链（如 /oauth/token 的客户端认证）使用：过滤器中的异常不会经过 MVC 异常处理，
+     * 繁忙时改为抛出 {@link AuthenticationServiceException}（cause 为 {@link TooManyRequestsException}），
+     * 由 AuthenticationEntryPoint 返回 429
+     *
+     * @return PasswordEncoder
+     */
+    public PasswordEncoder forAuthentication() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    return BoundedPasswordEncoder.this.encode(rawPassword);
+                } catch (TooManyRequestsException e) {
+                    throw new AuthenticationServiceException(e.getMessage(), e);
+                }
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try {
+                    return BoundedPasswordEncoder.this.matches(rawPassword, encodedPassword);
+                } catch (TooManyRequestsException e) {
+                    throw new AuthenticationServiceException(e.getMessage(), e);
+                }
+            }
+
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                return BoundedPasswordEncoder.this.upgradeEncoding(encodedPassword);
+            }
+        };
+    }
+
+    private <T> T execute(Supplier<T> task) {
+        final long submitted = System.nanoTime();
+        final AtomicBoolean started = new AtomicBoolean();
+        final Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                started.set(true);
+                final long start = System.nanoTime();
+                waitCount.increment();
+                waitNanos.add(start - submitted);
+                try {
+                    return task.get();
+                } finally {
+                    hashCount.increment();
+                    hashNanos.add(System.nanoTime() - start);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException("系统繁忙，请稍后重试");
+        }
+        try {
+            return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // 未开始的任务直接取消；已开始的无法中断，记为放弃
+            future.cancel(true);
+            if (started.get()) {
+                abandoned.increment();
+            }
+            rejected.increment();
+            throw new TooManyRequestsException("系统繁忙，请稍后重试");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("密码校验被中断", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * 每增加 1 强度耗时翻倍，取不超过目标耗时的最大强度
+     */
+    private static int selectStrength(PasswordEncoderProperties properties) {
+        final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(BENCHMARK_STRENGTH);
+        encoder.encode("warmup");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < BENCHMARK_ROUNDS; i++) {
+            final long start = System.nanoTime();
+            encoder.encode("benchmark");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        final long target = properties.getTargetLatency().toNanos();
+        int selected = properties.getStrength();
+        long cost = best << Math.max(0, selected - BENCHMARK_STRENGTH);
+        while (selected < properties.getMaxStrength() && cost * 2 <= target) {
+            selected++;
+            cost *= 2;
+        }
+        log.info("BCrypt({}) 实测 {} ms，目标 {} ms，选择强度 {}", BENCHMARK_STRENGTH, TimeUnit.NANOSECONDS.toMillis(best),
+                properties.getTargetLatency().toMillis(), selected);
+        return selected;
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionTimer.builder("password.hash.wait", this, e -> e.waitCount.sum(), e -> e.waitNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("密码加密排队时间").register(registry);
+        FunctionTimer.builder("password.hash.time", this, e -> e.hashCount.sum(), e -> e.hashNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("密码加密计算时间").register(registry);
+        FunctionCounter.builder("password.hash.rejected", rejected, LongAdder::sum).description("密码加密拒绝数").register(registry);
+        FunctionCounter.builder("password.hash.abandoned", abandoned, LongAdder::sum).description("等待超时但已在计算的密码加密数").register(registry);
+        Gauge.builder("password.hash.queue.size", executor, e -> e.getQueue().size()).description("密码加密队列深度").register(registry);
+        Gauge.builder("password.hash.strength", this, BoundedPasswordEncoder::getStrength).description("BCrypt 强度").register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -3,7 +3,6 @@ package com.soybean.uaa.configuration.integration.primary;
 import com.alibaba.fastjson.JSON;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.soybean.framework.commons.exception.CheckedException;
-import com.soybean.framework.db.mybatis.conditions.Wraps;
 import com.soybean.framework.db.properties.DatabaseProperties;
 import com.soybean.framework.db.properties.MultiTenantType;
 import com.soybean.framework.security.client.entity.UserInfoDetails;
@@ -66,7 +65,7 @@ public class UsernamePasswordAuthenticator extends AbstractPreparedIntegrationAu
         if (StringUtils.isBlank(grantType) || !StringUtils.equalsIgnoreCase(grantType, REFRESH_TOKEN)) {
             // 如果说是每次登陆都要清空以前的信息那么需要调用一下注销，这个注销的功能就是注销以前的token信息
         }
-        final Tenant tenant = Optional.ofNullable(tenantService.getOne(Wraps.<Tenant>lbQ().eq(Tenant::getCode, tenantCode)))
+        final Tenant tenant = Optional.ofNullable(tenantService.getByCode(tenantCode))
                 .orElseThrow(() -> CheckedException.notFound("{0}租户不存在", tenantCode));
         if (tenant.getLocked()) {
             throw CheckedException.badRequest("租户已被禁用,请联系管理员");
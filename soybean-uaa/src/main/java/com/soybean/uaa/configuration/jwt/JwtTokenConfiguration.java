@@ -0,0 +1,66 @@
+package com.soybean.uaa.configuration.jwt;
+
+import com.soybean.framework.security.client.token.DenyListJwtTokenStore;
+import com.soybean.framework.security.client.token.JwtUserAuthenticationConverter;
+import com.soybean.uaa.configuration.properties.OAuth2Properties;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.oauth2.provider.token.DefaultAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.security.rsa.crypto.KeyStoreKeyFactory;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * JWT 令牌模式，替代 RedisTokenStore
+ * <p>
+ * 令牌自包含用户信息，资源服务器通过 /oauth/jwks 的公钥本地校验；退出登录的令牌记录到 {@link RedisTokenDenyList} 并通过 Bus 广播
+ *
+ * @author wenxina
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "security.oauth2.jwt", name = "enabled", havingValue = "true")
+public class JwtTokenConfiguration {
+
+    @Bean
+    public KeyPair jwtKeyPair(OAuth2Properties properties) throws NoSuchAlgorithmException {
+        final OAuth2Properties.Jwt jwt = properties.getJwt();
+        if (StringUtils.isBlank(jwt.getKeyStore())) {
+            log.warn("未配置 JWT 密钥库，使用临时生成的密钥，仅适用于单节点认证中心");
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        }
+        final String keyPassword = StringUtils.defaultIfBlank(jwt.getKeyPassword(), jwt.getKeyStorePassword());
+        return new KeyStoreKeyFactory(new DefaultResourceLoader().getResource(jwt.getKeyStore()), jwt.getKeyStorePassword().toCharArray())
+                .getKeyPair(jwt.getKeyAlias(), keyPassword.toCharArray());
+    }
+
+    @Bean
+    public KeyIdJwtAccessTokenConverter jwtAccessTokenConverter(KeyPair jwtKeyPair, OAuth2Properties properties) {
+        KeyIdJwtAccessTokenConverter converter = new KeyIdJwtAccessTokenConverter(jwtKeyPair, properties.getJwt().getKeyId());
+        DefaultAccessTokenConverter accessTokenConverter = new DefaultAccessTokenConverter();
+        accessTokenConverter.setUserTokenConverter(new JwtUserAuthenticationConverter());
+        converter.setAccessTokenConverter(accessTokenConverter);
+        return converter;
+    }
+
+    @Bean
+    public RedisTokenDenyList redisTokenDenyList(StringRedisTemplate stringRedisTemplate) {
+        return new RedisTokenDenyList(stringRedisTemplate);
+    }
+
+    @Bean
+    public TokenStore tokenStore(KeyIdJwtAccessTokenConverter jwtAccessTokenConverter, RedisTokenDenyList redisTokenDenyList) {
+        return new DenyListJwtTokenStore(jwtAccessTokenConverter, redisTokenDenyList);
+    }
+
+}
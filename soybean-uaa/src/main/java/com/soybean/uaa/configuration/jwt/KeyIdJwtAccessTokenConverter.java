@@ -0,0 +1,45 @@
+package com.soybean.uaa.configuration.jwt;
+
+import com.soybean.framework.security.client.token.JwkSetUtils;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.jwt.crypto.sign.RsaSigner;
+import org.springframework.security.jwt.crypto.sign.Signer;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.util.JsonParser;
+import org.springframework.security.oauth2.common.util.JsonParserFactory;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+
+import java.security.KeyPair;
+import java.security.interfaces.RSAPrivateKey;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 签发时在 JWT 头部写入 kid，资源服务器据此从 JWKS 中选择公钥
+ *
+ * @author wenxina
+ */
+public class KeyIdJwtAccessTokenConverter extends JwtAccessTokenConverter {
+
+    private final JsonParser jsonParser = JsonParserFactory.create();
+    private final Map<String, String> headers;
+    private final Signer signer;
+
+    public KeyIdJwtAccessTokenConverter(KeyPair keyPair, String keyId) {
+        super.setKeyPair(keyPair);
+        this.signer = new RsaSigner((RSAPrivateKey) keyPair.getPrivate());
+        this.headers = Collections.singletonMap(JwkSetUtils.KEY_ID, keyId);
+    }
+
+    @Override
+    protected String encode(OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
+        String content;
+        try {
+            content = jsonParser.formatMap(getAccessTokenConverter().convertAccessToken(accessToken, authentication));
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot convert access token to JSON", e);
+        }
+        return JwtHelper.encode(content, signer, headers).getEncoded();
+    }
+}
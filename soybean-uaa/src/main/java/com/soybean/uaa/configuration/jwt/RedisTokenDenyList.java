@@ -0,0 +1,54 @@
+package com.soybean.uaa.configuration.jwt;
+
+import com.soybean.framework.security.client.token.TokenDenyList;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 认证中心的 {@link TokenDenyList}，保存在 Redis ZSET 中（score 为过期时间），资源服务器启动时从这里加载
+ *
+ * @author wenxina
+ */
+@RequiredArgsConstructor
+public class RedisTokenDenyList implements TokenDenyList {
+
+    private static final String KEY = "soybean:oauth:jwt:revoked";
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Override
+    public void revoke(String jti, long expiresAt) {
+        final long now = System.currentTimeMillis();
+        if (expiresAt <= now) {
+            return;
+        }
+        stringRedisTemplate.opsForZSet().add(KEY, jti, expiresAt);
+        stringRedisTemplate.opsForZSet().removeRangeByScore(KEY, 0, now);
+    }
+
+    @Override
+    public boolean isRevoked(String jti) {
+        final Double expiresAt = stringRedisTemplate.opsForZSet().score(KEY, jti);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * 未过期的注销名单
+     *
+     * @return key 为 jti，value 为过期时间（毫秒）
+     */
+    public Map<String, Long> revoked() {
+        final Set<ZSetOperations.TypedTuple<String>> tuples = stringRedisTemplate.opsForZSet()
+                .rangeByScoreWithScores(KEY, System.currentTimeMillis(), Double.MAX_VALUE);
+        if (tuples == null) {
+            return Map.of();
+        }
+        return tuples.stream().filter(tuple -> tuple.getValue() != null && tuple.getScore() != null)
+                .collect(Collectors.toMap(ZSetOperations.TypedTuple::getValue, tuple -> tuple.getScore().longValue()));
+    }
+}
@@ -0,0 +1,49 @@
+package com.soybean.uaa.configuration.jwt;
+
+import com.soybean.uaa.configuration.crypto.BoundedPasswordEncoder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.client.ClientDetailsUserDetailsService;
+import org.springframework.security.web.AuthenticationEntryPoint;
+
+/**
+ * 令牌注销名单（/oauth/revoked_jti）需要客户端认证（HTTP Basic，client_id/client_secret），与 /oauth/token_key 一致
+ * <p>
+ * 顺序在授权服务器（0）之后、资源服务器（3）之前
+ *
+ * @author wenxina
+ */
+@Order(2)
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "security.oauth2.jwt", name = "enabled", havingValue = "true")
+public class RevokedJtiSecurityConfiguration extends WebSecurityConfigurerAdapter {
+
+    private static final String REVOKED_JTI = "/oauth/revoked_jti";
+
+    private final ClientDetailsService clientDetailsService;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final AuthenticationEntryPoint authenticationEntryPoint;
+
+    @Override
+    protected void configure(AuthenticationManagerBuilder auth) throws Exception {
+        auth.userDetailsService(new ClientDetailsUserDetailsService(clientDetailsService))
+                .passwordEncoder(passwordEncoder.forAuthentication());
+    }
+
+    @Override
+    protected void configure(HttpSecurity http) throws Exception {
+        http.requestMatchers().antMatchers(REVOKED_JTI)
+                .and().authorizeRequests().anyRequest().authenticated()
+                .and().httpBasic().authenticationEntryPoint(authenticationEntryPoint)
+                .and().csrf().disable()
+                .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS);
+    }
+}
@@ -20,5 +20,33 @@ public class OAuth2Properties {
      * 生成的 refreshToken 有效期（默认 30 天）
      */
     private Duration refreshTokenValidityTimeToLive = Duration.ofDays(30);
+    /**
+     * JWT 令牌配置
+     */
+    private Jwt jwt = new Jwt();
+
+    @Data
+    public static class Jwt {
+
+        /**
+         * 是否签发自包含的 JWT（资源服务器本地校验，不再访问 Redis 与认证中心）
+         */
+        private boolean enabled;
+        /**
+         * 密钥库位置，如 classpath:soybean.jks，未配置时启动生成临时密钥（仅适用于单节点）
+         */
+        private String keyStore;
+        private String keyStorePassword;
+        private String keyAlias;
+        /**
+         * 私钥密码，默认与密钥库密码相同
+         */
+        private String keyPassword;
+        /**
+         * 密钥 ID，写入 JWT 头部（kid），轮换密钥时修改
+         */
+        private String keyId = "soybean";
+
+    }
 
 }
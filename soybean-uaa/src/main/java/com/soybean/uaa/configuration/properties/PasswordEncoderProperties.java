@@ -0,0 +1,46 @@
+package com.soybean.uaa.configuration.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 密码加密配置
+ *
+ * @author wenxina
+ */
+@Data
+@ConfigurationProperties(prefix = "security.password")
+public class PasswordEncoderProperties {
+
+    /**
+     * 加密线程数，小于等于 0 时为 CPU 核数
+     */
+    private int threads;
+    /**
+     * 等待队列长度，队列满时直接返回 429
+     */
+    private int queueCapacity = 64;
+    /**
+     * 调用方最长等待时间（含排队与计算），超时返回 429
+     */
+    private Duration timeout = Duration.ofSeconds(3);
+    /**
+     * 是否按目标耗时在启动时选择 BCrypt 强度，关闭时使用 strength
+     */
+    private boolean adaptive = true;
+    /**
+     * 单次 BCrypt 的目标耗时
+     */
+    private Duration targetLatency = Duration.ofMillis(250);
+    /**
+     * BCrypt 强度，adaptive 开启时作为下限
+     */
+    private int strength = 10;
+    /**
+     * adaptive 开启时 BCrypt 强度上限
+     */
+    private int maxStrength = 14;
+
+}
@@ -1,83 +1,27 @@
 package com.soybean.uaa.configuration.provider;
 
-import cn.hutool.core.util.StrUtil;
-import com.google.common.collect.Sets;
-import com.soybean.framework.security.client.exception.Auth2Exception;
-import com.soybean.uaa.domain.entity.baseinfo.OAuthClientDetails;
-import com.soybean.uaa.repository.OAuthClientDetailsMapper;
 import lombok.RequiredArgsConstructor;
-import lombok.SneakyThrows;
-import org.apache.commons.lang3.StringUtils;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Primary;
-import org.springframework.http.HttpStatus;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.provider.ClientDetails;
 import org.springframework.security.oauth2.provider.ClientDetailsService;
-import org.springframework.security.oauth2.provider.client.BaseClientDetails;
 import org.springframework.stereotype.Service;
 
-import javax.annotation.Resource;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-
 /**
- * 自定义 redis 缓存实现的 ClientDetailsService
+ * 基于本地注册表实现的 ClientDetailsService，密钥已预先编码，加载时不再加密
  *
  * @author wenxina
+ * @see ClientDetailsRegistry
  */
 @Service
 @Primary
 @RequiredArgsConstructor
 public class CacheClientDetailsServiceImpl implements ClientDetailsService {
 
-    @Resource
-    private PasswordEncoder passwordEncoder;
-    @Resource
-    private OAuthClientDetailsMapper oAuthClientDetailsMapper;
+    private final ClientDetailsRegistry clientDetailsRegistry;
 
-    @SneakyThrows
     @Override
-    @Cacheable(value = "clients", key = "#clientId", unless = "#result == null")
     public ClientDetails loadClientByClientId(String clientId) {
-        final OAuthClientDetails details = this.oAuthClientDetailsMapper.selectById(clientId);
-        if (Objects.isNull(details)) {
-            throw new Auth2Exception("client_id 或 client_secret 错误", HttpStatus.BAD_REQUEST.value());
-        }
-        if (Boolean.FALSE.equals(details.getStatus())) {
-            throw new Auth2Exception("client_id 已被禁用", HttpStatus.BAD_REQUEST.value());
-        }
-        BaseClientDetails clientDetails = new BaseClientDetails();
-        clientDetails.setClientId(details.getClientId());
-        clientDetails.setClientSecret(passwordEncoder.encode(details.getClientSecret()));
-        clientDetails.setAccessTokenValiditySeconds(details.getAccessTokenValidity());
-        clientDetails.setRefreshTokenValiditySeconds(details.getRefreshTokenValidity());
-        if (StringUtils.isNotBlank(details.getResourceIds())) {
-            clientDetails.setResourceIds(StrUtil.split(details.getResourceIds(), ','));
-        }
-        if (StringUtils.isNotBlank(details.getAuthorizedGrantTypes())) {
-            clientDetails.setAuthorizedGrantTypes(StrUtil.split(details.getAuthorizedGrantTypes(), ','));
-        }
-        if (StringUtils.isNotBlank(details.getScope())) {
-            clientDetails.setScope(StrUtil.split(details.getScope(), ','));
-        }
-        if (StringUtils.isNotBlank(details.getAutoApprove())) {
-            clientDetails.setAutoApproveScopes(StrUtil.split(details.getAutoApprove(), ','));
-        }
-        if (StringUtils.isNotBlank(details.getWebServerRedirectUri())) {
-            final HashSet<String> registeredRedirectUris = Sets.newHashSet(StrUtil.split(details.getWebServerRedirectUri(), ','));
-            clientDetails.setRegisteredRedirectUri(registeredRedirectUris);
-        }
-        if (StringUtils.isNotBlank(details.getAuthorities())) {
-            List<SimpleGrantedAuthority> authorities = StrUtil.split(details.getAuthorities(), ',')
-                    .stream().distinct().map(SimpleGrantedAuthority::new)
-                    .collect(Collectors.toList());
-            clientDetails.setAuthorities(authorities);
-        }
-        return clientDetails;
+        return clientDetailsRegistry.get(clientId);
     }
 
 }
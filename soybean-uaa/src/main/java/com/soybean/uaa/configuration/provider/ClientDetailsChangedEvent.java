@@ -0,0 +1,19 @@
+package com.soybean.uaa.configuration.provider;
+
+import org.springframework.cloud.bus.event.RemoteApplicationEvent;
+
+/**
+ * 应用（OAuth 客户端）变更事件，通过 Bus 广播到所有认证中心节点，用于刷新 {@link ClientDetailsRegistry}
+ *
+ * @author wenxina
+ */
+public class ClientDetailsChangedEvent extends RemoteApplicationEvent {
+
+    public ClientDetailsChangedEvent() {
+    }
+
+    public ClientDetailsChangedEvent(Object body, String originService) {
+        super(body, originService, DEFAULT_DESTINATION_FACTORY.getDestination(null));
+    }
+
+}
@@ -0,0 +1,233 @@
+package com.soybean.uaa.configuration.provider;
+
+import cn.hutool.core.util.StrUtil;
+import com.google.common.collect.Sets;
+import com.soybean.framework.security.client.exception.Auth2Exception;
+import com.soybean.uaa.domain.entity.baseinfo.OAuthClientDetails;
+import com.soybean.uaa.repository.OAuthClientDetailsMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.ApplicationListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.client.BaseClientDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 应用（OAuth 客户端）注册表
+ * <p>
+ * 启动时加载全部 {@link OAuthClientDetails} 为不可变快照，收到 {@link ClientDetailsChangedEvent} 后整体重新加载；
+ * 快照中不存在的 client_id 单独查库并追加，兼容事件尚未到达的情况。
+ * 客户端密钥按 {@link org.springframework.security.crypto.password.DelegatingPasswordEncoder} 格式保存（如 {bcrypt}...），
+ * 未带前缀的旧数据视为明文（{noop}），不会在每次加载时重新加密
+ *
+ * @author wenxina
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClientDetailsRegistry implements InitializingBean, ApplicationListener<ClientDetailsChangedEvent>, MeterBinder {
+
+    private static final Pattern ENCODED_SECRET = Pattern.compile("^\\{[^{}]+}.*", Pattern.DOTALL);
+    private static final String NOOP_PREFIX = "{noop}";
+
+    private final OAuthClientDetailsMapper oAuthClientDetailsMapper;
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Set.of());
+
+    private final AtomicLong loads = new AtomicLong();
+    /**
+     * 最近一次全量加载耗时（毫秒）
+     */
+    @Getter
+    private volatile long lastLoadMillis;
+    /**
+     * 最近一次全量加载完成时间
+     */
+    @Getter
+    private volatile long lastLoadedAt;
+
+    @Override
+    public void afterPropertiesSet() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.warn("加载应用注册表失败，将按 client_id 单独查询 - {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onApplicationEvent(ClientDetailsChangedEvent event) {
+        log.info("接收应用变更事件: - {}", event.getOriginService());
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("刷新应用注册表失败，继续使用旧快照", e);
+        }
+    }
+
+    /**
+     * 根据 client_id 获取应用
+     *
+     * @param clientId client_id
+     * @return 应用信息
+     */
+    public ClientDetails get(String clientId) {
+        final Snapshot current = this.snapshot;
+        if (current.disabled.contains(clientId)) {
+            throw new Auth2Exception("client_id 已被禁用", HttpStatus.BAD_REQUEST.value());
+        }
+        final ClientDetails clientDetails = current.clients.get(clientId);
+        if (clientDetails != null) {
+            return clientDetails;
+        }
+        final OAuthClientDetails details = this.oAuthClientDetailsMapper.selectById(clientId);
+        if (Objects.isNull(details)) {
+            throw new Auth2Exception("client_id 或 client_secret 错误", HttpStatus.BAD_REQUEST.value());
+        }
+        append(details);
+        if (Boolean.FALSE.equals(details.getStatus())) {
+            throw new Auth2Exception("client_id 已被禁用", HttpStatus.BAD_REQUEST.value());
+        }
+        return toClientDetails(details);
+    }
+
+    /**
+     * 全量重新加载
+     */
+    public synchronized void refresh() {
+        final long start = System.nanoTime();
+        final List<OAuthClientDetails> list = this.oAuthClientDetailsMapper.selectList(null);
+        final Map<String, ClientDetails> clients = new HashMap<>(list.size());
+        final Set<String> disabled = new HashSet<>();
+        for (OAuthClientDetails details : list) {
+            if (Boolean.FALSE.equals(details.getStatus())) {
+                disabled.add(details.getClientId());
+            } else {
+                clients.put(details.getClientId(), toClientDetails(details));
+            }
+        }
+        this.snapshot = new Snapshot(Map.copyOf(clients), Set.copyOf(disabled));
+        this.lastLoadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        this.lastLoadedAt = System.currentTimeMillis();
+        this.loads.incrementAndGet();
+        log.info("应用注册表加载完成，共 {} 个，禁用 {} 个，耗时 {} ms", clients.size(), disabled.size(), lastLoadMillis);
+    }
+
+    public int size() {
+        final Snapshot current = this.snapshot;
+        return current.clients.size() + current.disabled.size();
+    }
+
+    public long getLoads() {
+        return loads.get();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("oauth.client.registry.size", this, ClientDetailsRegistry::size).description("应用注册表条数").register(registry);
+        Gauge.builder("oauth.client.registry.load.time", this, ClientDetailsRegistry::getLastLoadMillis)
+                .description("应用注册表最近一次加载耗时").baseUnit("milliseconds").register(registry);
+        FunctionCounter.builder("oauth.client.registry.loads", loads, AtomicLong::get).description("应用注册表加载次数").register(registry);
+    }
+
+    /**
+     * 密钥是否已按 {@code {id}encoded} 格式编码
+     *
+     * @param secret 密钥
+     * @return 是否已编码
+     */
+    public static boolean isEncoded(String secret) {
+        return secret != null && ENCODED_SECRET.matcher(secret).matches();
+    }
+
+    /**
+     * 保存应用前编码密钥，已编码的直接返回
+     *
+     * @param passwordEncoder passwordEncoder
+     * @param secret          密钥
+     * @return 编码后的密钥
+     */
+    public static String encodeSecret(PasswordEncoder passwordEncoder, String secret) {
+        if (StringUtils.isBlank(secret) || isEncoded(secret)) {
+            return secret;
+        }
+        return passwordEncoder.encode(secret);
+    }
+
+    private synchronized void append(OAuthClientDetails details) {
+        final Snapshot current = this.snapshot;
+        final Map<String, ClientDetails> clients = new HashMap<>(current.clients);
+        final Set<String> disabled = new HashSet<>(current.disabled);
+        if (Boolean.FALSE.equals(details.getStatus())) {
+            disabled.add(details.getClientId());
+        } else {
+            clients.put(details.getClientId(), toClientDetails(details));
+        }
+        this.snapshot = new Snapshot(Map.copyOf(clients), Set.copyOf(disabled));
+    }
+
+    private static ClientDetails toClientDetails(OAuthClientDetails details) {
+        BaseClientDetails clientDetails = new BaseClientDetails();
+        clientDetails.setClientId(details.getClientId());
+        final String secret = details.getClientSecret();
+        clientDetails.setClientSecret(secret == null || isEncoded(secret) ? secret : NOOP_PREFIX + secret);
+        clientDetails.setAccessTokenValiditySeconds(details.getAccessTokenValidity());
+        clientDetails.setRefreshTokenValiditySeconds(details.getRefreshTokenValidity());
+        if (StringUtils.isNotBlank(details.getResourceIds())) {
+            clientDetails.setResourceIds(StrUtil.split(details.getResourceIds(), ','));
+        }
+        if (StringUtils.isNotBlank(details.getAuthorizedGrantTypes())) {
+            clientDetails.setAuthorizedGrantTypes(StrUtil.split(details.getAuthorizedGrantTypes(), ','));
+        }
+        if (StringUtils.isNotBlank(details.getScope())) {
+            clientDetails.setScope(StrUtil.split(details.getScope(), ','));
+        }
+        if (StringUtils.isNotBlank(details.getAutoApprove())) {
+            clientDetails.setAutoApproveScopes(StrUtil.split(details.getAutoApprove(), ','));
+        }
+        if (StringUtils.isNotBlank(details.getWebServerRedirectUri())) {
+            final HashSet<String> registeredRedirectUris = Sets.newHashSet(StrUtil.split(details.getWebServerRedirectUri(), ','));
+            clientDetails.setRegisteredRedirectUri(registeredRedirectUris);
+        }
+        if (StringUtils.isNotBlank(details.getAuthorities())) {
+            List<SimpleGrantedAuthority> authorities = StrUtil.split(details.getAuthorities(), ',')
+                    .stream().distinct().map(SimpleGrantedAuthority::new)
+                    .collect(Collectors.toList());
+            clientDetails.setAuthorities(authorities);
+        }
+        return clientDetails;
+    }
+
+    private static final class Snapshot {
+
+        private final Map<String, ClientDetails> clients;
+        private final Set<String> disabled;
+
+        private Snapshot(Map<String, ClientDetails> clients, Set<String> disabled) {
+            this.clients = clients;
+            this.disabled = disabled;
+        }
+    }
+}
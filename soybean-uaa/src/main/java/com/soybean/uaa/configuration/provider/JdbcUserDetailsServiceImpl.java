@@ -6,8 +6,7 @@ import com.soybean.framework.security.client.entity.UserInfoDetails;
 import com.soybean.uaa.configuration.integration.IntegrationAuthentication;
 import com.soybean.uaa.configuration.integration.IntegrationAuthenticationContext;
 import com.soybean.uaa.configuration.integration.IntegrationAuthenticator;
-import com.soybean.uaa.domain.entity.baseinfo.Role;
-import com.soybean.uaa.repository.ResourceMapper;
+import com.soybean.uaa.domain.vo.UserAuthorityVO;
 import com.soybean.uaa.repository.RoleMapper;
 import com.soybean.uaa.service.LoginLogService;
 import lombok.extern.slf4j.Slf4j;
@@ -19,13 +18,13 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import static java.util.stream.Collectors.toList;
-
 /**
  * @author wenxina
  */
@@ -39,8 +38,6 @@ public class JdbcUserDetailsServiceImpl implements UserDetailsService {
     private LoginLogService loginLogService;
     @Resource
     private RoleMapper roleMapper;
-    @Resource
-    private ResourceMapper resourceMapper;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -56,7 +53,7 @@ public class JdbcUserDetailsServiceImpl implements UserDetailsService {
         }
         this.setAuthorize(userInfoDetails, integrationAuthentication);
         try {
-            // 写个登录日志
+            // 写个登录日志，异步批量写入
             this.loginLogService.saveLoginLog(userInfoDetails.getUserId(), username, userInfoDetails.getRealName());
         } catch (Exception e) {
             log.error("[登录日志记录错误] - [{}]", e.getMessage());
@@ -65,20 +62,28 @@ public class JdbcUserDetailsServiceImpl implements UserDetailsService {
     }
 
     /**
-     * 设置授权信息
+     * 设置授权信息，角色与权限一次查询
      *
      * @param user user
      */
     private void setAuthorize(UserInfoDetails user, IntegrationAuthentication integrationAuthentication) {
-        final List<String> roles = Optional.ofNullable(this.roleMapper.findRoleByUserId(user.getUserId())).orElseGet(Lists::newArrayList)
-                .stream().map(Role::getCode).collect(toList());
-        final List<String> permissions = Optional.ofNullable(this.resourceMapper.queryPermissionByUserId(user.getUserId())).orElseGet(Lists::newArrayList);
+        final List<UserAuthorityVO> authorities = Optional.ofNullable(this.roleMapper.findAuthorityByUserId(user.getUserId())).orElseGet(Lists::newArrayList);
+        final Set<String> roles = new LinkedHashSet<>();
+        final Set<String> permissions = new LinkedHashSet<>();
+        for (UserAuthorityVO authority : authorities) {
+            if (!Boolean.TRUE.equals(authority.getRoleLocked())) {
+                roles.add(authority.getRoleCode());
+            }
+            if (authority.getPermission() != null) {
+                permissions.add(authority.getPermission());
+            }
+        }
         // 验证角色和登录系统
         Set<String> authorize = Sets.newHashSet();
         authorize.addAll(roles);
         authorize.addAll(permissions);
-        user.setRoles(roles);
-        user.setPermissions(permissions);
+        user.setRoles(new ArrayList<>(roles));
+        user.setPermissions(new ArrayList<>(permissions));
         user.setAuthorities(authorize.stream().filter(StringUtils::isNotBlank).map(SimpleGrantedAuthority::new).collect(Collectors.toSet()));
     }
 
@@ -0,0 +1,47 @@
+package com.soybean.uaa.configuration.provider;
+
+import com.soybean.framework.boot.RegionUtils;
+import com.soybean.framework.boot.log.UserAgentCache;
+import com.soybean.framework.boot.log.UserAgentInfo;
+import com.soybean.framework.boot.log.event.LogPipeline;
+import com.soybean.framework.boot.log.properties.SysLogProperties;
+import com.soybean.uaa.domain.entity.log.LoginLog;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 登录日志批量写入，登录线程只记录原始信息，User-Agent 与 IP 归属地在写入线程解析
+ *
+ * @author wenxina
+ */
+public class LoginLogPipeline extends LogPipeline<LoginLog> {
+
+    /**
+     * @param properties 配置
+     * @param writer     批量写入，同一批日志的 dsKey 相同
+     */
+    public LoginLogPipeline(SysLogProperties.Pipeline properties, Consumer<List<LoginLog>> writer) {
+        super("login.log", "登录日志", properties, writer);
+    }
+
+    @Override
+    protected void prepare(LoginLog loginLog) {
+        loginLog.setLocation(RegionUtils.getRegion(loginLog.getIp()));
+        final UserAgentInfo userAgent = UserAgentCache.getInstance().parse(loginLog.getUserAgent());
+        if (userAgent == null) {
+            return;
+        }
+        loginLog.setPlatform(userAgent.getPlatform());
+        loginLog.setEngine(userAgent.getEngine());
+        loginLog.setEngineVersion(userAgent.getEngineVersion());
+        loginLog.setBrowser(userAgent.getBrowser());
+        loginLog.setBrowserVersion(userAgent.getBrowserVersion());
+        loginLog.setOs(userAgent.getOs());
+    }
+
+    @Override
+    protected String group(LoginLog loginLog) {
+        return loginLog.getDsKey();
+    }
+}
@@ -3,7 +3,6 @@ package com.soybean.uaa.controller;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.soybean.framework.commons.annotation.log.SysLog;
-import com.soybean.framework.commons.exception.CheckedException;
 import com.soybean.framework.db.mybatis.conditions.Wraps;
 import com.soybean.uaa.domain.entity.baseinfo.OAuthClientDetails;
 import com.soybean.uaa.service.ApplicationService;
@@ -52,11 +51,7 @@ public class ApplicationController {
     @PostMapping
     @SysLog(value = "添加应用")
     public void save(@Validated @RequestBody OAuthClientDetails dto) {
-        final long count = this.applicationService.count(Wraps.<OAuthClientDetails>lbQ().eq(OAuthClientDetails::getClientId, dto.getClientId()));
-        if (count > 0) {
-            throw CheckedException.badRequest("客户ID已存在");
-        }
-        this.applicationService.save(dto);
+        this.applicationService.create(dto);
     }
 
     /**
@@ -68,7 +63,7 @@ public class ApplicationController {
     @PutMapping("/{id}")
     @SysLog(value = "修改应用")
     public void edit(@PathVariable String id, @Validated @RequestBody OAuthClientDetails dto) {
-        this.applicationService.updateById(dto);
+        this.applicationService.modify(id, dto);
     }
 
     /**
@@ -80,7 +75,7 @@ public class ApplicationController {
     @PutMapping("/{id}/{status}")
     @SysLog(value = "修改应用")
     public void status(@PathVariable String id, @PathVariable Boolean status) {
-        this.applicationService.updateById(OAuthClientDetails.builder().clientId(id).status(status).build());
+        this.applicationService.changeStatus(id, status);
     }
 
     /**
@@ -91,7 +86,7 @@ public class ApplicationController {
     @DeleteMapping("{id}")
     @SysLog(value = "删除应用")
     public void del(@PathVariable String id) {
-        this.applicationService.removeById(id);
+        this.applicationService.remove(id);
     }
 
 }
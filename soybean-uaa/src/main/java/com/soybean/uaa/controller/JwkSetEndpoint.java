@@ -0,0 +1,57 @@
+package com.soybean.uaa.controller;
+
+import com.soybean.framework.security.client.annotation.IgnoreAuthorize;
+import com.soybean.framework.security.client.token.JwkSetUtils;
+import com.soybean.uaa.configuration.jwt.RedisTokenDenyList;
+import com.soybean.uaa.configuration.properties.OAuth2Properties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.security.KeyPair;
+import java.security.interfaces.RSAPublicKey;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JWT 模式下供资源服务器使用的端点，不经过统一结果封装
+ *
+ * @author wenxina
+ */
+@Controller
+@RequestMapping("/oauth")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "security.oauth2.jwt", name = "enabled", havingValue = "true")
+public class JwkSetEndpoint {
+
+    private final KeyPair jwtKeyPair;
+    private final OAuth2Properties properties;
+    private final RedisTokenDenyList redisTokenDenyList;
+
+    /**
+     * 签名公钥（JWKS）
+     *
+     * @return JWK Set
+     */
+    @IgnoreAuthorize
+    @ResponseBody
+    @GetMapping("/jwks")
+    public Map<String, Object> jwks() {
+        final Map<String, Object> jwk = JwkSetUtils.toJwk(properties.getJwt().getKeyId(), (RSAPublicKey) jwtKeyPair.getPublic());
+        return Map.of(JwkSetUtils.KEYS, List.of(jwk));
+    }
+
+    /**
+     * 未过期的注销名单，需要客户端认证，见 {@link com.soybean.uaa.configuration.jwt.RevokedJtiSecurityConfiguration}
+     *
+     * @return key 为 jti，value 为过期时间（毫秒）
+     */
+    @ResponseBody
+    @GetMapping("/revoked_jti")
+    public Map<String, Long> revoked() {
+        return redisTokenDenyList.revoked();
+    }
+}
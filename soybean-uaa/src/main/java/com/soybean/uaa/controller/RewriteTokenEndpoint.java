@@ -8,6 +8,9 @@ import com.soybean.framework.commons.entity.Result;
 import com.soybean.framework.commons.exception.CheckedException;
 import com.soybean.framework.commons.util.StringUtils;
 import com.soybean.framework.db.TenantEnvironment;
+import com.soybean.framework.security.client.token.DenyListJwtTokenStore;
+import com.soybean.framework.security.client.token.TokenAuthenticationCache;
+import com.soybean.framework.security.client.token.TokenRevokedEvent;
 import com.soybean.framework.security.client.utils.SecurityUtils;
 import com.soybean.uaa.domain.dto.ChangePasswordDTO;
 import com.soybean.uaa.service.UserService;
@@ -15,11 +18,15 @@ import lombok.EqualsAndHashCode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.IOUtils;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.oauth2.common.OAuth2RefreshToken;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.authentication.OAuth2AuthenticationDetails;
 import org.springframework.security.oauth2.provider.endpoint.TokenEndpoint;
 import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
@@ -50,6 +57,8 @@ public class RewriteTokenEndpoint {
     private final TokenEndpoint tokenEndpoint;
     private final UserService userService;
     private final TokenStore tokenStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ApplicationContext applicationContext;
 
     /**
      * 获取访问令牌
@@ -80,15 +89,27 @@ public class RewriteTokenEndpoint {
         if (SecurityUtils.anonymous()) {
             return;
         }
-        final OAuth2AccessToken accessToken = tokenStore.getAccessToken(SecurityUtils.getAuthentication());
+        final OAuth2Authentication authentication = SecurityUtils.getAuthentication();
+        OAuth2AccessToken accessToken = tokenStore.getAccessToken(authentication);
+        if (accessToken == null && authentication.getDetails() instanceof OAuth2AuthenticationDetails) {
+            // JWT 模式下令牌不落库，直接读取请求中的令牌
+            accessToken = tokenStore.readAccessToken(((OAuth2AuthenticationDetails) authentication.getDetails()).getTokenValue());
+        }
         if (accessToken == null) {
             return;
         }
         tokenStore.removeAccessToken(accessToken);
-        final OAuth2RefreshToken refreshToken = tokenStore.readRefreshToken(accessToken.getValue());
-        if (refreshToken != null) {
-            tokenStore.removeRefreshToken(refreshToken);
+        if (!(tokenStore instanceof JwtTokenStore)) {
+            final OAuth2RefreshToken refreshToken = tokenStore.readRefreshToken(accessToken.getValue());
+            if (refreshToken != null) {
+                tokenStore.removeRefreshToken(refreshToken);
+            }
         }
+        // 通知资源服务移除本地令牌缓存、记录注销名单
+        final String tokenHash = TokenAuthenticationCache.hash(accessToken.getValue());
+        final Long expiresAt = accessToken.getExpiration() == null ? null : accessToken.getExpiration().getTime();
+        eventPublisher.publishEvent(new TokenRevokedEvent(this, applicationContext.getId(), tokenHash,
+                DenyListJwtTokenStore.getTokenId(accessToken), expiresAt));
     }
 
     /**
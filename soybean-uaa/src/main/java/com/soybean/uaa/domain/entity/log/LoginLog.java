@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.annotation.IdType;
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableName;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -97,4 +98,18 @@ public class LoginLog {
     private String location;
     private String clientId;
 
+    /**
+     * 原始 User-Agent，批量写入前解析
+     */
+    @JsonIgnore
+    @TableField(exist = false)
+    private String userAgent;
+
+    /**
+     * 写入的数据源
+     */
+    @JsonIgnore
+    @TableField(exist = false)
+    private String dsKey;
+
 }
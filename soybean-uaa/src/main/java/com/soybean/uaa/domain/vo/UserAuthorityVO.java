@@ -0,0 +1,26 @@
+package com.soybean.uaa.domain.vo;
+
+import lombok.Data;
+
+/**
+ * 用户的角色与权限（登录时一次查询），每行对应一个角色下的一个权限
+ *
+ * @author wenxina
+ */
+@Data
+public class UserAuthorityVO {
+
+    /**
+     * 角色编码
+     */
+    private String roleCode;
+    /**
+     * 角色是否禁用，禁用的角色不计入角色列表
+     */
+    private Boolean roleLocked;
+    /**
+     * 权限，角色没有权限时为空
+     */
+    private String permission;
+
+}
@@ -5,6 +5,7 @@ import com.soybean.framework.db.configuration.dynamic.annotation.TenantDS;
 import com.soybean.framework.db.mybatis.SuperMapper;
 import com.soybean.framework.db.mybatis.auth.permission.prop.DataScope;
 import com.soybean.uaa.domain.entity.baseinfo.Role;
+import com.soybean.uaa.domain.vo.UserAuthorityVO;
 import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Param;
 import org.springframework.stereotype.Repository;
@@ -27,6 +28,15 @@ public interface RoleMapper extends SuperMapper<Role> {
      */
     List<Role> findRoleByUserId(Long userId);
 
+    /**
+     * 根据用户ID一次查询角色与权限，替代登录时的 findRoleByUserId + queryPermissionByUserId
+     *
+     * @param userId 用户ID
+     * @return 查询结果
+     */
+    @InterceptorIgnore(tenantLine = "true")
+    List<UserAuthorityVO> findAuthorityByUserId(Long userId);
+
     /**
      * 根据范围查询角色
      *
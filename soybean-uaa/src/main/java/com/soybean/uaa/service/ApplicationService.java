@@ -8,10 +8,34 @@ import com.soybean.uaa.domain.entity.baseinfo.OAuthClientDetails;
  */
 public interface ApplicationService extends SuperService<OAuthClientDetails> {
 
-//    void saveOrUpdate(OAuthClientDetails clientDetails);
-//
-//    void removeById(String id);
-//
-//    IPage<OAuthClientDetails> page(Page<?> objectPage, LbqWrapper<OAuthClientDetails> wrapper);
+    /**
+     * 添加应用，密钥编码后保存
+     *
+     * @param clientDetails 应用信息
+     */
+    void create(OAuthClientDetails clientDetails);
+
+    /**
+     * 修改应用，密钥为空时不修改
+     *
+     * @param clientId      client_id
+     * @param clientDetails 应用信息
+     */
+    void modify(String clientId, OAuthClientDetails clientDetails);
+
+    /**
+     * 修改应用状态
+     *
+     * @param clientId client_id
+     * @param status   状态
+     */
+    void changeStatus(String clientId, Boolean status);
+
+    /**
+     * 删除应用
+     *
+     * @param clientId client_id
+     */
+    void remove(String clientId);
 
 }
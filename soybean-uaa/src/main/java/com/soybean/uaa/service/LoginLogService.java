@@ -4,6 +4,8 @@ package com.soybean.uaa.service;
 import com.soybean.framework.db.mybatis.SuperService;
 import com.soybean.uaa.domain.entity.log.LoginLog;
 
+import java.util.List;
+
 /**
  * <p>
  * 业务接口
@@ -17,7 +19,7 @@ import com.soybean.uaa.domain.entity.log.LoginLog;
 public interface LoginLogService extends SuperService<LoginLog> {
 
     /**
-     * 记录登录日志
+     * 记录登录日志，放入队列后异步批量写入
      *
      * @param userId    用户ID
      * @param principal 账号
@@ -26,4 +28,11 @@ public interface LoginLogService extends SuperService<LoginLog> {
      */
     LoginLog saveLoginLog(Long userId, String principal, String realName);
 
+    /**
+     * 批量写入登录日志
+     *
+     * @param logs 日志，dsKey 相同
+     */
+    void saveLoginLogs(List<LoginLog> logs);
+
 }
@@ -4,6 +4,8 @@ import com.soybean.framework.boot.log.OptLogDTO;
 import com.soybean.framework.db.mybatis.SuperService;
 import com.soybean.uaa.domain.entity.log.OptLog;
 
+import java.util.List;
+
 /**
  * @author wenxina
  */
@@ -15,4 +17,11 @@ public interface OptLogService extends SuperService<OptLog> {
      * @param dto dto
      */
     void save(OptLogDTO dto);
+
+    /**
+     * 批量保存操作日志
+     *
+     * @param logs 日志，数据源（dsKey）相同
+     */
+    void saveBatch(List<OptLogDTO> logs);
 }
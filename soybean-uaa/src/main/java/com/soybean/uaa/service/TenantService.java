@@ -17,6 +17,14 @@ public interface TenantService extends SuperService<Tenant> {
      */
     void saveOrUpdateTenant(Tenant tenant);
 
+    /**
+     * 根据编码查询租户，结果在本地缓存一段时间，租户变更时清空
+     *
+     * @param code 租户编码
+     * @return 租户信息，不存在时为 null
+     */
+    Tenant getByCode(String code);
+
     void tenantConfig(TenantConfig tenantConfig);
 
     void initSqlScript(Long id);
@@ -1,10 +1,18 @@
 package com.soybean.uaa.service.impl;
 
+import com.soybean.framework.commons.exception.CheckedException;
+import com.soybean.framework.commons.util.StringUtils;
 import com.soybean.framework.db.mybatis.SuperServiceImpl;
+import com.soybean.framework.db.mybatis.conditions.Wraps;
+import com.soybean.uaa.configuration.provider.ClientDetailsChangedEvent;
+import com.soybean.uaa.configuration.provider.ClientDetailsRegistry;
 import com.soybean.uaa.domain.entity.baseinfo.OAuthClientDetails;
 import com.soybean.uaa.repository.OAuthClientDetailsMapper;
 import com.soybean.uaa.service.ApplicationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 /**
@@ -14,5 +22,48 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class ApplicationServiceImpl extends SuperServiceImpl<OAuthClientDetailsMapper, OAuthClientDetails> implements ApplicationService {
 
+    private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ApplicationContext applicationContext;
+
+    @Override
+    public void create(OAuthClientDetails clientDetails) {
+        final long count = this.count(Wraps.<OAuthClientDetails>lbQ().eq(OAuthClientDetails::getClientId, clientDetails.getClientId()));
+        if (count > 0) {
+            throw CheckedException.badRequest("客户ID已存在");
+        }
+        clientDetails.setClientSecret(ClientDetailsRegistry.encodeSecret(passwordEncoder, clientDetails.getClientSecret()));
+        this.baseMapper.insert(clientDetails);
+        publishClientDetailsChanged();
+    }
+
+    @Override
+    public void modify(String clientId, OAuthClientDetails clientDetails) {
+        clientDetails.setClientId(clientId);
+        // 密钥为空时不修改：置为 null，updateById 跳过该列
+        clientDetails.setClientSecret(StringUtils.isBlank(clientDetails.getClientSecret()) ? null
+                : ClientDetailsRegistry.encodeSecret(passwordEncoder, clientDetails.getClientSecret()));
+        this.baseMapper.updateById(clientDetails);
+        publishClientDetailsChanged();
+    }
+
+    @Override
+    public void changeStatus(String clientId, Boolean status) {
+        this.baseMapper.updateById(OAuthClientDetails.builder().clientId(clientId).status(status).build());
+        publishClientDetailsChanged();
+    }
+
+    @Override
+    public void remove(String clientId) {
+        this.baseMapper.deleteById(clientId);
+        publishClientDetailsChanged();
+    }
+
+    /**
+     * 应用发生变化，通知所有认证中心节点刷新应用注册表
+     */
+    private void publishClientDetailsChanged() {
+        eventPublisher.publishEvent(new ClientDetailsChangedEvent(this, applicationContext.getId()));
+    }
 
 }
@@ -1,20 +1,23 @@
 package com.soybean.uaa.service.impl;
 
 import cn.hutool.extra.servlet.ServletUtil;
-import cn.hutool.http.useragent.Browser;
-import cn.hutool.http.useragent.OS;
-import cn.hutool.http.useragent.UserAgent;
-import cn.hutool.http.useragent.UserAgentUtil;
-import com.soybean.framework.boot.RegionUtils;
+import com.baomidou.dynamic.datasource.toolkit.DynamicDataSourceContextHolder;
 import com.soybean.framework.db.mybatis.SuperServiceImpl;
+import com.soybean.framework.db.properties.DatabaseProperties;
+import com.soybean.framework.db.properties.MultiTenantType;
+import com.soybean.uaa.configuration.provider.LoginLogPipeline;
 import com.soybean.uaa.domain.entity.log.LoginLog;
 import com.soybean.uaa.repository.LoginLogMapper;
 import com.soybean.uaa.service.LoginLogService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 
 import javax.servlet.http.HttpServletRequest;
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * <p>
@@ -32,28 +35,54 @@ public class LoginLogServiceImpl extends SuperServiceImpl<LoginLogMapper, LoginL
 
     private static final String USER_AGENT = "User-Agent";
     private final HttpServletRequest request;
+    private final DatabaseProperties properties;
+    private final ObjectProvider<LoginLogPipeline> loginLogPipeline;
 
     @Override
     public LoginLog saveLoginLog(Long userId, String principal, String realName) {
-        String ip = ServletUtil.getClientIP(request);
-        final String clientId = request.getParameter("client_id");
-        String region = RegionUtils.getRegion(ip);
-        String ua = request.getHeader(USER_AGENT);
-        final UserAgent userAgent = UserAgentUtil.parse(ua);
-        final Browser browser = userAgent.getBrowser();
-        final OS os = userAgent.getOs();
         LoginLog loginLog = LoginLog.builder()
                 .userId(userId)
-                .principal(principal).ip(ip).location(region).ip(ip)
-                .platform(userAgent.getPlatform().getName())
-                .engine(userAgent.getEngine().getName())
-                .engineVersion(userAgent.getEngineVersion())
-                .browser(browser.getName())
-                .browserVersion(browser.getVersion(ua))
-                .os(os.getName())
-                .clientId(clientId).name(realName)
+                .principal(principal).ip(ServletUtil.getClientIP(request))
+                .userAgent(request.getHeader(USER_AGENT))
+                .clientId(request.getParameter("client_id")).name(realName)
+                .createdTime(LocalDateTime.now()).dsKey(dsKey())
                 .build();
-        super.save(loginLog);
+        final LoginLogPipeline pipeline = loginLogPipeline.getIfAvailable();
+        if (pipeline == null) {
+            saveLoginLogs(List.of(loginLog));
+        } else if (!pipeline.offer(loginLog)) {
+            log.warn("[登录日志队列已满] - {}", principal);
+        }
         return loginLog;
     }
+
+    @Override
+    public void saveLoginLogs(List<LoginLog> logs) {
+        if (logs.isEmpty()) {
+            return;
+        }
+        DynamicDataSourceContextHolder.push(logs.get(0).getDsKey());
+        try {
+            // 走 SqlSession 批量插入，不经过 Mapper 上 @TenantDS 的数据源切换
+            saveBatch(logs);
+        } finally {
+            DynamicDataSourceContextHolder.poll();
+        }
+    }
+
+    /**
+     * 与 @TenantDS 的解析规则一致，写入线程没有请求上下文，需提前确定数据源
+     */
+    private String dsKey() {
+        final DatabaseProperties.MultiTenant multiTenant = properties.getMultiTenant();
+        if (multiTenant.getType() != MultiTenantType.DATASOURCE) {
+            return null;
+        }
+        final String column = multiTenant.getTenantCodeColumn();
+        final String tenantCode = StringUtils.defaultIfBlank(request.getHeader(column), request.getParameter(column));
+        if (StringUtils.isBlank(tenantCode) || StringUtils.equals(tenantCode, multiTenant.getSuperTenantCode())) {
+            return multiTenant.getDefaultDsName();
+        }
+        return multiTenant.getDsPrefix() + tenantCode;
+    }
 }
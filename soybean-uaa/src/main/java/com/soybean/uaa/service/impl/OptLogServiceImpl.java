@@ -1,7 +1,6 @@
 package com.soybean.uaa.service.impl;
 
 import cn.hutool.core.bean.BeanUtil;
-import com.alibaba.fastjson.JSON;
 import com.baomidou.dynamic.datasource.toolkit.DynamicDataSourceContextHolder;
 import com.soybean.framework.boot.RegionUtils;
 import com.soybean.framework.boot.log.OptLogDTO;
@@ -13,6 +12,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * @author wenxina
  */
@@ -26,11 +29,41 @@ public class OptLogServiceImpl extends SuperServiceImpl<OptLogMapper, OptLog> im
     @Override
     public void save(OptLogDTO dto) {
         DynamicDataSourceContextHolder.push(dto.getDsKey());
-        log.info("[日志信息] - {}", JSON.toJSONString(dto));
+        try {
+            log.debug("[日志信息] - {}", dto);
+            this.optLogMapper.insert(toRecord(dto));
+        } finally {
+            DynamicDataSourceContextHolder.poll();
+        }
+    }
+
+    @Override
+    public void saveBatch(List<OptLogDTO> logs) {
+        if (logs.isEmpty()) {
+            return;
+        }
+        DynamicDataSourceContextHolder.push(logs.get(0).getDsKey());
+        try {
+            log.debug("[日志信息] - 批量写入 {} 条", logs.size());
+            final List<String> regions = RegionUtils.getRegions(logs.stream().map(OptLogDTO::getIp).collect(Collectors.toList()));
+            final List<OptLog> records = new ArrayList<>(logs.size());
+            for (int i = 0; i < logs.size(); i++) {
+                records.add(toRecord(logs.get(i), regions.get(i)));
+            }
+            insertBatch(records);
+        } finally {
+            DynamicDataSourceContextHolder.poll();
+        }
+    }
+
+    private OptLog toRecord(OptLogDTO dto) {
+        return toRecord(dto, RegionUtils.getRegion(dto.getIp()));
+    }
+
+    private OptLog toRecord(OptLogDTO dto, String region) {
         final OptLog record = BeanUtil.toBean(dto, OptLog.class);
-        record.setLocation(RegionUtils.getRegion(dto.getIp()));
-        this.optLogMapper.insert(record);
-        DynamicDataSourceContextHolder.poll();
+        record.setLocation(region);
+        return record;
     }
 
 }
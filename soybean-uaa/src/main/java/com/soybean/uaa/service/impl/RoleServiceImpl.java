@@ -2,13 +2,14 @@ package com.soybean.uaa.service.impl;
 
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollectionUtil;
-import com.baomidou.dynamic.datasource.annotation.DSTransactional;
 import com.google.common.collect.Lists;
 import com.soybean.framework.commons.exception.CheckedException;
 import com.soybean.framework.db.TenantEnvironment;
+import com.soybean.framework.db.configuration.permission.event.DataScopeChangedEvent;
 import com.soybean.framework.db.mybatis.SuperServiceImpl;
 import com.soybean.framework.db.mybatis.auth.permission.prop.DataScope;
 import com.soybean.framework.db.mybatis.conditions.Wraps;
+import com.soybean.framework.db.util.DsTransactionUtils;
 import com.soybean.uaa.domain.dto.ResourceQueryDTO;
 import com.soybean.uaa.domain.dto.RoleDTO;
 import com.soybean.uaa.domain.entity.baseinfo.Role;
@@ -21,6 +22,8 @@ import com.soybean.uaa.repository.*;
 import com.soybean.uaa.service.RoleService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -49,6 +52,8 @@ public class RoleServiceImpl extends SuperServiceImpl<RoleMapper, Role> implemen
     private final UserRoleMapper userRoleMapper;
     private final ResourceMapper resourceMapper;
     private final TenantEnvironment tenantEnvironment;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ApplicationContext applicationContext;
 
     @Override
     public List<Role> list(DataScope scope) {
@@ -56,7 +61,6 @@ public class RoleServiceImpl extends SuperServiceImpl<RoleMapper, Role> implemen
     }
 
     @Override
-    @DSTransactional
     public void removeByRoleId(Long roleId) {
         final Role role = Optional.ofNullable(baseMapper.selectById(roleId)).orElseThrow(() -> CheckedException.notFound("角色不存在"));
         if (role.getReadonly()) {
@@ -65,10 +69,13 @@ public class RoleServiceImpl extends SuperServiceImpl<RoleMapper, Role> implemen
         if (role.getSuperRole()) {
             throw CheckedException.badRequest("超级角色无法删除");
         }
-        baseMapper.deleteById(roleId);
-        roleOrgMapper.delete(Wraps.<RoleOrg>lbQ().eq(RoleOrg::getRoleId, roleId));
-        roleResMapper.delete(Wraps.<RoleRes>lbQ().eq(RoleRes::getRoleId, roleId));
-        userRoleMapper.delete(Wraps.<UserRole>lbQ().eq(UserRole::getRoleId, roleId));
+        DsTransactionUtils.execute(() -> {
+            baseMapper.deleteById(roleId);
+            roleOrgMapper.delete(Wraps.<RoleOrg>lbQ().eq(RoleOrg::getRoleId, roleId));
+            roleResMapper.delete(Wraps.<RoleRes>lbQ().eq(RoleRes::getRoleId, roleId));
+            userRoleMapper.delete(Wraps.<UserRole>lbQ().eq(UserRole::getRoleId, roleId));
+            publishDataScopeChanged();
+        });
     }
 
 
@@ -90,22 +97,33 @@ public class RoleServiceImpl extends SuperServiceImpl<RoleMapper, Role> implemen
             throw CheckedException.badRequest("超级角色无法编辑");
         }
         role.setId(roleId);
-        baseMapper.updateById(role);
-
-        roleOrgMapper.delete(Wraps.<RoleOrg>lbQ().eq(RoleOrg::getRoleId, roleId));
-        saveRoleOrg(role, data.getOrgList());
+        DsTransactionUtils.execute(() -> {
+            baseMapper.updateById(role);
+            roleOrgMapper.delete(Wraps.<RoleOrg>lbQ().eq(RoleOrg::getRoleId, roleId));
+            saveRoleOrg(role, data.getOrgList());
+            publishDataScopeChanged();
+        });
     }
 
     @Override
-    @DSTransactional
     public void saveUserRole(Long roleId, List<Long> userIdList) {
-        this.userRoleMapper.delete(Wraps.<UserRole>lbQ().eq(UserRole::getRoleId, roleId));
         final List<UserRole> userRoles = userIdList.stream().map(userId -> UserRole.builder()
                         .roleId(roleId).userId(userId).build())
                 .collect(Collectors.toList());
-        for (UserRole role : userRoles) {
-            this.userRoleMapper.insert(role);
-        }
+        DsTransactionUtils.execute(() -> {
+            this.userRoleMapper.delete(Wraps.<UserRole>lbQ().eq(UserRole::getRoleId, roleId));
+            for (UserRole role : userRoles) {
+                this.userRoleMapper.insert(role);
+            }
+            publishDataScopeChanged();
+        });
+    }
+
+    /**
+     * 角色的数据范围或者用户角色发生变化，事务提交后通知所有服务清空数据权限缓存，避免其他节点在提交前重新加载到旧数据
+     */
+    private void publishDataScopeChanged() {
+        DsTransactionUtils.afterCommit(() -> eventPublisher.publishEvent(new DataScopeChangedEvent(this, applicationContext.getId())));
     }
 
     private void saveRoleOrg(Role role, List<Long> orgList) {
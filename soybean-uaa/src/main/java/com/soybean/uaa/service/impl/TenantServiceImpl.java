@@ -1,8 +1,11 @@
 package com.soybean.uaa.service.impl;
 
+import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.extra.spring.SpringUtil;
 import com.baomidou.dynamic.datasource.annotation.DSTransactional;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.soybean.framework.commons.exception.CheckedException;
 import com.soybean.framework.commons.util.StringUtils;
 import com.soybean.framework.db.configuration.dynamic.TenantDynamicDataSourceProcess;
@@ -24,6 +27,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.io.Serializable;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -44,13 +49,33 @@ public class TenantServiceImpl extends SuperServiceImpl<TenantMapper, Tenant> im
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
 
+    /**
+     * 登录时按编码查询租户的缓存，其它节点修改后最多延迟一个过期时间生效；缓存的实体不对外返回，调用方拿到的是副本
+     */
+    private final Cache<String, Tenant> tenantsByCode = Caffeine.newBuilder()
+            .maximumSize(1024).expireAfterWrite(Duration.ofSeconds(30)).build();
+
     @Override
     public void saveOrUpdateTenant(Tenant tenant) {
         if (tenant.getId() != null) {
             baseMapper.updateById(tenant);
-            return;
+        } else {
+            baseMapper.insert(tenant);
         }
-        baseMapper.insert(tenant);
+        tenantsByCode.invalidateAll();
+    }
+
+    @Override
+    public Tenant getByCode(String code) {
+        final Tenant tenant = tenantsByCode.get(code, key -> baseMapper.selectOne(Wraps.<Tenant>lbQ().eq(Tenant::getCode, key)));
+        return tenant == null ? null : BeanUtil.toBean(tenant, Tenant.class);
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        final boolean removed = super.removeById(id);
+        tenantsByCode.invalidateAll();
+        return removed;
     }
 
     @Override